@@ -0,0 +1,40 @@
+package com.studyGroup.backend.config;
+
+import com.studyGroup.backend.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Security-context principal set by {@link JwtAuthFilter}. Carries the resolved
+ * {@link User} so controllers and services can read it without another query.
+ */
+public class AuthenticatedUser implements UserDetails {
+
+    private final User user;
+
+    public AuthenticatedUser(User user) {
+        this.user = user;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of();
+    }
+
+    @Override
+    public String getPassword() {
+        return user.getPassword();
+    }
+
+    @Override
+    public String getUsername() {
+        return user.getEmail();
+    }
+}
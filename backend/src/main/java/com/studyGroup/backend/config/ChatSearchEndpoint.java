@@ -0,0 +1,36 @@
+package com.studyGroup.backend.config;
+
+import com.studyGroup.backend.service.ChatSearchIndex;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Operator command for the chat search index: {@code GET /actuator/chatsearch} reports its
+ * size, {@code POST /actuator/chatsearch} rebuilds it from the database. Not exposed over
+ * HTTP unless added to {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "chatsearch")
+public class ChatSearchEndpoint {
+
+    private final ChatSearchIndex chatSearchIndex;
+
+    public ChatSearchEndpoint(ChatSearchIndex chatSearchIndex) {
+        this.chatSearchIndex = chatSearchIndex;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return Map.of("indexedMessages", chatSearchIndex.getIndexedCount(),
+                "rebuilding", chatSearchIndex.isRebuilding());
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        return Map.of("started", chatSearchIndex.rebuild());
+    }
+}
@@ -0,0 +1,18 @@
+package com.studyGroup.backend.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a {@link com.studyGroup.backend.model.User} controller parameter to the user
+ * authenticated by {@link JwtAuthFilter}. Resolves to {@code null} when the request
+ * carries no valid token.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
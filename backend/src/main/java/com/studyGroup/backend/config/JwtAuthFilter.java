@@ -7,49 +7,47 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.studyGroup.backend.model.User;
 import com.studyGroup.backend.service.JWTService;
-import com.studyGroup.backend.service.UserService;
+import com.studyGroup.backend.service.PrincipalCache;
 
 import java.io.IOException;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
     @Autowired
     private JWTService jwtService;
 
     @Autowired
-    private UserService userService;
+    private PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
-        String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            username = jwtService.validateToken(token);
-        }
-
-        if (username != null && !"401".equals(username) && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.loadUserByUsername(username);
-
-            if (userDetails != null && username.equals(userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        // Single authentication path: the header is read and the token verified once per request
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            String authHeader = request.getHeader("Authorization");
+            if (authHeader != null && authHeader.regionMatches(0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+                String username = jwtService.validateAuthorizationHeader(authHeader);
+
+                // Cached by subject: no users-table query on a hit
+                User user = "401".equals(username) ? null : principalCache.get(username);
+                if (user != null) {
+                    AuthenticatedUser principal = new AuthenticatedUser(user);
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            principal, null, principal.getAuthorities());
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
             }
         }
-     
+
         filterChain.doFilter(request, response);
     }
 }
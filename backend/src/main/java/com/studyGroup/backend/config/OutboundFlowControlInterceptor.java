@@ -0,0 +1,162 @@
+package com.studyGroup.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-session flow control on the client outbound channel.
+ *
+ * Counts the frames each session has outstanding all the way to its socket: a frame is
+ * counted when it enters the outbound channel and released only once
+ * {@link OutboundSessionDecoratorFactory} has seen it written to the connection. The count
+ * therefore covers the executor queue, the session's send buffer and a write blocked on a
+ * slow client, not only the executor. Once a session has {@code session-backlog-limit}
+ * frames outstanding, non-critical frames (those carrying {@link #COALESCE_KEY_HEADER},
+ * e.g. live vote counts) are no longer queued: with the {@code coalesce} policy only the
+ * latest frame per key is parked and sent when the session drains below half the limit;
+ * with {@code drop} they are discarded. Chat messages and protocol frames are never held
+ * back.
+ *
+ * Session-level send time and buffer limits are applied by the transport (see
+ * {@link WebSocketConfig}); this keeps a slow client from filling the shared outbound
+ * queue and its send buffer before those limits close it.
+ */
+@Component
+public class OutboundFlowControlInterceptor implements ExecutorChannelInterceptor {
+
+    public static final String COALESCE_KEY_HEADER = "x-coalesce-key";
+
+    private final Map<String, SessionBacklog> sessions = new ConcurrentHashMap<>();
+
+    private final int backlogLimit;
+    private final boolean coalesce;
+    private final long delayWarnMs;
+
+    private final Counter droppedFrames;
+    private final Counter coalescedFrames;
+    private final Counter delayedFrames;
+    private final Timer deliveryDelay;
+
+    // Set on the first frame; parked frames are re-sent through it
+    private volatile MessageChannel outboundChannel;
+
+    public OutboundFlowControlInterceptor(MeterRegistry meterRegistry,
+                                          @Value("${app.websocket.outbound.session-backlog-limit:64}") int backlogLimit,
+                                          @Value("${app.websocket.outbound.non-critical-policy:coalesce}") String policy,
+                                          @Value("${app.websocket.outbound.delay-warn-ms:500}") long delayWarnMs) {
+        this.backlogLimit = backlogLimit;
+        this.coalesce = !"drop".equalsIgnoreCase(policy);
+        this.delayWarnMs = delayWarnMs;
+
+        this.droppedFrames = Counter.builder("websocket.outbound.dropped").register(meterRegistry);
+        this.coalescedFrames = Counter.builder("websocket.outbound.coalesced").register(meterRegistry);
+        this.delayedFrames = Counter.builder("websocket.outbound.delayed").register(meterRegistry);
+        this.deliveryDelay = Timer.builder("websocket.outbound.delay").register(meterRegistry);
+        Gauge.builder("websocket.outbound.backlogged.sessions", sessions,
+                s -> s.values().stream().filter(b -> b.pending.get() >= backlogLimit).count())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null) {
+            return message;
+        }
+        outboundChannel = channel;
+        SessionBacklog backlog = sessions.computeIfAbsent(sessionId, id -> new SessionBacklog());
+
+        String coalesceKey = NativeMessageHeaderAccessor.getFirstNativeHeader(COALESCE_KEY_HEADER, message.getHeaders());
+        if (coalesceKey != null && backlog.pending.get() >= backlogLimit) {
+            if (!coalesce) {
+                droppedFrames.increment();
+            } else if (backlog.parked.put(coalesceKey, message) != null) {
+                // An older frame for the same key was still parked; the newer one supersedes it
+                coalescedFrames.increment();
+            }
+            return null;
+        }
+        backlog.pending.incrementAndGet();
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Rejected by the outbound executor: the frame was counted but will never be written
+        if (ex != null) {
+            release(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        }
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        Long createdAt = message.getHeaders().getTimestamp();
+        if (createdAt != null) {
+            long delayMs = System.currentTimeMillis() - createdAt;
+            deliveryDelay.record(delayMs, TimeUnit.MILLISECONDS);
+            if (delayMs > delayWarnMs) {
+                delayedFrames.increment();
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        // Failed before reaching the socket; frames that were handled are released by frameWritten
+        if (ex != null) {
+            release(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        }
+    }
+
+    /** Called by the session decorator once a frame has been written to the session's connection. */
+    public void frameWritten(String sessionId) {
+        release(sessionId);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+    }
+
+    private void release(String sessionId) {
+        SessionBacklog backlog = sessionId != null ? sessions.get(sessionId) : null;
+        if (backlog == null) {
+            return;
+        }
+        // Frames the protocol handler writes without going through the channel (e.g. ERROR) were never counted
+        int pending = backlog.pending.updateAndGet(n -> n > 0 ? n - 1 : 0);
+        MessageChannel channel = outboundChannel;
+        if (pending < backlogLimit / 2 && !backlog.parked.isEmpty() && channel != null) {
+            for (String key : backlog.parked.keySet()) {
+                Message<?> next = backlog.parked.remove(key);
+                if (next != null) {
+                    channel.send(next);
+                }
+            }
+        }
+    }
+
+    private static final class SessionBacklog {
+        private final AtomicInteger pending = new AtomicInteger();
+        // coalesce key -> latest frame held back while the session was backed up
+        private final Map<String, Message<?>> parked = new ConcurrentHashMap<>();
+    }
+}
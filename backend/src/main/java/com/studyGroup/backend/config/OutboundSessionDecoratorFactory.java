@@ -0,0 +1,55 @@
+package com.studyGroup.backend.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+
+/**
+ * Wraps every WebSocket session so that {@link OutboundFlowControlInterceptor} learns when
+ * a frame has actually been written to the connection.
+ *
+ * The STOMP handler puts its own buffering decorator (send time and buffer limits) around
+ * the session it is given, so the wrapper added here sits between that buffer and the
+ * socket: a frame returns from {@code sendMessage} only once the client has taken it.
+ */
+@Component
+public class OutboundSessionDecoratorFactory implements WebSocketHandlerDecoratorFactory {
+
+    private final OutboundFlowControlInterceptor outboundFlowControl;
+
+    public OutboundSessionDecoratorFactory(OutboundFlowControlInterceptor outboundFlowControl) {
+        this.outboundFlowControl = outboundFlowControl;
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                super.afterConnectionEstablished(new WrittenFrameSession(session));
+            }
+        };
+    }
+
+    private final class WrittenFrameSession extends WebSocketSessionDecorator {
+
+        WrittenFrameSession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } finally {
+                outboundFlowControl.frameWritten(getId());
+            }
+        }
+    }
+}
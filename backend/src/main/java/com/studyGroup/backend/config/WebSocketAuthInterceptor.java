@@ -2,36 +2,126 @@ package com.studyGroup.backend.config;
 
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.stereotype.Component;
 
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.service.JWTService;
+import com.studyGroup.backend.service.PrincipalCache;
+import com.studyGroup.backend.service.StompSessionRegistry;
+
+/**
+ * Authenticates STOMP sessions at CONNECT and authorizes group destinations afterwards.
+ *
+ * The token is verified once per connection and the resolved user is bound to the session
+ * as its principal. SUBSCRIBE to {@code /topic/group/{id}} and SEND to
+ * {@code /app/chat.sendMessage/{id}} require membership (see {@link StompSessionRegistry});
+ * {@code /queue/notifications/{userId}} may only be subscribed to by that user. Clients may
+ * SEND only to {@code /app} destinations; broker destinations are written by the server alone.
+ * Group subscriptions are recorded so they can be cancelled when the user leaves the group.
+ */
 @Component
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String GROUP_TOPIC_PREFIX = "/topic/group/";
+    private static final String APP_DESTINATION_PREFIX = "/app/";
+    private static final String GROUP_SEND_PREFIX = "/app/chat.sendMessage/";
+    private static final String NOTIFICATION_QUEUE_PREFIX = "/queue/notifications/";
+
+    private final JWTService jwtService;
+    private final PrincipalCache principalCache;
+    private final StompSessionRegistry sessionRegistry;
+
+    public WebSocketAuthInterceptor(JWTService jwtService, PrincipalCache principalCache,
+                                    StompSessionRegistry sessionRegistry) {
+        this.jwtService = jwtService;
+        this.principalCache = principalCache;
+        this.sessionRegistry = sessionRegistry;
+    }
+
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
-        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
-
-        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
-            String authHeader = accessor.getFirstNativeHeader("Authorization");
-            String token = null;
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
 
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                token = authHeader.substring(7);
-            } else {
-                token = accessor.getFirstNativeHeader("token");
+        String sessionId = accessor.getSessionId();
+        switch (accessor.getCommand()) {
+            case CONNECT -> {
+                User user = authenticate(accessor);
+                AuthenticatedUser principal = new AuthenticatedUser(user);
+                accessor.setUser(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+                sessionRegistry.register(sessionId, user);
+            }
+            case SUBSCRIBE -> authorize(sessionId, accessor.getDestination(), GROUP_TOPIC_PREFIX, accessor.getSubscriptionId());
+            case SEND -> {
+                String destination = accessor.getDestination();
+                // A SEND to /topic or /queue would reach subscribers unchecked
+                if (destination == null || !destination.startsWith(APP_DESTINATION_PREFIX)) {
+                    throw new MessagingException("Cannot send to " + destination);
+                }
+                authorize(sessionId, destination, GROUP_SEND_PREFIX, null);
+            }
+            case UNSUBSCRIBE -> sessionRegistry.unsubscribe(sessionId, accessor.getSubscriptionId());
+            default -> {
             }
+        }
+        return message;
+    }
 
-            if (token != null) {
-                System.out.println("✅ STOMP connection received with token: " + token);
-                
-            } else {
-                System.out.println("⚠️ No token found in STOMP CONNECT headers");
+    private User authenticate(StompHeaderAccessor accessor) {
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        String token = authHeader != null && authHeader.startsWith(BEARER_PREFIX)
+                ? authHeader.substring(BEARER_PREFIX.length())
+                : accessor.getFirstNativeHeader("token");
+        if (token == null) {
+            throw new MessagingException("Missing token in STOMP CONNECT headers");
+        }
+
+        String email = jwtService.validateToken(token);
+        User user = "401".equals(email) ? null : principalCache.get(email);
+        if (user == null) {
+            throw new MessagingException("Invalid or expired token");
+        }
+        return user;
+    }
+
+    private void authorize(String sessionId, String destination, String groupPrefix, String subscriptionId) {
+        User user = sessionRegistry.getUser(sessionId);
+        if (user == null) {
+            throw new MessagingException("STOMP session is not authenticated");
+        }
+        if (destination == null) {
+            return;
+        }
+
+        if (destination.startsWith(groupPrefix)) {
+            Long groupId = parseId(destination.substring(groupPrefix.length()));
+            boolean allowed = groupId != null && (subscriptionId != null
+                    ? sessionRegistry.subscribeToGroup(sessionId, subscriptionId, groupId)
+                    : sessionRegistry.canAccessGroup(sessionId, groupId));
+            if (!allowed) {
+                throw new MessagingException("Not a member of this group");
+            }
+        } else if (destination.startsWith(NOTIFICATION_QUEUE_PREFIX)) {
+            if (!destination.substring(NOTIFICATION_QUEUE_PREFIX.length()).equals(String.valueOf(user.getId()))) {
+                throw new MessagingException("Cannot subscribe to another user's notifications");
             }
         }
+    }
 
-        return message;
+    private static Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
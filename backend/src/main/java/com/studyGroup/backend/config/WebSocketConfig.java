@@ -1,16 +1,99 @@
 package com.studyGroup.backend.config;
 
 
+import com.studyGroup.backend.service.FanoutTransport;
+import com.studyGroup.backend.service.LoopbackFanoutTransport;
+import com.studyGroup.backend.service.NoopFanoutTransport;
+import com.studyGroup.backend.service.TcpFanoutTransport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private WebSocketAuthInterceptor authInterceptor;
+
+    @Autowired
+    private OutboundFlowControlInterceptor outboundFlowControl;
+
+    @Autowired
+    private OutboundSessionDecoratorFactory outboundSessionDecorator;
+
+    // "simple" = in-process broker (+ fan-out transport for multi-node), "relay" = external STOMP broker
+    @Value("${app.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${app.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${app.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${app.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${app.websocket.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // Cross-node transport used in simple mode: "none", "loopback" (same JVM only) or "tcp"
+    @Value("${app.websocket.fanout.transport:none}")
+    private String fanoutTransport;
+
+    @Value("${app.websocket.fanout.channel:study-group-broadcast}")
+    private String fanoutChannel;
+
+    @Value("${app.websocket.fanout.tcp.bind-address:0.0.0.0}")
+    private String fanoutBindAddress;
+
+    @Value("${app.websocket.fanout.tcp.port:7601}")
+    private int fanoutPort;
+
+    @Value("${app.websocket.fanout.tcp.peers:}")
+    private List<String> fanoutPeers;
+
+    @Value("${app.websocket.fanout.tcp.secret:}")
+    private String fanoutSecret;
+
+    @Value("${app.websocket.fanout.tcp.queue-capacity:10000}")
+    private int fanoutQueueCapacity;
+
+    // A session whose socket cannot take frames within these limits is closed
+    @Value("${app.websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    // Outbound channel pool; the queue is bounded so a stalled node fails fast instead of growing
+    @Value("${app.websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.outbound.max-pool-size:16}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
@@ -18,9 +101,56 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(outboundSessionDecorator);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(authInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(outboundFlowControl);
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            var relay = registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+            if (!relayVirtualHost.isEmpty()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            registry.enableSimpleBroker("/topic", "/queue");
+        }
         registry.setApplicationDestinationPrefixes("/app");
     }
+
+    @Bean
+    public FanoutTransport fanoutTransport(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if ("loopback".equalsIgnoreCase(fanoutTransport)) {
+            return new LoopbackFanoutTransport(fanoutChannel);
+        }
+        if ("tcp".equalsIgnoreCase(fanoutTransport)) {
+            return new TcpFanoutTransport(fanoutBindAddress, fanoutPort, fanoutPeers, fanoutSecret,
+                    fanoutQueueCapacity, objectMapper, meterRegistry);
+        }
+        return new NoopFanoutTransport();
+    }
 }
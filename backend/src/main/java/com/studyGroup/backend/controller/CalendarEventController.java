@@ -5,10 +5,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.studyGroup.backend.config.CurrentUser;
 import com.studyGroup.backend.dto.CalendarEventDTO;
 import com.studyGroup.backend.model.User;
 import com.studyGroup.backend.service.CalendarEventService;
-import com.studyGroup.backend.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,16 +22,10 @@ public class CalendarEventController {
     @Autowired
     private CalendarEventService calendarEventService;
 
-    @Autowired
-    private UserService userService;
-
     @PostMapping
     public ResponseEntity<?> createEvent(@RequestBody CalendarEventDTO eventDTO,
-                                         @RequestHeader("Authorization") String authHeader) {
+                                         @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -51,11 +45,8 @@ public class CalendarEventController {
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getEventById(@PathVariable Long id,
-                                          @RequestHeader("Authorization") String authHeader) {
+                                          @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -75,11 +66,8 @@ public class CalendarEventController {
 
     @GetMapping("/group/{groupId}")
     public ResponseEntity<?> getEventsByGroup(@PathVariable Long groupId,
-                                              @RequestHeader("Authorization") String authHeader) {
+                                              @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -100,11 +88,8 @@ public class CalendarEventController {
     @PutMapping("/{id}")
     public ResponseEntity<?> updateEvent(@PathVariable Long id,
                                          @RequestBody CalendarEventDTO eventDTO,
-                                         @RequestHeader("Authorization") String authHeader) {
+                                         @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -124,11 +109,8 @@ public class CalendarEventController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteEvent(@PathVariable Long id,
-                                         @RequestHeader("Authorization") String authHeader) {
+                                         @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -147,11 +129,8 @@ public class CalendarEventController {
     }
 
     @GetMapping("/upcoming")
-    public ResponseEntity<?> getUpcomingEvents(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUpcomingEvents(@CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -167,11 +146,8 @@ public class CalendarEventController {
     }
 
     @GetMapping("/all-upcoming")
-    public ResponseEntity<?> getAllUpcomingEvents(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getAllUpcomingEvents(@CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -187,11 +163,8 @@ public class CalendarEventController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<?> getAllEvents(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getAllEvents(@CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -207,11 +180,8 @@ public class CalendarEventController {
     }
 
     @GetMapping("/user")
-    public ResponseEntity<?> getEventsByUser(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getEventsByUser(@CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -229,11 +199,8 @@ public class CalendarEventController {
     @GetMapping("/group/{groupId}/status/{status}")
     public ResponseEntity<?> getEventsByStatus(@PathVariable Long groupId,
                                                @PathVariable String status,
-                                               @RequestHeader("Authorization") String authHeader) {
+                                               @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -255,11 +222,8 @@ public class CalendarEventController {
     public ResponseEntity<?> getEventsByDateRange(@PathVariable Long groupId,
                                                   @RequestParam LocalDateTime start,
                                                   @RequestParam LocalDateTime end,
-                                                  @RequestHeader("Authorization") String authHeader) {
+                                                  @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
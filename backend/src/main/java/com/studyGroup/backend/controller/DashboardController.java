@@ -5,15 +5,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.studyGroup.backend.config.CurrentUser;
 import com.studyGroup.backend.dto.DashboardDTO;
 import com.studyGroup.backend.model.User;
 import com.studyGroup.backend.service.DashboardService;
-import com.studyGroup.backend.service.JWTService;
-import com.studyGroup.backend.service.UserService;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -23,29 +22,15 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
 
-    @Autowired
-    private JWTService jwtService;
-
-    @Autowired
-    private UserService userService;
-
    
     @GetMapping
-    public ResponseEntity<?> getDashboardData(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getDashboardData(@CurrentUser User currentUser) {
      
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-
-        if ("401".equals(email)) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
         }
 
         try {
-            User currentUser = userService.getUserProfile(token);
-            if (currentUser == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User associated with token not found.");
-            }
-
             DashboardDTO dashboardData = dashboardService.getDashboardData(currentUser);
 
             return ResponseEntity.ok(dashboardData);
@@ -56,4 +41,15 @@ public class DashboardController {
                     .body("An error occurred while fetching dashboard data: " + e.getMessage());
         }
     }
+
+    @GetMapping("/peers")
+    public ResponseEntity<?> getSuggestedPeers(@CurrentUser User currentUser,
+                                               @RequestParam(defaultValue = "0") int offset,
+                                               @RequestParam(defaultValue = "20") int limit) {
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
+        }
+
+        return ResponseEntity.ok(dashboardService.getSuggestedPeers(currentUser, offset, limit));
+    }
 }
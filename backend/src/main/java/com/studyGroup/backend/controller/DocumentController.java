@@ -1,22 +1,30 @@
 package com.studyGroup.backend.controller;
 
-import com.studyGroup.backend.model.GroupMessage;
+import com.studyGroup.backend.config.CurrentUser;
 import com.studyGroup.backend.model.MessageDocument;
 import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.service.DocumentPreviewService;
+import com.studyGroup.backend.service.DocumentSearchIndex;
 import com.studyGroup.backend.service.DocumentService;
-import com.studyGroup.backend.service.GroupMessageService;
 import com.studyGroup.backend.service.GroupService;
-import com.studyGroup.backend.service.JWTService;
+import com.studyGroup.backend.service.PreviewBusyException;
+import com.studyGroup.backend.service.StorageQuotaExceededException;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,38 +32,82 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "http://localhost:5173")
 public class DocumentController {
 
+    // Tomcat's sendfile hand-off (same attributes its DefaultServlet uses); below this size a plain copy is cheaper
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
     @Autowired
     private DocumentService documentService;
 
     @Autowired
-    private GroupMessageService groupMessageService;
+    private GroupService groupService;
 
     @Autowired
-    private GroupService groupService;
+    private DocumentPreviewService previewService;
 
     @Autowired
-    private JWTService jwtService;
+    private DocumentSearchIndex searchIndex;
 
     @PostMapping("/upload")
     public ResponseEntity<?> uploadFile(@RequestParam("file") MultipartFile file,
                                         @RequestParam("groupId") Long groupId,
-                                        @RequestParam("senderId") Integer senderId) {
+                                        @RequestParam(value = "senderId", required = false) Integer senderId,
+                                        @CurrentUser User currentUser) {
+        // senderId is still accepted from older clients, but the sender is always the caller
+        return upload(groupId, currentUser, file.getOriginalFilename(),
+                () -> documentService.storeUpload(file, file.getSize(), file.getOriginalFilename(),
+                        file.getContentType(), groupId, currentUser));
+    }
+
+    /**
+     * Uploads the request body as a document, without multipart buffering: the bytes are
+     * streamed straight to storage while being hashed and checked against the size limit
+     * and the group's quota (413 when either is exceeded).
+     */
+    @PostMapping("/upload/stream")
+    public ResponseEntity<?> uploadStream(@RequestParam("groupId") Long groupId,
+                                          @RequestParam("filename") String filename,
+                                          @CurrentUser User currentUser,
+                                          HttpServletRequest request) {
+        return upload(groupId, currentUser, filename,
+                () -> documentService.storeUpload(request::getInputStream, request.getContentLengthLong(),
+                        filename, request.getContentType(), groupId, currentUser));
+    }
+
+    private ResponseEntity<?> upload(Long groupId, User currentUser, String filename, Runnable store) {
+        if (currentUser == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token");
+        }
+        if ("non-member".equals(groupService.getUserRoleInGroup(groupId, currentUser))) {
+            return ResponseEntity.status(403).body("You are not a member of this group");
+        }
         try {
-            GroupMessage message = groupMessageService.saveDocumentMessage(groupId, senderId, file);
-            documentService.storeFile(file, message);
+            store.run();
             return ResponseEntity.ok("File uploaded successfully");
+        } catch (StorageQuotaExceededException e) {
+            return ResponseEntity.status(413).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Could not upload the file: " + file.getOriginalFilename() + "!");
+            return ResponseEntity.badRequest().body("Could not upload the file: " + filename + "!");
         }
     }
 
+    /**
+     * Downloads a document. Responses carry a strong ETag (the content hash), so a re-open
+     * is answered with 304 via If-None-Match. Range requests get 206 partial content;
+     * full downloads are handed to the container's sendfile when it supports it.
+     */
     @GetMapping("/{messageId}")
-    public ResponseEntity<Resource> getDocument(@PathVariable Long messageId, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<Resource> getDocument(@PathVariable Long messageId, @CurrentUser User currentUser,
+                                                HttpServletRequest request, WebRequest webRequest) {
         // Verify user is authorized to access this document (must be group member)
-        String token = authHeader.replace("Bearer ", "");
-        Integer userId = jwtService.extractUserId(token);
-        User currentUser = new User();
-        currentUser.setId(userId);
+        if (currentUser == null) {
+            return ResponseEntity.status(401).body(null);
+        }
 
         MessageDocument doc = documentService.getDocumentByMessageId(messageId);
         Long groupId = doc.getMessage().getGroup().getGroupId();
@@ -66,22 +118,76 @@ public class DocumentController {
             return ResponseEntity.status(403).body(null);
         }
 
-        Resource resource = documentService.loadFileAsResource(doc.getStoredFilename());
+        documentService.recordAccess(doc);
+        String etag = "\"" + documentService.ensureContentHash(doc) + "\"";
+        // Sets the ETag header on the response, and the 304 status when If-None-Match matches
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
 
-        return ResponseEntity.ok()
+        Resource resource = documentService.loadDocument(doc);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                // private: access is per group member; no-cache: revalidate (cheap 304) on every open
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                 .contentType(MediaType.parseMediaType(doc.getFileType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + doc.getOriginalFilename() + "\"")
-                .body(resource);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + doc.getOriginalFilename() + "\"");
+
+        // Only documents in local storage can be handed to sendfile; the object tier is streamed
+        long size = resource instanceof FileSystemResource local ? local.getFile().length() : 0;
+        if (size >= SENDFILE_MIN_SIZE && request.getHeader(HttpHeaders.RANGE) == null
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Headers only; Tomcat streams the file from the page cache after the handler returns
+            request.setAttribute(SENDFILE_FILENAME, ((FileSystemResource) resource).getFile().getAbsolutePath());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return response.contentLength(size).body(null);
+        }
+
+        // Spring turns a Range header into a 206 of ResourceRegions read from the file channel
+        return response.body(resource);
+    }
+
+    /**
+     * A small JPEG of an image or of a PDF's first page. A document's bytes never change,
+     * so browsers may keep its preview for a year without revalidating.
+     */
+    @GetMapping("/{documentId}/preview")
+    public ResponseEntity<?> getPreview(@PathVariable Long documentId, @CurrentUser User currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token");
+        }
+
+        MessageDocument doc = documentService.getDocument(documentId);
+        Long groupId = doc.getMessage().getGroup().getGroupId();
+        if ("non-member".equals(groupService.getUserRoleInGroup(groupId, currentUser))) {
+            return ResponseEntity.status(403).body("Access denied: You are not a member of this group");
+        }
+
+        try {
+            documentService.ensureContentHash(doc);
+            Path preview = previewService.getPreview(doc, () -> documentService.loadDocument(doc));
+            if (preview == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable())
+                    .contentType(MediaType.IMAGE_JPEG)
+                    .body(new FileSystemResource(preview));
+        } catch (PreviewBusyException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5").body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     @GetMapping("/group/{groupId}")
-    public ResponseEntity<?> getGroupDocuments(@PathVariable Long groupId, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getGroupDocuments(@PathVariable Long groupId, @CurrentUser User currentUser) {
         try {
             // Verify user is member of the group
-            String token = authHeader.replace("Bearer ", "");
-            Integer userId = jwtService.extractUserId(token);
-            User currentUser = new User();
-            currentUser.setId(userId);
+            if (currentUser == null) {
+                return ResponseEntity.status(401).body("Invalid or expired token");
+            }
 
             String userRole = groupService.getUserRoleInGroup(groupId, currentUser);
             if ("non-member".equals(userRole)) {
@@ -93,15 +199,7 @@ public class DocumentController {
 
             // Convert to DTO with required fields
             List<Map<String, Object>> documentDTOs = documents.stream()
-                .map(doc -> {
-                    Map<String, Object> dto = new java.util.HashMap<>();
-                    dto.put("id", doc.getId());
-                    dto.put("originalFilename", doc.getOriginalFilename());
-                    dto.put("fileSize", doc.getFileSize());
-                    dto.put("uploadTime", doc.getUploadTime());
-                    dto.put("senderName", doc.getMessage().getSender().getName());
-                    return dto;
-                })
+                .map(this::toDocumentDTO)
                 .collect(Collectors.toList());
 
             return ResponseEntity.ok(documentDTOs);
@@ -109,4 +207,59 @@ public class DocumentController {
             return ResponseEntity.badRequest().body("Error fetching documents: " + e.getMessage());
         }
     }
+
+    /**
+     * Searches the text and file names of a group's documents. Results are the same entries
+     * as {@link #getGroupDocuments}, best match first, each with a {@code snippet} of the
+     * matching text (HTML-escaped, matches wrapped in {@code <mark>}).
+     */
+    @GetMapping("/group/{groupId}/search")
+    public ResponseEntity<?> searchGroupDocuments(@PathVariable Long groupId,
+                                                  @RequestParam("q") String query,
+                                                  @RequestParam(value = "size", defaultValue = "20") int size,
+                                                  @CurrentUser User currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token");
+        }
+        if ("non-member".equals(groupService.getUserRoleInGroup(groupId, currentUser))) {
+            return ResponseEntity.status(403).body("Access denied: You are not a member of this group");
+        }
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest().body("Search text is required");
+        }
+
+        try {
+            DocumentSearchIndex.SearchResult result = searchIndex.search(groupId, query, Math.min(Math.max(size, 1), 100));
+            Map<Long, MessageDocument> documents = documentService.getDocuments(
+                    result.hits().stream().map(DocumentSearchIndex.Hit::documentId).toList());
+
+            List<Map<String, Object>> hits = new java.util.ArrayList<>();
+            for (DocumentSearchIndex.Hit hit : result.hits()) {
+                // Skips entries of documents deleted since the search ran
+                MessageDocument doc = documents.get(hit.documentId());
+                if (doc != null) {
+                    Map<String, Object> dto = toDocumentDTO(doc);
+                    dto.put("snippet", hit.snippet());
+                    hits.add(dto);
+                }
+            }
+            return ResponseEntity.ok(Map.of("totalHits", result.totalHits(), "documents", hits));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error searching documents: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> toDocumentDTO(MessageDocument doc) {
+        Map<String, Object> dto = new java.util.HashMap<>();
+        dto.put("id", doc.getId());
+        dto.put("originalFilename", doc.getOriginalFilename());
+        dto.put("fileSize", doc.getFileSize());
+        dto.put("uploadTime", doc.getUploadTime());
+        dto.put("senderName", doc.getMessage().getSender().getName());
+        dto.put("fileType", doc.getFileType());
+        if (previewService.supports(doc)) {
+            dto.put("previewUrl", "/api/documents/" + doc.getId() + "/preview");
+        }
+        return dto;
+    }
 }
@@ -1,14 +1,20 @@
 package com.studyGroup.backend.controller;
 
+import com.studyGroup.backend.config.CurrentUser;
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.dto.ChatHistoryPageDTO;
 import com.studyGroup.backend.dto.ChatMessageDTO;
-import com.studyGroup.backend.model.GroupMessage;
+import com.studyGroup.backend.service.ChatSearchIndex;
 import com.studyGroup.backend.service.GroupMessageService;
+import com.studyGroup.backend.service.GroupService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/groups")
@@ -17,60 +23,67 @@ import java.util.stream.Collectors;
 public class GroupChatController {
 
     private final GroupMessageService groupMessageService;
-    private final com.studyGroup.backend.repository.MessageReplyRepository messageReplyRepository;
-    private final com.studyGroup.backend.service.JWTService jwtService;
-    private final com.studyGroup.backend.service.UserService userService;
-    private final com.studyGroup.backend.repository.PollOptionRepository pollOptionRepository;
+    private final GroupService groupService;
+    private final ChatSearchIndex chatSearchIndex;
 
     @GetMapping("/{groupId}/messages")
     public ResponseEntity<List<ChatMessageDTO>> getGroupMessages(@PathVariable Long groupId) {
-        List<GroupMessage> messages = groupMessageService.getGroupMessages(groupId);
-        
-        List<ChatMessageDTO> messageDTOs = messages.stream().map(message -> {
-            ChatMessageDTO dto = new ChatMessageDTO();
-            dto.setGroupId(message.getGroup().getGroupId());
-            dto.setMessageId(message.getId());
-            dto.setSenderId(message.getSender().getId());
-            dto.setSenderName(message.getSender().getName());
-            dto.setContent(message.getContent());
-            dto.setTimestamp(message.getTimestamp());
-            dto.setMessageType(message.getMessageType());
-
-            messageReplyRepository.findByReplyMessage_Id(message.getId()).ifPresent(mr -> {
-                dto.setReplyToMessageId(mr.getOriginalMessage().getId());
-                dto.setReplyToContent(mr.getOriginalMessage().getContent());
-                dto.setReplyToSenderName(mr.getOriginalMessage().getSender().getName());
-            });
+        return ResponseEntity.ok(groupMessageService.getGroupMessageDTOs(groupId));
+    }
 
-            if ("POLL".equalsIgnoreCase(message.getMessageType()) && message.getPollId() != null) {
-                dto.setPollId(message.getPollId());
-                dto.setPollOptions(pollOptionRepository.findByPoll_IdOrderById(message.getPollId())
-                        .stream()
-                        .map(o -> new com.studyGroup.backend.dto.PollOptionDTO(o.getId(), o.getOptionText(), o.getVoteCount()))
-                        .collect(Collectors.toList())
-                );
-            }
+    /**
+     * Keyset-paginated history: {@code before} loads older messages, {@code after} loads newer ones.
+     * Without a cursor the newest page is returned.
+     */
+    @GetMapping("/{groupId}/messages/history")
+    public ResponseEntity<?> getGroupMessageHistory(@PathVariable Long groupId,
+                                                    @RequestParam(required = false) Long before,
+                                                    @RequestParam(required = false) Long after,
+                                                    @RequestParam(required = false) Integer size) {
+        try {
+            ChatHistoryPageDTO page = groupMessageService.getMessageHistory(groupId, before, after, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
 
-            return dto;
-        }).collect(Collectors.toList());
-            
-        return ResponseEntity.ok(messageDTOs);
+    /**
+     * Full-text search over a group's messages. {@code sender} and the inclusive ISO dates
+     * {@code from}/{@code to} narrow the results; {@code sort=recent} orders them by time
+     * instead of relevance.
+     */
+    @GetMapping("/{groupId}/messages/search")
+    public ResponseEntity<?> searchGroupMessages(@PathVariable Long groupId,
+                                                 @RequestParam("q") String query,
+                                                 @RequestParam(required = false) Integer sender,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                 @RequestParam(defaultValue = "relevance") String sort,
+                                                 @RequestParam(required = false) Integer size,
+                                                 @CurrentUser User currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.status(401).body("Invalid/expired token");
+        }
+        if ("non-member".equals(groupService.getUserRoleInGroup(groupId, currentUser))) {
+            return ResponseEntity.status(403).body("You are not a member of this group");
+        }
+        int limit = size == null ? 20 : Math.max(1, Math.min(size, 100));
+        try {
+            return ResponseEntity.ok(chatSearchIndex.search(groupId, query, sender, from, to,
+                    "recent".equalsIgnoreCase(sort), limit));
+        } catch (IOException ex) {
+            return ResponseEntity.status(503).body("Search is temporarily unavailable");
+        }
     }
 
     @DeleteMapping("/{groupId}/messages/{messageId}")
     public ResponseEntity<?> deleteGroupMessage(@PathVariable Long groupId, @PathVariable Long messageId,
-                                                @RequestHeader("Authorization") String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(401).body("Missing or invalid Authorization header");
-        }
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-        if ("401".equals(email)) {
+                                                @CurrentUser User currentUser) {
+        if (currentUser == null) {
             return ResponseEntity.status(401).body("Invalid/expired token");
         }
-        var userOpt = userService.getUserByEmail(email);
-        if (userOpt.isEmpty()) return ResponseEntity.status(404).body("User not found");
-        Integer requesterId = userOpt.get().getId();
+        Integer requesterId = currentUser.getId();
 
         try {
             groupMessageService.deleteMessage(messageId, requesterId);
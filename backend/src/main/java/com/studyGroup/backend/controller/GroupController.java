@@ -5,11 +5,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.studyGroup.backend.config.CurrentUser;
 import com.studyGroup.backend.dto.*;
 import com.studyGroup.backend.model.User;
 import com.studyGroup.backend.repository.GroupRepository;
 import com.studyGroup.backend.service.GroupService;
-import com.studyGroup.backend.service.UserService;
 
 import java.util.List;
 import java.util.Map;
@@ -22,20 +22,14 @@ public class GroupController {
     @Autowired
     private GroupService groupService;
 
-    @Autowired
-    private UserService userService;
-
     @Autowired
     private GroupRepository groupRepository;
 
     // --- Existing Endpoints (Logic maintained) ---
 
     @DeleteMapping("/leave/{groupId}")
-    public ResponseEntity<?> leaveGroup(@PathVariable Long groupId, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> leaveGroup(@PathVariable Long groupId, @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -54,11 +48,8 @@ public class GroupController {
     }
 
     @GetMapping("/{groupId}")
-    public ResponseEntity<?> getGroupDetails(@PathVariable Long groupId, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getGroupDetails(@PathVariable Long groupId, @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -77,11 +68,8 @@ public class GroupController {
     }
 
     @GetMapping("/{groupId}/members")
-    public ResponseEntity<?> getGroupMembers(@PathVariable Long groupId, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getGroupMembers(@PathVariable Long groupId, @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -101,11 +89,8 @@ public class GroupController {
     
     @PostMapping("/create")
     public ResponseEntity<?> createGroup(@RequestBody CreateGroupRequest createGroupRequest,
-                                         @RequestHeader("Authorization") String authHeader) {
+                                         @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid or expired token."));
             }
@@ -124,11 +109,8 @@ public class GroupController {
     }
     
     @GetMapping("/my-groups")
-    public ResponseEntity<?> getMyGroups(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getMyGroups(@CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid or expired token."));
             }
@@ -142,6 +124,26 @@ public class GroupController {
         }
     }
 
+    @GetMapping("/discover")
+    public ResponseEntity<?> discoverGroups(@RequestParam(required = false) String courseId,
+                                            @RequestParam(required = false) String privacy,
+                                            @RequestParam(required = false) Boolean hasCapacity,
+                                            @RequestParam(required = false) String q,
+                                            @RequestParam(required = false) String sort,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
+        try {
+            GroupPageDTO page = groupService.discoverGroups(courseId, privacy, hasCapacity, q, sort, cursor, size);
+            return ResponseEntity.ok(page);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "An error occurred while searching groups: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/all")
     public ResponseEntity<?> getAllGroups() {
         try {
@@ -155,11 +157,8 @@ public class GroupController {
     }
 
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<?> getGroupsByCourse(@PathVariable String courseId, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getGroupsByCourse(@PathVariable String courseId, @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid or expired token."));
             }
@@ -175,12 +174,9 @@ public class GroupController {
 
     @PostMapping("/join/{groupId}")
     public ResponseEntity<?> joinGroup(@PathVariable Long groupId,
-                                         @RequestHeader("Authorization") String authHeader,
+                                         @CurrentUser User currentUser,
                                          @RequestBody(required = false) Map<String, String> payload) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -215,11 +211,8 @@ public class GroupController {
      */
     @GetMapping("/{groupId}/requests")
     public ResponseEntity<?> getGroupJoinRequests(@PathVariable Long groupId,
-                                                    @RequestHeader("Authorization") String authHeader) {
+                                                    @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid or expired token."));
             }
@@ -239,11 +232,8 @@ public class GroupController {
     @PutMapping("/{groupId}")
     public ResponseEntity<?> updateGroupDetails(@PathVariable Long groupId,
                                                     @RequestBody GroupDTO groupDetails,
-                                                    @RequestHeader("Authorization") String authHeader) {
+                                                    @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired token."));
@@ -268,11 +258,8 @@ public class GroupController {
     public ResponseEntity<?> handleJoinRequest(@PathVariable Long groupId,
                                                @PathVariable Long requestId,
                                                @RequestBody Map<String, String> payload, // Expects { "action": "APPROVED" | "DENIED" }
-                                               @RequestHeader("Authorization") String authHeader) {
+                                               @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid or expired token."));
             }
@@ -302,11 +289,8 @@ public class GroupController {
     @DeleteMapping("/{groupId}/members/{memberId}")
     public ResponseEntity<?> removeGroupMember(@PathVariable Long groupId, 
                                                 @PathVariable Long memberId,
-                                                @RequestHeader("Authorization") String authHeader) {
+                                                @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid or expired token."));
             }
@@ -331,11 +315,8 @@ public class GroupController {
     public ResponseEntity<?> changeMemberRole(@PathVariable Long groupId, 
                                                 @PathVariable Long memberId,
                                                 @RequestBody Map<String, String> payload, // Expects { "role": "Admin" | "Member" }
-                                                @RequestHeader("Authorization") String authHeader) {
+                                                @CurrentUser User currentUser) {
         try {
-            String token = authHeader.substring(7);
-            User currentUser = userService.getUserProfile(token);
-
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid or expired token."));
             }
@@ -1,11 +1,16 @@
 package com.studyGroup.backend.controller;
 
+import com.studyGroup.backend.config.CurrentUser;
 import com.studyGroup.backend.dto.NotificationDTO;
+import com.studyGroup.backend.dto.NotificationPageDTO;
+import com.studyGroup.backend.model.User;
 import com.studyGroup.backend.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -26,12 +31,42 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
+    @GetMapping("/user/{userId}/inbox")
+    public ResponseEntity<?> getInbox(@PathVariable Integer userId,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer size,
+                                      @CurrentUser User currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!currentUser.getId().equals(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            NotificationPageDTO page = notificationService.getInbox(userId, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
     @GetMapping("/user/{userId}/unread")
     public ResponseEntity<List<NotificationDTO>> getUnreadNotifications(@PathVariable Integer userId) {
         List<NotificationDTO> notifications = notificationService.getUnreadNotificationsByUserId(userId);
         return ResponseEntity.ok(notifications);
     }
 
+    @GetMapping("/user/{userId}/unread-count")
+    public ResponseEntity<Long> getUnreadCount(@PathVariable Integer userId, @CurrentUser User currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!currentUser.getId().equals(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(notificationService.getUnreadCount(userId));
+    }
+
     @PutMapping("/{id}/read")
     public ResponseEntity<Void> markAsRead(@PathVariable Integer id) {
         notificationService.markAsRead(id);
@@ -44,6 +79,12 @@ public class NotificationController {
         return ResponseEntity.ok().build();
     }
 
+    @PutMapping("/read")
+    public ResponseEntity<Void> markSelectedAsRead(@RequestBody List<Integer> notificationIds) {
+        notificationService.markSelectedAsRead(notificationIds);
+        return ResponseEntity.ok().build();
+    }
+
     @DeleteMapping("/user/{userId}/read")
     public ResponseEntity<Void> deleteAllReadNotifications(@PathVariable Integer userId) {
         notificationService.deleteAllReadNotifications(userId);
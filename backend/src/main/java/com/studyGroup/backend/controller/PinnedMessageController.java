@@ -1,9 +1,9 @@
 package com.studyGroup.backend.controller;
 
+import com.studyGroup.backend.config.CurrentUser;
+import com.studyGroup.backend.model.User;
 import com.studyGroup.backend.model.PinnedMessage;
 import com.studyGroup.backend.service.PinnedMessageService;
-import com.studyGroup.backend.service.JWTService;
-import com.studyGroup.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,34 +18,17 @@ public class PinnedMessageController {
     @Autowired
     private PinnedMessageService pinnedMessageService;
 
-    @Autowired
-    private JWTService jwtService;
-
-    @Autowired
-    private UserService userService;
-
     @PostMapping("/messages/{messageId}")
     public ResponseEntity<?> pinMessage(
             @PathVariable Long groupId,
             @PathVariable Long messageId,
-            @RequestHeader("Authorization") String authHeader) {
+            @CurrentUser User currentUser) {
         
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(401).body("Missing or invalid Authorization header");
-        }
-
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-        if ("401".equals(email)) {
+        if (currentUser == null) {
             return ResponseEntity.status(401).body("Invalid/expired token");
         }
 
-        var userOpt = userService.getUserByEmail(email);
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.status(404).body("User not found");
-        }
-
-        Integer userId = userOpt.get().getId();
+        Integer userId = currentUser.getId();
         try {
             PinnedMessage pinnedMessage = pinnedMessageService.pinMessage(groupId, messageId, userId);
             return ResponseEntity.ok(pinnedMessage);
@@ -58,15 +41,9 @@ public class PinnedMessageController {
     public ResponseEntity<?> unpinMessage(
             @PathVariable Long groupId,
             @PathVariable Long messageId,
-            @RequestHeader("Authorization") String authHeader) {
-
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(401).body("Missing or invalid Authorization header");
-        }
+            @CurrentUser User currentUser) {
 
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-        if ("401".equals(email)) {
+        if (currentUser == null) {
             return ResponseEntity.status(401).body("Invalid/expired token");
         }
 
@@ -81,15 +58,9 @@ public class PinnedMessageController {
     @GetMapping
     public ResponseEntity<List<PinnedMessage>> getPinnedMessages(
             @PathVariable Long groupId,
-            @RequestHeader("Authorization") String authHeader) {
-
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(401).build();
-        }
+            @CurrentUser User currentUser) {
 
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-        if ("401".equals(email)) {
+        if (currentUser == null) {
             return ResponseEntity.status(401).build();
         }
 
@@ -1,5 +1,6 @@
 package com.studyGroup.backend.controller;
 
+import com.studyGroup.backend.config.CurrentUser;
 import com.studyGroup.backend.dto.ChatMessageDTO;
 import com.studyGroup.backend.dto.PollOptionDTO;
 import com.studyGroup.backend.model.Group;
@@ -11,10 +12,12 @@ import com.studyGroup.backend.repository.GroupMessageRepository;
 import com.studyGroup.backend.repository.GroupRepository;
 import com.studyGroup.backend.repository.PollOptionRepository;
 import com.studyGroup.backend.repository.PollRepository;
-import com.studyGroup.backend.repository.UserRepository;
+import com.studyGroup.backend.service.ChatSearchIndex;
+import com.studyGroup.backend.service.ClusterBroadcastService;
+import com.studyGroup.backend.service.PollVoteService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -30,17 +33,20 @@ public class PollController {
     private final PollRepository pollRepository;
     private final PollOptionRepository pollOptionRepository;
     private final GroupRepository groupRepository;
-    private final UserRepository userRepository;
     private final GroupMessageRepository groupMessageRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterBroadcastService broadcastService;
+    private final PollVoteService pollVoteService;
+    private final ChatSearchIndex chatSearchIndex;
 
     @PostMapping("/{groupId}/polls")
     public ResponseEntity<?> createPoll(@PathVariable Long groupId, @RequestBody CreatePollRequest req,
-                                        @RequestHeader("Authorization") String authHeader) {
-        // For simplicity this example expects client to provide creatorId in request; in prod use JWT
-        Integer creatorId = req.getCreatorId();
+                                        @CurrentUser User currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.status(401).body("Invalid/expired token");
+        }
+        // The creator is whoever the token belongs to, never a client-supplied id
+        User creator = currentUser;
         Group group = groupRepository.findById(groupId).orElseThrow(() -> new RuntimeException("Group not found"));
-        User creator = userRepository.findById(creatorId).orElseThrow(() -> new RuntimeException("User not found"));
 
         Poll poll = new Poll();
         poll.setGroup(group);
@@ -70,6 +76,7 @@ public class PollController {
     groupMessageRepository.save(gm);
     gm.setPollId(saved.getId());
     GroupMessage savedMsg = groupMessageRepository.save(gm);
+    chatSearchIndex.index(savedMsg);
 
         // Build DTO to broadcast
         ChatMessageDTO dto = new ChatMessageDTO();
@@ -86,47 +93,35 @@ public class PollController {
         .collect(Collectors.toList()));
 
         // Broadcast
-        messagingTemplate.convertAndSend("/topic/group/" + groupId, dto);
+        broadcastService.broadcastToGroup(groupId, dto);
 
         return ResponseEntity.ok(dto);
     }
 
     @PostMapping("/polls/{pollId}/options/{optionId}/vote")
-    public ResponseEntity<?> vote(@PathVariable Long pollId, @PathVariable Long optionId, @RequestBody VoteRequest req) {
-        // simple vote increment (no duplicate protection)
-        PollOption opt = pollOptionRepository.findById(optionId).orElseThrow(() -> new RuntimeException("Option not found"));
-        opt.setVoteCount(opt.getVoteCount() + 1);
-        PollOption savedOpt = pollOptionRepository.save(opt);
-
-        // broadcast vote update to group so other clients can update UI live
-        Long groupId = savedOpt.getPoll().getGroup().getGroupId();
-        // minimal payload
-        PollVoteDTO voteDto = new PollVoteDTO();
-        voteDto.setMessageType("POLL_VOTE");
-        voteDto.setPollId(pollId);
-        voteDto.setOptionId(savedOpt.getId());
-        voteDto.setVoteCount(savedOpt.getVoteCount());
-        messagingTemplate.convertAndSend("/topic/group/" + groupId, voteDto);
-
-        // return updated option
-        return ResponseEntity.ok(new PollOptionDTO(savedOpt.getId(), savedOpt.getOptionText(), savedOpt.getVoteCount()));
+    public ResponseEntity<?> vote(@PathVariable Long pollId, @PathVariable Long optionId,
+                                  @CurrentUser User currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.status(401).body("Invalid/expired token");
+        }
+
+        try {
+            // live update to the group is coalesced by PollVoteBroadcaster
+            return ResponseEntity.ok(pollVoteService.vote(pollId, optionId, currentUser.getId()));
+        } catch (IllegalStateException | DataIntegrityViolationException e) {
+            return ResponseEntity.status(409).body("You have already voted in this poll");
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        }
     }
 
     public static class CreatePollRequest {
-        private Integer creatorId;
         private String question;
         private List<String> options;
-        public Integer getCreatorId() { return creatorId; }
-        public void setCreatorId(Integer c) { this.creatorId = c; }
         public String getQuestion() { return question; }
         public void setQuestion(String q) { this.question = q; }
         public List<String> getOptions() { return options; }
         public void setOptions(List<String> o) { this.options = o; }
     }
 
-    public static class VoteRequest {
-        private Integer voterId; // not used in this simple impl
-        public Integer getVoterId() { return voterId; }
-        public void setVoterId(Integer v) { this.voterId = v; }
-    }
 }
@@ -1,11 +1,16 @@
 package com.studyGroup.backend.controller;
 
+import com.studyGroup.backend.dto.PollOptionDTO;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class PollVoteDTO {
     private String messageType; // will be "POLL_VOTE"
     private Long pollId;
     private Long optionId;
     private Long voteCount;
+    // Current count of every option of the poll (coalesced broadcasts)
+    private List<PollOptionDTO> options;
 }
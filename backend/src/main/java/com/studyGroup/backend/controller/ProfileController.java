@@ -1,12 +1,14 @@
 package com.studyGroup.backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.studyGroup.backend.config.CurrentUser;
+import com.studyGroup.backend.model.User;
 import com.studyGroup.backend.model.Profile;
-import com.studyGroup.backend.service.JWTService;
 import com.studyGroup.backend.service.ProfileService;
 
 import java.util.Optional;
@@ -21,17 +23,12 @@ public class ProfileController {
     @Autowired
     private ProfileService profileService;
 
-    @Autowired
-    private JWTService jwtService;
-
     @GetMapping
-    public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String authHeader) {
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-
-        if ("401".equals(email)) {
+    public ResponseEntity<?> getProfile(@CurrentUser User currentUser) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
         }
+        String email = currentUser.getEmail();
 
         Optional<Profile> profileOptional = profileService.getProfileByEmail(email);
 
@@ -47,14 +44,12 @@ public class ProfileController {
      * from the request body onto the existing profile entity.
      */
     @PostMapping
-    public ResponseEntity<?> updateProfile(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> updateProfile(@CurrentUser User currentUser,
             @RequestBody Profile profileDetails) {
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-
-        if ("401".equals(email)) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
         }
+        String email = currentUser.getEmail();
 
         // We assume getProfileByEmail fetches the existing profile based on the
         // authenticated email
@@ -116,32 +111,31 @@ public class ProfileController {
     }
 
     @PostMapping("/enroll/{courseId}")
-    public ResponseEntity<?> enrollInCourse(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> enrollInCourse(@CurrentUser User currentUser,
             @PathVariable String courseId) {
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-
-        if ("401".equals(email)) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
         }
+        String email = currentUser.getEmail();
 
         try {
             Profile updatedProfile = profileService.enrollInCourse(email, courseId);
             return ResponseEntity.ok(updatedProfile);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request enrolled first; the unique key rejected this one and it rolled back
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Already enrolled in this course.");
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         }
     }
 
     @DeleteMapping("/unenroll/{courseId}")
-    public ResponseEntity<?> unenrollFromCourse(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> unenrollFromCourse(@CurrentUser User currentUser,
             @PathVariable String courseId) {
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-
-        if ("401".equals(email)) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
         }
+        String email = currentUser.getEmail();
 
         try {
             Profile updatedProfile = profileService.unenrollFromCourse(email, courseId);
@@ -152,13 +146,11 @@ public class ProfileController {
     }
 
     @GetMapping("/courses")
-    public ResponseEntity<?> getEnrolledCourses(@RequestHeader("Authorization") String authHeader) {
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-
-        if ("401".equals(email)) {
+    public ResponseEntity<?> getEnrolledCourses(@CurrentUser User currentUser) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
         }
+        String email = currentUser.getEmail();
 
         try {
             return ResponseEntity.ok(profileService.getEnrolledCourses(email));
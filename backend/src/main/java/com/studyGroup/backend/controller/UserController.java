@@ -5,11 +5,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.studyGroup.backend.config.CurrentUser;
 import com.studyGroup.backend.dto.LoginRequest;
 import com.studyGroup.backend.dto.PasswordChangeRequest;
 import com.studyGroup.backend.model.User;
 import com.studyGroup.backend.service.EmailService;
-import com.studyGroup.backend.service.JWTService;
 import com.studyGroup.backend.service.OtpService;
 import com.studyGroup.backend.service.UserService;
 
@@ -25,8 +25,6 @@ public class UserController {
     @Autowired
     private UserService userService;
     
-    @Autowired
-    private JWTService jwtService;
 
     @Autowired
     private OtpService otpService;
@@ -67,7 +65,7 @@ public class UserController {
                 + "If you did not request this, please ignore this email.\n\n"
                 + "Best regards,\nThe Study Group Finder Team";
 
-        emailService.sendEmail(email, "Your OTP for Study Group Finder Registration", emailBody);
+        emailService.queueEmail(email, "Your OTP for Study Group Finder Registration", emailBody);
 
         return ResponseEntity.ok("OTP sent to your email address.");
     }
@@ -196,30 +194,20 @@ public class UserController {
     }
     
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or missing Authorization header.");
-        }
-        String token = authHeader.substring(7);
-        User userProfile = userService.getUserProfile(token);
-        if (userProfile == null) {
+    public ResponseEntity<?> getProfile(@CurrentUser User currentUser) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
         }
-        return ResponseEntity.ok(userProfile);
+        return ResponseEntity.ok(currentUser);
     }
     
 
     @PutMapping("/profile")
-    public ResponseEntity<?> updateUserProfile(@RequestHeader("Authorization") String authHeader, @RequestBody User userDetails) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or missing Authorization header.");
-        }
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-        
-        if ("401".equals(email)) {
+    public ResponseEntity<?> updateUserProfile(@CurrentUser User currentUser, @RequestBody User userDetails) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
         }
+        String email = currentUser.getEmail();
 
         User updatedUser = userService.updateUser(email, userDetails);
 
@@ -230,13 +218,11 @@ public class UserController {
     }
 
     @PostMapping("/verify-password")
-    public ResponseEntity<?> verifyPassword(@RequestHeader("Authorization") String authHeader, @RequestBody PasswordChangeRequest request) {
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-
-        if ("401".equals(email)) {
+    public ResponseEntity<?> verifyPassword(@CurrentUser User currentUser, @RequestBody PasswordChangeRequest request) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
         }
+        String email = currentUser.getEmail();
 
         boolean isCorrect = userService.verifyPassword(email, request.getCurrentPassword());
 
@@ -248,13 +234,11 @@ public class UserController {
     }
 
     @PutMapping("/change-password")
-    public ResponseEntity<?> changePassword(@RequestHeader("Authorization") String authHeader, @RequestBody PasswordChangeRequest request) {
-        String token = authHeader.substring(7);
-        String email = jwtService.validateToken(token);
-
-        if ("401".equals(email)) {
+    public ResponseEntity<?> changePassword(@CurrentUser User currentUser, @RequestBody PasswordChangeRequest request) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
         }
+        String email = currentUser.getEmail();
 
         if (request.getNewPassword() == null || request.getNewPassword().length() < 6) {
              return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", "New password must be at least 6 characters long."));
@@ -1,54 +1,38 @@
 package com.studyGroup.backend.controller;
 
+import com.studyGroup.backend.config.AuthenticatedUser;
 import com.studyGroup.backend.dto.ChatMessageDTO;
-import com.studyGroup.backend.model.GroupMessage;
-import com.studyGroup.backend.service.GroupMessageService;
-import com.studyGroup.backend.repository.MessageReplyRepository;
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.service.ChatWritePipeline;
+import com.studyGroup.backend.service.ClusterBroadcastService;
 
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
 import java.time.LocalDateTime;
 
 @Controller
 @RequiredArgsConstructor
 public class WebSocketController {
 
-    private final GroupMessageService groupMessageService;
-    private final MessageReplyRepository messageReplyRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatWritePipeline chatWritePipeline;
+    private final ClusterBroadcastService broadcastService;
 
     @MessageMapping("/chat.sendMessage/{groupId}")
-    public void sendMessage(@DestinationVariable Long groupId, ChatMessageDTO chatMessage) {
+    public void sendMessage(@DestinationVariable Long groupId, ChatMessageDTO chatMessage, Principal principal) {
+        // The session principal was bound at CONNECT and membership checked on SEND by WebSocketAuthInterceptor
+        User sender = ((AuthenticatedUser) ((Authentication) principal).getPrincipal()).getUser();
         chatMessage.setGroupId(groupId); // Ensure groupId is set from path variable
+        chatMessage.setSenderId(sender.getId()); // Never trust the client-supplied sender
         chatMessage.setTimestamp(LocalDateTime.now()); // Set server-side timestamp
 
-        // Save the message and return it
-        GroupMessage savedMessage = groupMessageService.saveMessage(chatMessage);
-
-        // Build DTO and include reply info if any
-        ChatMessageDTO dto = new ChatMessageDTO();
-        dto.setGroupId(savedMessage.getGroup().getGroupId());
-        dto.setMessageId(savedMessage.getId());
-        dto.setSenderId(savedMessage.getSender().getId());
-        dto.setSenderName(savedMessage.getSender().getName());
-        dto.setContent(savedMessage.getContent());
-        dto.setTimestamp(savedMessage.getTimestamp());
-        dto.setMessageType(savedMessage.getMessageType());
-
-        // If a MessageReply exists linking this saved message, include reply info
-        messageReplyRepository.findByReplyMessage_Id(savedMessage.getId()).ifPresent(mr -> {
-            dto.setReplyToMessageId(mr.getOriginalMessage().getId());
-            dto.setReplyToContent(mr.getOriginalMessage().getContent());
-            dto.setReplyToSenderName(mr.getOriginalMessage().getSender().getName());
-        });
-
-        // Explicitly broadcast to topic so all subscribers receive the persisted
-        // message
-        messagingTemplate.convertAndSend("/topic/group/" + groupId, dto);
+        // Journal the message and broadcast it under the group's ordering lock, so subscribers
+        // see messages in id order; the DB insert is batched in the background
+        chatWritePipeline.submit(chatMessage, sender, dto -> broadcastService.broadcastToGroup(groupId, dto));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.studyGroup.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of a group's chat history. Messages are always in ascending id order;
+ * use {@code oldestMessageId} as the next {@code before} cursor and {@code newestMessageId}
+ * as the next {@code after} cursor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatHistoryPageDTO {
+    private List<ChatMessageDTO> messages;
+    private boolean hasMore;
+    private Long oldestMessageId;
+    private Long newestMessageId;
+}
@@ -0,0 +1,53 @@
+package com.studyGroup.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of chat search results with highlighted snippets ({@code <mark>} around
+ * matches, everything else HTML-escaped) and hit counts per sender and per month over
+ * all matches, not just this page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatSearchResultDTO {
+    private long totalHits;
+    private List<Hit> hits;
+    private List<SenderFacet> senders;
+    private List<MonthFacet> months;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+        private Long messageId;
+        private Integer senderId;
+        private String senderName;
+        private String messageType;
+        private LocalDateTime timestamp;
+        private String snippet;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SenderFacet {
+        private Integer senderId;
+        private String senderName;
+        private long count;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthFacet {
+        // yyyy-MM
+        private String month;
+        private long count;
+    }
+}
@@ -11,6 +11,8 @@ public class DashboardDTO {
     private List<GroupDTO> joinedGroups;
     private List<SuggestedPeerDTO> suggestedPeers;
     private int enrolledCoursesCount;
+    // Total number of suggested peers; suggestedPeers only holds the top of the ranking
+    private int suggestedPeersTotal;
 	public List<GroupDTO> getJoinedGroups() {
 		return joinedGroups;
 	}
@@ -29,6 +31,12 @@ public class DashboardDTO {
 	public void setEnrolledCoursesCount(int enrolledCoursesCount) {
 		this.enrolledCoursesCount = enrolledCoursesCount;
 	}
+	public int getSuggestedPeersTotal() {
+		return suggestedPeersTotal;
+	}
+	public void setSuggestedPeersTotal(int suggestedPeersTotal) {
+		this.suggestedPeersTotal = suggestedPeersTotal;
+	}
 	public DashboardDTO(List<GroupDTO> joinedGroups, List<SuggestedPeerDTO> suggestedPeers, int enrolledCoursesCount) {
 		super();
 		this.joinedGroups = joinedGroups;
@@ -0,0 +1,20 @@
+package com.studyGroup.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of group discovery results. Pass {@code nextCursor} back as {@code cursor}
+ * (with the same filters and sort) to get the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupPageDTO {
+    private List<GroupDTO> groups;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,20 @@
+package com.studyGroup.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a user's notification inbox, newest first. Pass {@code nextCursor} back as
+ * {@code cursor} to get the following (older) page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPageDTO {
+    private List<NotificationDTO> notifications;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,17 @@
+package com.studyGroup.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestedPeerPageDTO {
+    private List<SuggestedPeerDTO> peers;
+    // Number of peers sharing at least one course, across all pages
+    private int total;
+    private boolean hasMore;
+}
@@ -0,0 +1,64 @@
+package com.studyGroup.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A chat message accepted by the write-behind pipeline that could not be inserted, even on
+ * its own (e.g. its group or the message it replies to was deleted meanwhile). Kept for
+ * inspection instead of blocking the flush of every other group.
+ */
+@Entity
+@Table(name = "chat_dead_letters",
+        indexes = {
+                @Index(name = "idx_chat_dead_letters_failed_at", columnList = "failed_at")
+        })
+@Data
+@NoArgsConstructor
+public class ChatDeadLetter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "message_id", nullable = false)
+    private Long messageId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "sender_user_id", nullable = false)
+    private Integer senderId;
+
+    @Column(name = "content", columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "message_type")
+    private String messageType;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "reply_to_message_id")
+    private Long replyToMessageId;
+
+    @Column(name = "last_error", length = 2000)
+    private String lastError;
+
+    @Column(name = "failed_at", nullable = false)
+    private LocalDateTime failedAt;
+
+    public ChatDeadLetter(Long messageId, Long groupId, Integer senderId, String content, String messageType,
+                          LocalDateTime sentAt, Long replyToMessageId, String lastError) {
+        this.messageId = messageId;
+        this.groupId = groupId;
+        this.senderId = senderId;
+        this.content = content;
+        this.messageType = messageType;
+        this.sentAt = sentAt;
+        this.replyToMessageId = replyToMessageId;
+        this.lastError = lastError != null && lastError.length() > 2000 ? lastError.substring(0, 2000) : lastError;
+        this.failedAt = LocalDateTime.now();
+    }
+}
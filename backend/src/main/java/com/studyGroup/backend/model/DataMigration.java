@@ -0,0 +1,29 @@
+package com.studyGroup.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a one-off startup data migration as done, so it is not repeated on every start.
+ * A migration that did not finish cleanly writes no row and runs again next time.
+ */
+@Entity
+@Table(name = "data_migrations")
+@Data
+@NoArgsConstructor
+public class DataMigration {
+    @Id
+    @Column(name = "name", length = 100)
+    private String name;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    public DataMigration(String name) {
+        this.name = name;
+        this.completedAt = LocalDateTime.now();
+    }
+}
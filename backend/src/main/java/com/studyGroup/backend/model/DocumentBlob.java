@@ -0,0 +1,46 @@
+package com.studyGroup.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored file per distinct content hash. {@link MessageDocument}s with the same bytes
+ * share the blob; {@code refCount} tracks how many point at it so the file is removed only
+ * with the last one. {@code tier} says which {@link com.studyGroup.backend.service.DocumentStore}
+ * holds it; blobs not accessed for a while move from local to object storage.
+ */
+@Entity
+@Table(name = "document_blobs")
+@Data
+@NoArgsConstructor
+public class DocumentBlob {
+    public static final String TIER_LOCAL = "local";
+    public static final String TIER_OBJECT = "object";
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "tier", nullable = false, length = 16, columnDefinition = "VARCHAR(16) NOT NULL DEFAULT 'local'")
+    private String tier = TIER_LOCAL;
+
+    // Uploads and downloads; written at most hourly per blob (see DocumentBlobRepository.recordAccess)
+    @Column(name = "last_accessed_at")
+    private LocalDateTime lastAccessedAt;
+
+    // Set when the blob moves to the object tier: its local copy is kept until then for reads already under way
+    @Column(name = "local_delete_after")
+    private LocalDateTime localDeleteAfter;
+}
@@ -0,0 +1,50 @@
+package com.studyGroup.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * An outbound email that could not be delivered after all retries. Kept for inspection
+ * and manual resend.
+ */
+@Entity
+@Table(name = "email_dead_letters",
+        indexes = {
+                @Index(name = "idx_email_dead_letters_failed_at", columnList = "failed_at")
+        })
+@Data
+@NoArgsConstructor
+public class EmailDeadLetter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "subject", length = 500)
+    private String subject;
+
+    @Column(name = "body", columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 2000)
+    private String lastError;
+
+    @Column(name = "failed_at", nullable = false)
+    private LocalDateTime failedAt;
+
+    public EmailDeadLetter(String recipient, String subject, String body, int attempts, String lastError) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.attempts = attempts;
+        this.lastError = lastError != null && lastError.length() > 2000 ? lastError.substring(0, 2000) : lastError;
+        this.failedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,45 @@
+package com.studyGroup.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A user's enrollment in a course. Replaces the JSON array in
+ * {@link Profile#getEnrolledCourseIds()}, which is now only a write-through mirror
+ * kept for API compatibility.
+ *
+ * The unique (user_id, course_id) key serves "courses for user"; the
+ * (course_id, user_id) index serves "users in course".
+ */
+@Entity
+@Table(name = "enrollments",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_enrollments_user_course", columnNames = {"user_id", "course_id"})
+        },
+        indexes = {
+                @Index(name = "idx_enrollments_course_user", columnList = "course_id, user_id")
+        })
+@Data
+@NoArgsConstructor
+public class Enrollment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Column(name = "enrolled_at", nullable = false)
+    private LocalDateTime enrolledAt;
+
+    public Enrollment(Integer userId, String courseId) {
+        this.userId = userId;
+        this.courseId = courseId;
+        this.enrolledAt = LocalDateTime.now();
+    }
+}
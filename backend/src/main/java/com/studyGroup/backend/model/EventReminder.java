@@ -0,0 +1,63 @@
+package com.studyGroup.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A reminder due for a calendar event. The (status, due_at) index is the persisted
+ * due-time queue that {@link com.studyGroup.backend.service.ReminderScheduler} loads from.
+ */
+@Entity
+@Table(name = "event_reminders",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_event_reminders_event_offset", columnNames = {"event_id", "offset_minutes"})
+        },
+        indexes = {
+                @Index(name = "idx_event_reminders_status_due", columnList = "status, due_at")
+        })
+@Data
+@NoArgsConstructor
+public class EventReminder {
+
+    public enum Status {
+        PENDING,
+        SENDING,
+        SENT,
+        // The event or the reminder was gone when it came due
+        CANCELLED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    // Minutes before the event start this reminder announces ("starting in N minutes")
+    @Column(name = "offset_minutes", nullable = false)
+    private int offsetMinutes;
+
+    // UTC, like CalendarEvent.startTime
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    // VARCHAR rather than a MySQL ENUM, so adding a status needs no schema change
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, columnDefinition = "VARCHAR(16) NOT NULL")
+    private Status status = Status.PENDING;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public EventReminder(Long eventId, int offsetMinutes, LocalDateTime dueAt) {
+        this.eventId = eventId;
+        this.offsetMinutes = offsetMinutes;
+        this.dueAt = dueAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.studyGroup.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency key for one member's copy of a reminder: a re-run of an interrupted fan-out
+ * skips members that already have a row here.
+ */
+@Entity
+@Table(name = "event_reminder_deliveries",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_event_reminder_deliveries_reminder_user", columnNames = {"reminder_id", "user_id"})
+        })
+@Data
+@NoArgsConstructor
+public class EventReminderDelivery {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reminder_id", nullable = false)
+    private Long reminderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "delivered_at", nullable = false)
+    private LocalDateTime deliveredAt;
+
+    public EventReminderDelivery(Long reminderId, Integer userId) {
+        this.reminderId = reminderId;
+        this.userId = userId;
+        this.deliveredAt = LocalDateTime.now();
+    }
+}
@@ -6,7 +6,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "study_group")
+@Table(name = "study_group", indexes = {
+        @Index(name = "idx_study_group_course", columnList = "associated_course_id, group_id"),
+        @Index(name = "idx_study_group_privacy", columnList = "privacy, group_id"),
+        @Index(name = "idx_study_group_name", columnList = "name, group_id"),
+        @Index(name = "idx_study_group_member_count", columnList = "member_count, group_id")
+})
 @Data
 public class Group {
 
@@ -35,6 +40,11 @@ public class Group {
     @Column(name = "member_limit")
     private Integer memberLimit;
 
+    // Denormalized member count for discovery sorting/filtering. Only changed through
+    // GroupRepository.adjustMemberCount, hence not updatable from the entity.
+    @Column(name = "member_count", nullable = false, updatable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer memberCount = 0;
+
 	public Long getGroupId() {
 		return groupId;
 	}
@@ -99,6 +109,14 @@ public class Group {
 		this.memberLimit = memberLimit;
 	}
 
+	public Integer getMemberCount() {
+		return memberCount;
+	}
+
+	public void setMemberCount(Integer memberCount) {
+		this.memberCount = memberCount;
+	}
+
 	public Group(Long groupId, String name, String description, Course associatedCourse, User createdBy, String privacy,
 			String passkey, Integer memberLimit) {
 		super();
@@ -7,16 +7,25 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "group_messages")
+@Table(name = "group_messages", indexes = {
+        @Index(name = "idx_group_messages_group_id_id", columnList = "group_id, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class GroupMessage {
 
+    // Pooled table generator instead of IDENTITY: ids can be handed out before the row is
+    // inserted (see PooledIdAllocator) and inserts can be JDBC-batched.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "group_message_ids")
+    @TableGenerator(name = "group_message_ids", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "group_messages", allocationSize = GroupMessage.ID_ALLOCATION_SIZE)
     private Long id;
 
+    public static final int ID_ALLOCATION_SIZE = 100;
+
     // Foreign Key to the existing 'Group' entity
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "group_id", nullable = false)
@@ -0,0 +1,22 @@
+package com.studyGroup.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bytes of documents uploaded to a group, charged on upload and released on delete so the
+ * per-group quota check is a single conditional update.
+ */
+@Entity
+@Table(name = "group_storage_usage")
+@Data
+@NoArgsConstructor
+public class GroupStorageUsage {
+    @Id
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "used_bytes", nullable = false)
+    private long usedBytes;
+}
@@ -33,9 +33,15 @@ public class MessageDocument {
     @JoinColumn(name = "message_id")
     private GroupMessage message;
 
+    // Storage key (the content hash) in the DocumentStore holding the bytes; older documents
+    // not yet moved into the blob store still hold an absolute path here
     @Column(name = "file_path")
     private String filePath;
 
+    // Hex SHA-256 of the stored bytes; doubles as the strong ETag for downloads
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     public MessageDocument(String originalFilename, String storedFilename, String fileType, Long fileSize, String filePath) {
         this.originalFilename = originalFilename;
         this.storedFilename = storedFilename;
@@ -7,16 +7,26 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_created_id", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_notifications_created_at", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Notification {
 
+    // Pooled table generator instead of IDENTITY so bulk fan-out can pre-allocate ids and
+    // JDBC-batch its inserts (see PooledIdAllocator)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "notification_ids")
+    @TableGenerator(name = "notification_ids", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "notifications", allocationSize = Notification.ID_ALLOCATION_SIZE)
     private Integer id;
 
+    public static final int ID_ALLOCATION_SIZE = 100;
+
     @Column(name = "user_id", nullable = false)
     private Integer userId;
 
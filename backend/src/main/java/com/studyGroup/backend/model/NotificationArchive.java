@@ -0,0 +1,49 @@
+package com.studyGroup.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Notifications moved out of the live table by {@code NotificationRetentionService}.
+ * Keeps the original id; only indexed by user for support lookups. Columns match
+ * {@code Notification} so every row copies over unchanged.
+ */
+@Entity
+@Table(name = "notification_archive", indexes = {
+        @Index(name = "idx_notification_archive_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+public class NotificationArchive {
+    @Id
+    private Integer id;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "type", nullable = false)
+    private String type;
+
+    @Column(name = "title")
+    private String title;
+
+    @Column(name = "message", nullable = false)
+    private String message;
+
+    @Column(name = "is_read", nullable = false)
+    private Boolean isRead;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "related_entity_id")
+    private Long relatedEntityId;
+
+    @Column(name = "related_entity_type")
+    private String relatedEntityType;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,22 @@
+package com.studyGroup.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Denormalized unread-notification count per user, kept in step with inserts, reads and
+ * deletes in {@code NotificationService} so the bell badge is a primary-key lookup.
+ */
+@Entity
+@Table(name = "notification_counters")
+@Data
+@NoArgsConstructor
+public class NotificationCounter {
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Column(name = "unread_count", nullable = false)
+    private long unreadCount;
+}
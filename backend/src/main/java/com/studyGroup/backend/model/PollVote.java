@@ -0,0 +1,41 @@
+package com.studyGroup.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * One row per (poll, user). The unique constraint is what actually enforces one vote per
+ * user, even when two requests from the same user race.
+ */
+@Entity
+@Table(name = "poll_votes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_poll_votes_poll_user", columnNames = {"poll_id", "user_id"})
+})
+@Data
+@NoArgsConstructor
+public class PollVote {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "poll_id", nullable = false)
+    private Long pollId;
+
+    @Column(name = "option_id", nullable = false)
+    private Long optionId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "voted_at", nullable = false)
+    private LocalDateTime votedAt;
+
+    public PollVote(Long pollId, Long optionId, Integer userId) {
+        this.pollId = pollId;
+        this.optionId = optionId;
+        this.userId = userId;
+        this.votedAt = LocalDateTime.now();
+    }
+}
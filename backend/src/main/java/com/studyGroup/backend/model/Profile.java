@@ -4,6 +4,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -39,6 +40,11 @@ public class Profile {
     @Column(name = "enrolled_course_ids", columnDefinition = "TEXT")
     private String enrolledCourseIds = "[]";
 
+    // Set once enrolledCourseIds has been copied into the enrollments table; see EnrollmentService
+    @JsonIgnore
+    @Column(name = "enrollments_migrated", nullable = false, columnDefinition = "BOOLEAN NOT NULL DEFAULT FALSE")
+    private boolean enrollmentsMigrated;
+
 	public String getEmail() {
 		return email;
 	}
@@ -103,6 +109,14 @@ public class Profile {
 		this.enrolledCourseIds = enrolledCourseIds;
 	}
 
+	public boolean isEnrollmentsMigrated() {
+		return enrollmentsMigrated;
+	}
+
+	public void setEnrollmentsMigrated(boolean enrollmentsMigrated) {
+		this.enrollmentsMigrated = enrollmentsMigrated;
+	}
+
 	public Profile() {
 		super();
 		this.email = email;
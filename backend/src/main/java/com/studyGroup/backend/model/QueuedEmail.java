@@ -0,0 +1,53 @@
+package com.studyGroup.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * An outbound email waiting to be sent. Rows are inserted in the transaction that produced
+ * the email and deleted once the mail server accepts it. A worker claims a row by setting
+ * {@code claimToken} and {@code claimedUntil}; if the worker dies, the claim lapses and
+ * another worker sends it.
+ */
+@Entity
+@Table(name = "email_outbox",
+        indexes = {
+                @Index(name = "idx_email_outbox_next_attempt", columnList = "next_attempt_at"),
+                @Index(name = "idx_email_outbox_claim_token", columnList = "claim_token")
+        })
+@Data
+@NoArgsConstructor
+public class QueuedEmail {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "subject", length = 500)
+    private String subject;
+
+    @Column(name = "body", columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    @Column(name = "last_error", length = 2000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,9 @@
+package com.studyGroup.backend.repository;
+
+import com.studyGroup.backend.model.ChatDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChatDeadLetterRepository extends JpaRepository<ChatDeadLetter, Long> {
+}
@@ -0,0 +1,69 @@
+package com.studyGroup.backend.repository;
+
+import com.studyGroup.backend.model.DocumentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, String> {
+
+    // Upsert: the first reference creates the row. The row stays locked until the caller commits,
+    // which serializes it against a concurrent release of the same blob.
+    @Modifying
+    @Query(value = "INSERT INTO document_blobs (content_hash, size_bytes, ref_count, created_at, tier, last_accessed_at) " +
+                   "VALUES (:hash, :size, 1, NOW(), 'local', NOW()) " +
+                   "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, last_accessed_at = NOW()", nativeQuery = true)
+    int addReference(@Param("hash") String hash, @Param("size") long size);
+
+    @Modifying
+    @Query(value = "UPDATE document_blobs SET ref_count = ref_count - 1 WHERE content_hash = :hash", nativeQuery = true)
+    int releaseReference(@Param("hash") String hash);
+
+    // 1 when the last reference is gone and the row was removed; the caller then deletes the file
+    @Modifying
+    @Query(value = "DELETE FROM document_blobs WHERE content_hash = :hash AND ref_count <= 0", nativeQuery = true)
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    // Throttled so that popular documents do not turn every download into a row write
+    @Modifying
+    @Query(value = "UPDATE document_blobs SET last_accessed_at = NOW() WHERE content_hash = :hash " +
+                   "AND (last_accessed_at IS NULL OR last_accessed_at < NOW() - INTERVAL 1 HOUR)", nativeQuery = true)
+    int recordAccess(@Param("hash") String hash);
+
+    @Query(value = "SELECT content_hash FROM document_blobs WHERE tier = 'local' AND ref_count > 0 " +
+                   "AND COALESCE(last_accessed_at, created_at) < :cutoff LIMIT :limit", nativeQuery = true)
+    List<String> findColdLocalBlobs(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Query(value = "SELECT content_hash FROM document_blobs WHERE tier = 'object' AND ref_count > 0 " +
+                   "AND last_accessed_at >= :cutoff LIMIT :limit", nativeQuery = true)
+    List<String> findWarmObjectBlobs(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    // Rechecks the age under the row lock: 0 when the blob was used or deleted since it was picked
+    @Modifying
+    @Query(value = "UPDATE document_blobs SET tier = 'object', local_delete_after = :localDeleteAfter " +
+                   "WHERE content_hash = :hash AND tier = 'local' " +
+                   "AND ref_count > 0 AND COALESCE(last_accessed_at, created_at) < :cutoff", nativeQuery = true)
+    int markObject(@Param("hash") String hash, @Param("cutoff") LocalDateTime cutoff,
+                   @Param("localDeleteAfter") LocalDateTime localDeleteAfter);
+
+    @Modifying
+    @Query(value = "UPDATE document_blobs SET tier = 'local', local_delete_after = NULL WHERE content_hash = :hash " +
+                   "AND tier = 'object' AND ref_count > 0", nativeQuery = true)
+    int markLocal(@Param("hash") String hash);
+
+    @Query(value = "SELECT content_hash FROM document_blobs WHERE tier = 'object' AND local_delete_after < :now " +
+                   "LIMIT :limit", nativeQuery = true)
+    List<String> findExpiredLocalCopies(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // 1 when the local copy may go now; the row stays locked until commit, so a promotion waits for the delete
+    @Modifying
+    @Query(value = "UPDATE document_blobs SET local_delete_after = NULL WHERE content_hash = :hash " +
+                   "AND tier = 'object' AND local_delete_after < :now", nativeQuery = true)
+    int claimLocalDelete(@Param("hash") String hash, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,36 @@
+package com.studyGroup.backend.repository;
+
+import com.studyGroup.backend.model.Course;
+import com.studyGroup.backend.model.Enrollment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+
+    boolean existsByUserIdAndCourseId(Integer userId, String courseId);
+
+    long deleteByUserIdAndCourseId(Integer userId, String courseId);
+
+    long countByUserId(Integer userId);
+
+    // Courses for user
+    @Query("SELECT e.courseId FROM Enrollment e WHERE e.userId = :userId ORDER BY e.courseId")
+    List<String> findCourseIdsByUserId(@Param("userId") Integer userId);
+
+    @Query("SELECT c FROM Course c WHERE c.courseId IN " +
+           "(SELECT e.courseId FROM Enrollment e WHERE e.userId = :userId)")
+    List<Course> findCoursesByUserId(@Param("userId") Integer userId);
+
+    // Users in course
+    @Query("SELECT e.userId FROM Enrollment e WHERE e.courseId = :courseId")
+    List<Integer> findUserIdsByCourseId(@Param("courseId") String courseId);
+
+    // {userId (Integer), courseId (String)} for every enrollment; used to build EnrollmentIndex
+    @Query("SELECT e.userId, e.courseId FROM Enrollment e")
+    List<Object[]> findAllUserCoursePairs();
+}
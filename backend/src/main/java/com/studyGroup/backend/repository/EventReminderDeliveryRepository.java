@@ -0,0 +1,16 @@
+package com.studyGroup.backend.repository;
+
+import com.studyGroup.backend.model.EventReminderDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EventReminderDeliveryRepository extends JpaRepository<EventReminderDelivery, Long> {
+
+    @Query("SELECT d.userId FROM EventReminderDelivery d WHERE d.reminderId = :reminderId")
+    List<Integer> findUserIdsByReminderId(@Param("reminderId") Long reminderId);
+}
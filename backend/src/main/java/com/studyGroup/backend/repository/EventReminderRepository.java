@@ -0,0 +1,50 @@
+package com.studyGroup.backend.repository;
+
+import com.studyGroup.backend.model.EventReminder;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EventReminderRepository extends JpaRepository<EventReminder, Long> {
+
+    List<EventReminder> findByStatusAndDueAtBefore(EventReminder.Status status, LocalDateTime dueBefore);
+
+    // Fan-outs whose node died mid-way
+    List<EventReminder> findByStatusAndClaimedAtBefore(EventReminder.Status status, LocalDateTime claimedBefore);
+
+    @Query("SELECT DISTINCT r.eventId FROM EventReminder r WHERE r.eventId IN :eventIds")
+    List<Long> findEventIdsWithReminders(@Param("eventIds") Collection<Long> eventIds);
+
+    /**
+     * Claims a reminder for firing. Only one caller (across nodes) gets 1 back; a SENDING
+     * claim older than {@code staleBefore} can be taken over.
+     */
+    default int claim(Long id, LocalDateTime now, LocalDateTime staleBefore) {
+        return claim(id, now, staleBefore, EventReminder.Status.PENDING, EventReminder.Status.SENDING);
+    }
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EventReminder r SET r.status = :sending, r.claimedAt = :now WHERE r.id = :id " +
+           "AND (r.status = :pending OR (r.status = :sending AND r.claimedAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore,
+              @Param("pending") EventReminder.Status pending, @Param("sending") EventReminder.Status sending);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EventReminder r SET r.status = :status, r.sentAt = :now WHERE r.id = :id")
+    int markSent(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("status") EventReminder.Status status);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EventReminder r WHERE r.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+}
@@ -1,6 +1,8 @@
 package com.studyGroup.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.studyGroup.backend.model.Group;
@@ -8,6 +10,7 @@ import com.studyGroup.backend.model.GroupMember;
 import com.studyGroup.backend.model.GroupMemberId;
 import com.studyGroup.backend.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional; 
 
@@ -31,4 +34,26 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, GroupM
     List<GroupMember> findByGroup(Group group);
 
     List<GroupMember> findByUser(User user);
+
+    /**
+     * Member counts for a set of groups in one grouped query.
+     * Each row is {groupId (Long), count (Long)}; groups without members are absent.
+     */
+    @Query("SELECT m.group.groupId, COUNT(m) FROM GroupMember m WHERE m.group.groupId IN :groupIds GROUP BY m.group.groupId")
+    List<Object[]> countMembersByGroupIds(@Param("groupIds") Collection<Long> groupIds);
+
+    // A user's memberships with group, course and creator fetched in one query
+    @Query("SELECT m FROM GroupMember m JOIN FETCH m.group g JOIN FETCH g.associatedCourse JOIN FETCH g.createdBy " +
+           "WHERE m.user.id = :userId")
+    List<GroupMember> findByUserIdWithGroup(@Param("userId") Integer userId);
+
+    // Members of a group with their user rows fetched
+    @Query("SELECT m FROM GroupMember m JOIN FETCH m.user WHERE m.group = :group")
+    List<GroupMember> findByGroupWithUser(@Param("group") Group group);
+
+    boolean existsByGroup_GroupIdAndUser_Id(Long groupId, Integer userId);
+
+    // Ids of every group the user belongs to, without loading the groups
+    @Query("SELECT m.group.groupId FROM GroupMember m WHERE m.user.id = :userId")
+    List<Long> findGroupIdsByUserId(@Param("userId") Integer userId);
 }
\ No newline at end of file
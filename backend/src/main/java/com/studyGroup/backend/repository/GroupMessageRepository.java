@@ -1,7 +1,10 @@
 package com.studyGroup.backend.repository;
 
 import com.studyGroup.backend.model.GroupMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -13,4 +16,35 @@ public interface GroupMessageRepository extends JpaRepository<GroupMessage, Long
      * This is the main method you'll use to load a chat history.
      */
     List<GroupMessage> findByGroup_GroupIdOrderByTimestampAsc(Long groupId);
-}
\ No newline at end of file
+
+    /**
+     * Full history with the sender fetched in the same query (no per-message user lookups).
+     */
+    @Query("SELECT m FROM GroupMessage m JOIN FETCH m.sender " +
+           "WHERE m.group.groupId = :groupId ORDER BY m.timestamp ASC, m.id ASC")
+    List<GroupMessage> findHistoryWithSender(@Param("groupId") Long groupId);
+
+    /**
+     * Newest messages of a group (keyset page without a cursor), newest first.
+     * Served by the (group_id, id) index.
+     */
+    @Query("SELECT m FROM GroupMessage m JOIN FETCH m.sender " +
+           "WHERE m.group.groupId = :groupId ORDER BY m.id DESC")
+    List<GroupMessage> findLatestPage(@Param("groupId") Long groupId, Pageable pageable);
+
+    /**
+     * Messages strictly older than the cursor, newest first.
+     */
+    @Query("SELECT m FROM GroupMessage m JOIN FETCH m.sender " +
+           "WHERE m.group.groupId = :groupId AND m.id < :beforeId ORDER BY m.id DESC")
+    List<GroupMessage> findPageBefore(@Param("groupId") Long groupId, @Param("beforeId") Long beforeId,
+                                      Pageable pageable);
+
+    /**
+     * Messages strictly newer than the cursor, oldest first.
+     */
+    @Query("SELECT m FROM GroupMessage m JOIN FETCH m.sender " +
+           "WHERE m.group.groupId = :groupId AND m.id > :afterId ORDER BY m.id ASC")
+    List<GroupMessage> findPageAfter(@Param("groupId") Long groupId, @Param("afterId") Long afterId,
+                                     Pageable pageable);
+}
@@ -1,6 +1,10 @@
 package com.studyGroup.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.studyGroup.backend.model.Group;
@@ -8,7 +12,27 @@ import com.studyGroup.backend.model.Group;
 import java.util.List;
 
 @Repository
-public interface GroupRepository extends JpaRepository<Group, Long> {
+public interface GroupRepository extends JpaRepository<Group, Long>, JpaSpecificationExecutor<Group> {
    
     List<Group> findAllByPrivacyIgnoreCase(String privacy);
+
+    // Course and creator fetched in the same query for list views
+    @Query("SELECT g FROM Group g JOIN FETCH g.associatedCourse JOIN FETCH g.createdBy")
+    List<Group> findAllWithCourseAndCreator();
+
+    // Keeps Group.memberCount in step with group_member inserts/deletes
+    @Modifying
+    @Query("UPDATE Group g SET g.memberCount = g.memberCount + :delta WHERE g.groupId = :groupId")
+    int adjustMemberCount(@Param("groupId") Long groupId, @Param("delta") int delta);
+
+    // Repairs the denormalized counter from the source of truth
+    @Modifying
+    @Query(value = "UPDATE study_group g SET member_count = " +
+                   "(SELECT COUNT(*) FROM group_member m WHERE m.group_id = g.group_id)", nativeQuery = true)
+    int recountMemberCounts();
+
+    // Groups created before privacy was stored lower-case
+    @Modifying
+    @Query(value = "UPDATE study_group SET privacy = LOWER(TRIM(privacy))", nativeQuery = true)
+    int normalizePrivacy();
 }
@@ -0,0 +1,85 @@
+package com.studyGroup.backend.repository;
+
+import com.studyGroup.backend.model.Group;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filters and keyset conditions for group discovery. Each one is a no-op when its
+ * argument is null, so they can be chained with {@code and()} straight from request params.
+ */
+public final class GroupSpecifications {
+
+    private GroupSpecifications() {
+    }
+
+    /**
+     * Fetch-joins course and creator so listing a page does not lazy-load them per group.
+     */
+    public static Specification<Group> fetchCourseAndCreator() {
+        return (root, query, cb) -> {
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("associatedCourse", JoinType.INNER);
+                root.fetch("createdBy", JoinType.INNER);
+            }
+            return null;
+        };
+    }
+
+    public static Specification<Group> hasCourse(String courseId) {
+        return (root, query, cb) -> courseId == null ? null
+                : cb.equal(root.get("associatedCourse").get("courseId"), courseId);
+    }
+
+    /**
+     * Privacy is stored lower-case (see GroupService.createGroup), so the parameter is
+     * normalized instead of the column and idx_study_group_privacy stays usable.
+     */
+    public static Specification<Group> hasPrivacy(String privacy) {
+        return (root, query, cb) -> privacy == null ? null
+                : cb.equal(root.get("privacy"), privacy.trim().toLowerCase());
+    }
+
+    public static Specification<Group> hasCapacity(Boolean hasCapacity) {
+        return (root, query, cb) -> !Boolean.TRUE.equals(hasCapacity) ? null
+                : cb.or(cb.isNull(root.get("memberLimit")),
+                        cb.lessThan(root.get("memberCount"), root.get("memberLimit")));
+    }
+
+    public static Specification<Group> nameStartsWith(String prefix) {
+        return (root, query, cb) -> {
+            if (prefix == null || prefix.isBlank()) {
+                return null;
+            }
+            String escaped = prefix.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            return cb.like(root.get("name"), escaped + "%", '\\');
+        };
+    }
+
+    /**
+     * Keyset condition for newest-first order: (group_id) &lt; cursor.
+     */
+    public static Specification<Group> idBefore(Long groupId) {
+        return (root, query, cb) -> groupId == null ? null : cb.lessThan(root.get("groupId"), groupId);
+    }
+
+    /**
+     * Keyset condition for (name ASC, group_id ASC).
+     */
+    public static Specification<Group> afterName(String name, Long groupId) {
+        return (root, query, cb) -> groupId == null ? null
+                : cb.or(cb.greaterThan(root.get("name"), name),
+                        cb.and(cb.equal(root.get("name"), name), cb.greaterThan(root.get("groupId"), groupId)));
+    }
+
+    /**
+     * Keyset condition for (member_count DESC, group_id DESC), a backward scan of
+     * idx_study_group_member_count.
+     */
+    public static Specification<Group> afterMemberCount(Integer memberCount, Long groupId) {
+        return (root, query, cb) -> groupId == null ? null
+                : cb.or(cb.lessThan(root.get("memberCount"), memberCount),
+                        cb.and(cb.equal(root.get("memberCount"), memberCount),
+                                cb.lessThan(root.get("groupId"), groupId)));
+    }
+}
@@ -0,0 +1,31 @@
+package com.studyGroup.backend.repository;
+
+import com.studyGroup.backend.model.GroupStorageUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GroupStorageUsageRepository extends JpaRepository<GroupStorageUsage, Long> {
+
+    // Creates the group's row from its existing documents on first use; a no-op afterwards
+    @Modifying
+    @Query(value = "INSERT INTO group_storage_usage (group_id, used_bytes) " +
+                   "SELECT :groupId, COALESCE(SUM(d.file_size), 0) FROM message_documents d " +
+                   "JOIN group_messages m ON m.id = d.message_id WHERE m.group_id = :groupId " +
+                   "ON DUPLICATE KEY UPDATE group_id = group_id", nativeQuery = true)
+    int initUsage(@Param("groupId") Long groupId);
+
+    // 0 rows updated means the upload would exceed the quota
+    @Modifying
+    @Query(value = "UPDATE group_storage_usage SET used_bytes = used_bytes + :bytes " +
+                   "WHERE group_id = :groupId AND used_bytes + :bytes <= :quota", nativeQuery = true)
+    int reserve(@Param("groupId") Long groupId, @Param("bytes") long bytes, @Param("quota") long quota);
+
+    @Modifying
+    @Query(value = "UPDATE group_storage_usage SET used_bytes = GREATEST(used_bytes - :bytes, 0) " +
+                   "WHERE group_id = :groupId", nativeQuery = true)
+    int release(@Param("groupId") Long groupId, @Param("bytes") long bytes);
+}
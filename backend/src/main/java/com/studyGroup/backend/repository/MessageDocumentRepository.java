@@ -1,7 +1,11 @@
 package com.studyGroup.backend.repository;
 
 import com.studyGroup.backend.model.MessageDocument;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +16,18 @@ public interface MessageDocumentRepository extends JpaRepository<MessageDocument
     MessageDocument findByMessage_Id(Long messageId);
 
     List<MessageDocument> findByMessage_Group_GroupIdOrderByUploadTimeDesc(Long groupId);
+
+    // Keyset paging over all documents, for rebuilding derived data such as the search index
+    List<MessageDocument> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Documents still stored under their own file name rather than a storage key, keyset-paged by id
+    @Query("SELECT d FROM MessageDocument d WHERE d.id > :afterId " +
+           "AND (d.contentHash IS NULL OR d.filePath IS NULL OR d.filePath <> d.contentHash) ORDER BY d.id")
+    List<MessageDocument> findLegacyFilesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Blobs stored before storage keys were referenced by their path, blobs/<2 hex>/<hash>; the key is the hash
+    @Modifying
+    @Query(value = "UPDATE message_documents SET stored_filename = content_hash, file_path = content_hash " +
+                   "WHERE stored_filename LIKE 'blobs/%' AND content_hash IS NOT NULL", nativeQuery = true)
+    int convertBlobPathsToKeys();
 }
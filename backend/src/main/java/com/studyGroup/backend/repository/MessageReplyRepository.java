@@ -1,11 +1,20 @@
 package com.studyGroup.backend.repository;
 
 import com.studyGroup.backend.model.MessageReply;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface MessageReplyRepository extends JpaRepository<MessageReply, Long> {
     Optional<MessageReply> findByReplyMessage_Id(Long replyMessageId);
+
+    // Batch lookup of reply links for a page of messages, with the original message and its sender fetched
+    @Query("SELECT r FROM MessageReply r JOIN FETCH r.originalMessage o JOIN FETCH o.sender " +
+           "WHERE r.replyMessage.id IN :replyMessageIds")
+    List<MessageReply> findWithOriginalByReplyMessageIds(@Param("replyMessageIds") Collection<Long> replyMessageIds);
 }
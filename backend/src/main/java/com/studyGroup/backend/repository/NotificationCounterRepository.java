@@ -0,0 +1,30 @@
+package com.studyGroup.backend.repository;
+
+import com.studyGroup.backend.model.NotificationCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, Integer> {
+
+    // Upsert: creates the row on a user's first notification, never goes below zero
+    @Modifying
+    @Query(value = "INSERT INTO notification_counters (user_id, unread_count) VALUES (:userId, GREATEST(:delta, 0)) " +
+                   "ON DUPLICATE KEY UPDATE unread_count = GREATEST(unread_count + :delta, 0)", nativeQuery = true)
+    int adjustUnreadCount(@Param("userId") Integer userId, @Param("delta") long delta);
+
+    // Repairs every counter from the source of truth (run with clearUnreadCounts in one transaction)
+    @Modifying
+    @Query(value = "INSERT INTO notification_counters (user_id, unread_count) " +
+                   "SELECT n.user_id, SUM(CASE WHEN n.is_read = false THEN 1 ELSE 0 END) FROM notifications n " +
+                   "GROUP BY n.user_id " +
+                   "ON DUPLICATE KEY UPDATE unread_count = VALUES(unread_count)", nativeQuery = true)
+    int recountUnreadCounts();
+
+    @Modifying
+    @Query("UPDATE NotificationCounter c SET c.unreadCount = 0")
+    int clearUnreadCounts();
+}
@@ -1,8 +1,14 @@
 package com.studyGroup.backend.repository;
 
 import com.studyGroup.backend.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,7 +18,27 @@ public interface NotificationRepository extends JpaRepository<Notification, Inte
 
     List<Notification> findByUserIdAndIsReadOrderByCreatedAtDesc(Integer userId, Boolean isRead);
 
+    // Inbox pages, newest first, keyset on (created_at, id) over idx_notifications_user_created_id
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxFirstPage(@Param("userId") Integer userId, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxPageBefore(@Param("userId") Integer userId, @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Integer id, Pageable pageable);
+
     void deleteByUserIdAndIsRead(Integer userId, Boolean isRead);
 
     void deleteAllByIdIn(List<Integer> ids);
+
+    // Set-based read flags: one UPDATE, returns how many were actually unread
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.userId = :userId AND n.isRead = false")
+    int markAllReadByUserId(@Param("userId") Integer userId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true " +
+           "WHERE n.userId = :userId AND n.id IN :ids AND n.isRead = false")
+    int markReadByUserIdAndIdIn(@Param("userId") Integer userId, @Param("ids") Collection<Integer> ids);
 }
@@ -2,11 +2,32 @@ package com.studyGroup.backend.repository;
 
 import com.studyGroup.backend.model.PollOption;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PollOptionRepository extends JpaRepository<PollOption, Long> {
     List<PollOption> findByPoll_IdOrderById(Long pollId);
+
+    List<PollOption> findByPoll_IdInOrderById(Collection<Long> pollIds);
+
+    Optional<PollOption> findByIdAndPoll_Id(Long id, Long pollId);
+
+    // Atomic in-database increment: concurrent voters never overwrite each other's count
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PollOption o SET o.voteCount = o.voteCount + 1 WHERE o.id = :optionId")
+    int incrementVoteCount(@Param("optionId") Long optionId);
+
+    @Query("SELECT o.voteCount FROM PollOption o WHERE o.id = :optionId")
+    Long findVoteCountById(@Param("optionId") Long optionId);
+
+    // [optionId, voteCount] of every option of the poll
+    @Query("SELECT o.id, o.voteCount FROM PollOption o WHERE o.poll.id = :pollId ORDER BY o.id")
+    List<Object[]> findVoteCountsByPollId(@Param("pollId") Long pollId);
 }
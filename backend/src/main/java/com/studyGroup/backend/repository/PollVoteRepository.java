@@ -0,0 +1,10 @@
+package com.studyGroup.backend.repository;
+
+import com.studyGroup.backend.model.PollVote;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PollVoteRepository extends JpaRepository<PollVote, Long> {
+    boolean existsByPollIdAndUserId(Long pollId, Integer userId);
+}
@@ -1,10 +1,13 @@
 package com.studyGroup.backend.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import com.studyGroup.backend.model.Profile;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +15,9 @@ public interface ProfileRepository extends JpaRepository<Profile, String> {
     
     // This custom method will be used explicitly in the GroupService
     Optional<Profile> findByEmail(String email);
+
+    List<Profile> findByEmailIn(Collection<String> emails);
+
+    // Next chunk of profiles whose JSON enrollments have not been copied to the enrollments table
+    List<Profile> findByEnrollmentsMigratedFalseOrderByEmail(Pageable pageable);
 }
\ No newline at end of file
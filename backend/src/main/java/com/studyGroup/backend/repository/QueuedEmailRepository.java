@@ -0,0 +1,42 @@
+package com.studyGroup.backend.repository;
+
+import com.studyGroup.backend.model.QueuedEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface QueuedEmailRepository extends JpaRepository<QueuedEmail, Long> {
+
+    // Due and not held by a live claim, oldest first
+    @Query(value = "SELECT id FROM email_outbox WHERE next_attempt_at <= :now " +
+                   "AND (claimed_until IS NULL OR claimed_until < :now) ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findClaimableIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Claims the rows that are still unclaimed. The condition is re-checked under the row
+     * lock, so when two workers race for a row only one of them gets it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE QueuedEmail e SET e.claimToken = :token, e.claimedUntil = :until WHERE e.id IN :ids " +
+           "AND (e.claimedUntil IS NULL OR e.claimedUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+              @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+
+    List<QueuedEmail> findByClaimTokenOrderById(String claimToken);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE QueuedEmail e SET e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.lastError = :lastError, e.claimToken = NULL, e.claimedUntil = NULL WHERE e.id = :id")
+    int reschedule(@Param("id") Long id, @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastError") String lastError);
+}
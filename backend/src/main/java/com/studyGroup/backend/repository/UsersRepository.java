@@ -5,6 +5,8 @@ import org.springframework.stereotype.Repository;
 
 import com.studyGroup.backend.model.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +15,6 @@ public interface UsersRepository extends JpaRepository<User, Integer> {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    List<User> findByEmailIn(Collection<String> emails);
 }
@@ -2,7 +2,6 @@ package com.studyGroup.backend.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional; // ✅ Added this import
 
 import com.studyGroup.backend.dto.CalendarEventDTO;
 import com.studyGroup.backend.dto.UserSummaryDTO;
@@ -22,8 +21,6 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
-import org.springframework.scheduling.annotation.Scheduled;
-
 @Service
 public class CalendarEventService {
 
@@ -41,7 +38,7 @@ public class CalendarEventService {
         return toIST(utcDateTime).format(DATE_DDMMYYYY);
     }
 
-    private static String formatTimeRangeIST(LocalDateTime startUtc, LocalDateTime endUtc) {
+    static String formatTimeRangeIST(LocalDateTime startUtc, LocalDateTime endUtc) {
         return toIST(startUtc).format(TIME_HH_MM_A) + " - " + toIST(endUtc).format(TIME_HH_MM_A);
     }
 
@@ -63,6 +60,9 @@ public class CalendarEventService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
     private CalendarEventDTO convertToDTO(CalendarEvent event) {
         User creator = event.getCreatedBy();
         UserSummaryDTO creatorDTO = new UserSummaryDTO(
@@ -121,12 +121,13 @@ public class CalendarEventService {
         event.setReminder1HourSent(false);
 
         CalendarEvent savedEvent = calendarEventRepository.save(event);
+        reminderScheduler.schedule(savedEvent);
 
         // Send emails (existing behavior)
         sendEventCreationEmail(savedEvent, user);
 
         // In-app notifications for creator and all group members
-        List<GroupMember> members = groupMemberRepository.findByGroup(savedEvent.getAssociatedGroup());
+        List<GroupMember> members = groupMemberRepository.findByGroupWithUser(savedEvent.getAssociatedGroup());
         String groupName = savedEvent.getAssociatedGroup().getName();
         String topic = savedEvent.getTopic();
         Long eventId = savedEvent.getId();
@@ -141,18 +142,17 @@ public class CalendarEventService {
                 "CALENDAR_EVENT"
         );
         // Other members
-        for (GroupMember gm : members) {
-            Integer memberId = gm.getUser().getId();
-            if (!memberId.equals(user.getId())) {
-                notificationService.createUpdateNotification(
-                        memberId,
-                        "New session created",
-                        creatorName + " created '" + topic + "' in '" + groupName + "'.",
-                        eventId,
-                        "CALENDAR_EVENT"
-                );
-            }
-        }
+        List<Integer> otherMemberIds = members.stream()
+                .map(gm -> gm.getUser().getId())
+                .filter(memberId -> !memberId.equals(user.getId()))
+                .collect(Collectors.toList());
+        notificationService.createUpdateNotifications(
+                otherMemberIds,
+                "New session created",
+                creatorName + " created '" + topic + "' in '" + groupName + "'.",
+                eventId,
+                "CALENDAR_EVENT"
+        );
 
         return convertToDTO(savedEvent);
     }
@@ -215,6 +215,9 @@ public class CalendarEventService {
         }
 
         CalendarEvent updatedEvent = calendarEventRepository.save(event);
+        if (!Objects.equals(oldStart, updatedEvent.getStartTime())) {
+            reminderScheduler.reschedule(updatedEvent);
+        }
         return convertToDTO(updatedEvent);
     }
 
@@ -233,23 +236,22 @@ public class CalendarEventService {
         sendEventCancellationEmail(event, user);
 
         // In-app cancellation update for all members
-        List<GroupMember> members = groupMemberRepository.findByGroup(event.getAssociatedGroup());
-        for (GroupMember gm : members) {
-            notificationService.createUpdateNotification(
-                    gm.getUser().getId(),
-                    "Session canceled",
-                    "Update: '" + event.getTopic() + "' has been canceled in '" + event.getAssociatedGroup().getName() + "'.",
-                    event.getId(),
-                    "CALENDAR_EVENT"
-            );
-        }
+        List<GroupMember> members = groupMemberRepository.findByGroupWithUser(event.getAssociatedGroup());
+        notificationService.createUpdateNotifications(
+                members.stream().map(gm -> gm.getUser().getId()).collect(Collectors.toList()),
+                "Session canceled",
+                "Update: '" + event.getTopic() + "' has been canceled in '" + event.getAssociatedGroup().getName() + "'.",
+                event.getId(),
+                "CALENDAR_EVENT"
+        );
 
+        reminderScheduler.cancel(event.getId());
         calendarEventRepository.delete(event);
     }
 
     // ==== Email helpers ====
 
-    private void appendCommonEventLines(StringBuilder body, CalendarEvent event) {
+    static void appendCommonEventLines(StringBuilder body, CalendarEvent event) {
         body.append("Event Details:\n");
         body.append("Session Name: ").append(event.getTopic()).append("\n");
         body.append("Organizer: ").append(
@@ -282,92 +284,29 @@ public class CalendarEventService {
     }
 
     private void sendEventCreationEmail(CalendarEvent event, User creator) {
-        List<GroupMember> members = groupMemberRepository.findByGroup(event.getAssociatedGroup());
+        List<GroupMember> members = groupMemberRepository.findByGroupWithUser(event.getAssociatedGroup());
         String subject = "New Event Created: " + event.getTopic();
-        for (GroupMember member : members) {
-            StringBuilder body = new StringBuilder();
-            body.append("Dear Group Member,\n\n");
-            body.append("A new event has been created in your group.\n\n");
-            body.append("Creator: ").append(creator.getName()).append("\n");
-            appendCommonEventLines(body, event);
-            emailService.sendEmail(member.getUser().getEmail(), subject, body.toString());
-        }
+        StringBuilder body = new StringBuilder();
+        body.append("Dear Group Member,\n\n");
+        body.append("A new event has been created in your group.\n\n");
+        body.append("Creator: ").append(creator.getName()).append("\n");
+        appendCommonEventLines(body, event);
+        emailService.queueEmails(memberEmails(members), subject, body.toString());
     }
 
     private void sendEventCancellationEmail(CalendarEvent event, User canceller) {
-        List<GroupMember> members = groupMemberRepository.findByGroup(event.getAssociatedGroup());
+        List<GroupMember> members = groupMemberRepository.findByGroupWithUser(event.getAssociatedGroup());
         String subject = "Event Cancelled: " + event.getTopic();
-        for (GroupMember member : members) {
-            StringBuilder body = new StringBuilder();
-            body.append("Dear Group Member,\n\n");
-            body.append("An event has been cancelled in your group.\n\n");
-            body.append("Cancelled By: ").append(canceller.getName()).append("\n");
-            appendCommonEventLines(body, event);
-            emailService.sendEmail(member.getUser().getEmail(), subject, body.toString());
-        }
-    }
-
-    // ✅ FIXED: Added @Transactional to prevent LazyInitializationException
-    @Scheduled(fixedRate = 60000)
-    @Transactional
-    public void sendReminderEmails() {
-        LocalDateTime nowUtc = ZonedDateTime.now(UTC).toLocalDateTime();
-        LocalDateTime tenMinutesLaterUtc = nowUtc.plusMinutes(10);
-        LocalDateTime oneHourLaterUtc = nowUtc.plusHours(1);
-
-        // Fetch events starting within 1 hour
-        List<CalendarEvent> upcomingEvents =
-                calendarEventRepository.findByStartTimeBetween(nowUtc, oneHourLaterUtc);
-
-        for (CalendarEvent event : upcomingEvents) {
-            LocalDateTime createdAt = event.getCreatedAt();
-            if (createdAt == null) continue; // Skip if no createdAt (legacy events)
-
-            long minutesSinceCreation = java.time.Duration.between(createdAt, nowUtc).toMinutes();
-
-            // Determine which reminder to send based on creation time
-            if (minutesSinceCreation < 60) { // Created less than 1 hour ago
-                if (minutesSinceCreation < 10) { // Created less than 10 minutes ago
-                    if (Boolean.TRUE.equals(event.getReminder1MinSent())) continue;
-                    sendReminderEmail(event, "1 minute");
-                    event.setReminder1MinSent(true);
-                } else {
-                    if (Boolean.TRUE.equals(event.getReminder10MinSent())) continue;
-                    sendReminderEmail(event, "10 minutes");
-                    event.setReminder10MinSent(true);
-                }
-            } else { // Created 1 hour or more ago
-                if (Boolean.TRUE.equals(event.getReminder1HourSent())) continue;
-                sendReminderEmail(event, "1 hour");
-                event.setReminder1HourSent(true);
-            }
-
-            calendarEventRepository.save(event);
-        }
+        StringBuilder body = new StringBuilder();
+        body.append("Dear Group Member,\n\n");
+        body.append("An event has been cancelled in your group.\n\n");
+        body.append("Cancelled By: ").append(canceller.getName()).append("\n");
+        appendCommonEventLines(body, event);
+        emailService.queueEmails(memberEmails(members), subject, body.toString());
     }
 
-    private void sendReminderEmail(CalendarEvent event, String timeFrame) {
-        List<GroupMember> members = groupMemberRepository.findByGroup(event.getAssociatedGroup());
-        String subject = "Reminder: Event Starting in " + timeFrame + " - " + event.getTopic();
-        StringBuilder base = new StringBuilder();
-        base.append("Dear Group Member,\n\n");
-        base.append("This is a reminder that an event in your group is starting in less than ").append(timeFrame).append(".\n\n");
-        appendCommonEventLines(base, event);
-        String body = base.toString();
-
-        for (GroupMember member : members) {
-            emailService.sendEmail(member.getUser().getEmail(), subject, body);
-            // In-app reminder notification
-            notificationService.createReminderNotification(
-                    member.getUser().getId(),
-                    "Upcoming session reminder",
-                    "Reminder: '" + event.getTopic() + "' starts at " + formatTimeRangeIST(event.getStartTime(), event.getEndTime()) + " in '" + event.getAssociatedGroup().getName() + "'.",
-                    event.getId(),
-                    "CALENDAR_EVENT"
-            );
-        }
-
-        System.out.println("[Reminder] " + timeFrame + " email sent for event: " + event.getTopic());
+    private static List<String> memberEmails(List<GroupMember> members) {
+        return members.stream().map(m -> m.getUser().getEmail()).collect(Collectors.toList());
     }
 
     public List<CalendarEventDTO> getUpcomingEventsForUser(User user) {
@@ -0,0 +1,605 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.dto.ChatSearchResultDTO;
+import com.studyGroup.backend.model.GroupMessage;
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.Facets;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded Lucene index over chat messages, on local disk under {@code chat.search.index-dir}.
+ *
+ * Every write path keeps it current: the chat write pipeline after each flush, the JPA
+ * saves and deletes in {@link GroupMessageService} once their transaction commits, and
+ * poll creation. Searchers are reopened every {@code refresh-interval-ms}, so a message is
+ * searchable about a second after it is stored. The index is committed every
+ * {@code commit-interval-ms}; at startup, messages from shortly before the last commit are
+ * indexed again to cover a crash in between, and an empty index is rebuilt from the
+ * database. A delete lost in a crash leaves a stale entry, which search drops (and removes)
+ * when its message is no longer in the database.
+ *
+ * {@link #rebuild()} (the {@code chatsearch} actuator endpoint, or
+ * {@code chat.search.rebuild-on-startup}) reindexes everything. While it runs, every commit
+ * carries a {@code rebuildInProgress} marker, so a rebuild cut short by a crash is started
+ * over at the next start rather than leaving a partial index behind.
+ *
+ * The index is local to each node and only sees the writes made on that node. With several
+ * nodes, set {@code sweep-interval-ms} so each node also indexes the messages stored in the
+ * last {@code sweep-lookback-ms} by any node.
+ *
+ * Metrics: chat.search.latency, chat.search.index.docs, chat.search.index.failures.
+ */
+@Service
+public class ChatSearchIndex {
+
+    private static final String ID = "id";
+    private static final String GROUP = "group";
+    private static final String SENDER = "sender";
+    private static final String TYPE = "type";
+    private static final String TIMESTAMP = "timestamp";
+    private static final String CONTENT = "content";
+    private static final String MONTH = "month";
+    private static final String COMMITTED_AT = "committedAt";
+    private static final String REBUILD_IN_PROGRESS = "rebuildInProgress";
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final Sort NEWEST_FIRST = new Sort(new SortField(TIMESTAMP, SortField.Type.LONG, true));
+    // Index writes between the last timestamp seen and the commit that recorded it may be lost in a crash
+    private static final long CATCH_UP_MARGIN_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final String SELECT_MESSAGES =
+            "SELECT id, group_id, sender_user_id, content, message_type, timestamp FROM group_messages ";
+
+    // Offsets in the postings let the highlighter find matches without re-analyzing the stored text
+    private static final FieldType CONTENT_FIELD = new FieldType(TextField.TYPE_STORED);
+    static {
+        CONTENT_FIELD.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        CONTENT_FIELD.freeze();
+    }
+
+    private static final RowMapper<IndexedMessage> ROW_MAPPER = (rs, rowNum) -> new IndexedMessage(
+            rs.getLong("id"),
+            rs.getLong("group_id"),
+            rs.getInt("sender_user_id"),
+            rs.getString("content"),
+            rs.getString("message_type"),
+            rs.getTimestamp("timestamp").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final Path indexDir;
+    private final long refreshIntervalMs;
+    private final long commitIntervalMs;
+    private final int rebuildChunkSize;
+    private final boolean rebuildOnStartup;
+    private final long sweepIntervalMs;
+    private final long sweepLookbackMs;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Set while a rebuild has deleted the index and not yet refilled it; recorded in every commit
+    private volatile boolean rebuildInProgress;
+
+    private final Timer searchTimer;
+    private final Counter indexFailures;
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ScheduledExecutorService maintenance;
+    // Facet ordinals for the current reader; rebuilt after each refresh so searches never pay for it
+    private volatile FacetState facetState;
+
+    public ChatSearchIndex(JdbcTemplate jdbcTemplate, UserRepository userRepository, MeterRegistry meterRegistry,
+                           @Value("${chat.search.index-dir:./data/chat-index}") String indexDir,
+                           @Value("${chat.search.refresh-interval-ms:1000}") long refreshIntervalMs,
+                           @Value("${chat.search.commit-interval-ms:30000}") long commitIntervalMs,
+                           @Value("${chat.search.rebuild-chunk-size:5000}") int rebuildChunkSize,
+                           @Value("${chat.search.rebuild-on-startup:false}") boolean rebuildOnStartup,
+                           @Value("${chat.search.sweep-interval-ms:0}") long sweepIntervalMs,
+                           @Value("${chat.search.sweep-lookback-ms:60000}") long sweepLookbackMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.indexDir = Paths.get(indexDir);
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.commitIntervalMs = commitIntervalMs;
+        this.rebuildChunkSize = rebuildChunkSize;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.sweepLookbackMs = sweepLookbackMs;
+        this.searchTimer = Timer.builder("chat.search.latency").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        this.indexFailures = Counter.builder("chat.search.index.failures").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(indexDir);
+        directory = FSDirectory.open(indexDir);
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+        searcherManager.addListener(new ReferenceManager.RefreshListener() {
+            @Override
+            public void beforeRefresh() {
+            }
+
+            @Override
+            public void afterRefresh(boolean didRefresh) {
+                if (didRefresh) {
+                    loadFacetState();
+                }
+            }
+        });
+        loadFacetState();
+        Gauge.builder("chat.search.index.docs", this, ChatSearchIndex::getIndexedCount).register(meterRegistry);
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-search-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        maintenance.scheduleWithFixedDelay(this::refresh, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        maintenance.scheduleWithFixedDelay(this::commit, commitIntervalMs, commitIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        maintenance.shutdownNow();
+        searcherManager.close();
+        commit();
+        writer.close();
+        directory.close();
+    }
+
+    // After ChatWritePipeline has replayed its journal
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        if (sweepIntervalMs > 0) {
+            maintenance.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        String committedAt = null;
+        boolean interruptedRebuild = false;
+        for (Map.Entry<String, String> entry : writer.getLiveCommitData()) {
+            if (COMMITTED_AT.equals(entry.getKey())) {
+                committedAt = entry.getValue();
+            } else if (REBUILD_IN_PROGRESS.equals(entry.getKey())) {
+                interruptedRebuild = true;
+            }
+        }
+        if (rebuildOnStartup || interruptedRebuild || getIndexedCount() == 0) {
+            if (interruptedRebuild) {
+                System.out.println("[ChatSearchIndex] Previous rebuild did not finish; starting it over");
+            }
+            rebuild();
+            return;
+        }
+        if (committedAt == null) {
+            return;
+        }
+        LocalDateTime since = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(Long.parseLong(committedAt) - CATCH_UP_MARGIN_MS), ZoneId.systemDefault());
+        runInBackground("catch-up", () -> {
+            long count = indexFromDatabase("timestamp >= ?", Timestamp.valueOf(since));
+            refresh();
+            System.out.println("[ChatSearchIndex] Caught up " + count + " message(s) since " + since);
+        });
+    }
+
+    /**
+     * Reindexes every message from the database in the background. Returns false if a
+     * rebuild is already running. Searches see a partial index until it finishes.
+     */
+    public boolean rebuild() {
+        return runInBackground("rebuild", () -> {
+            long start = System.currentTimeMillis();
+            rebuildInProgress = true;
+            writer.deleteAll();
+            // Persist the marker before anything else can commit the emptied index
+            commit();
+            long count = indexFromDatabase("1 = 1");
+            rebuildInProgress = false;
+            commit();
+            refresh();
+            System.out.println("[ChatSearchIndex] Rebuilt index with " + count + " message(s) in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        });
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    public int getIndexedCount() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /** Indexes a message saved through JPA; applied once the surrounding transaction commits. */
+    public void index(GroupMessage message) {
+        // Read now: the group may be a lazy reference that cannot be initialized after commit
+        IndexedMessage indexed = new IndexedMessage(message.getId(), message.getGroup().getGroupId(),
+                message.getSender().getId(), message.getContent(), message.getMessageType(), message.getTimestamp());
+        afterCommit(() -> writer.updateDocument(idTerm(indexed.id()), toDocument(indexed)));
+    }
+
+    /** Indexes a message already committed to the database. */
+    public void index(Long id, Long groupId, Integer senderId, String content, String messageType,
+                      LocalDateTime timestamp) {
+        IndexedMessage indexed = new IndexedMessage(id, groupId, senderId, content, messageType, timestamp);
+        apply(() -> writer.updateDocument(idTerm(id), toDocument(indexed)));
+    }
+
+    /** Removes a message once the surrounding transaction commits; persisted by the next timed commit. */
+    public void delete(Long messageId) {
+        afterCommit(() -> writer.deleteDocuments(idTerm(messageId)));
+    }
+
+    /**
+     * Searches one group's messages. All words of {@code text} must match; {@code senderId}
+     * and the inclusive {@code from}/{@code to} dates narrow the results.
+     */
+    public ChatSearchResultDTO search(Long groupId, String text, Integer senderId, LocalDate from, LocalDate to,
+                                      boolean newestFirst, int limit) throws IOException {
+        Query contentQuery = new QueryBuilder(analyzer).createBooleanQuery(CONTENT, text, BooleanClause.Occur.MUST);
+        if (contentQuery == null) {
+            return new ChatSearchResultDTO(0, List.of(), List.of(), List.of());
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(contentQuery, BooleanClause.Occur.MUST)
+                .add(new TermQuery(new Term(GROUP, groupId.toString())), BooleanClause.Occur.FILTER);
+        if (senderId != null) {
+            query.add(new TermQuery(new Term(SENDER, senderId.toString())), BooleanClause.Occur.FILTER);
+        }
+        if (from != null || to != null) {
+            long lower = from != null ? toMillis(from.atStartOfDay()) : Long.MIN_VALUE;
+            long upper = to != null ? toMillis(to.plusDays(1).atStartOfDay()) - 1 : Long.MAX_VALUE;
+            query.add(LongPoint.newRangeQuery(TIMESTAMP, lower, upper), BooleanClause.Occur.FILTER);
+        }
+
+        long start = System.nanoTime();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            FacetsCollectorManager.FacetsResult result = newestFirst
+                    ? FacetsCollectorManager.search(searcher, query.build(), limit, NEWEST_FIRST, new FacetsCollectorManager())
+                    : FacetsCollectorManager.search(searcher, query.build(), limit, new FacetsCollectorManager());
+            TopDocs top = result.topDocs();
+            String[] snippets = UnifiedHighlighter.builder(searcher, analyzer)
+                    .withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", "... ", true))
+                    .build()
+                    .highlight(CONTENT, contentQuery, top);
+
+            Facets facets = facetCounts(searcher, result.facetsCollector());
+            List<LabelAndValue> senderCounts = topChildren(facets, SENDER, 10);
+            List<LabelAndValue> monthCounts = topChildren(facets, MONTH, 24);
+
+            StoredFields storedFields = searcher.storedFields();
+            List<Document> docs = new ArrayList<>(top.scoreDocs.length);
+            List<String> docSnippets = new ArrayList<>(top.scoreDocs.length);
+            for (int i = 0; i < top.scoreDocs.length; i++) {
+                docs.add(storedFields.document(top.scoreDocs[i].doc));
+                docSnippets.add(snippets[i]);
+            }
+            dropDeleted(docs, docSnippets);
+            Set<Integer> senderIds = new HashSet<>();
+            for (Document doc : docs) {
+                senderIds.add(Integer.valueOf(doc.get(SENDER)));
+            }
+            senderCounts.forEach(lv -> senderIds.add(Integer.valueOf(lv.label)));
+            // One query for the names of every sender on the page and in the facet
+            Map<Integer, String> names = userRepository.findAllById(senderIds).stream()
+                    .collect(Collectors.toMap(User::getId, User::getName));
+
+            List<ChatSearchResultDTO.Hit> hits = new ArrayList<>(docs.size());
+            for (int i = 0; i < docs.size(); i++) {
+                Document doc = docs.get(i);
+                Integer sender = Integer.valueOf(doc.get(SENDER));
+                hits.add(new ChatSearchResultDTO.Hit(
+                        Long.valueOf(doc.get(ID)),
+                        sender,
+                        names.get(sender),
+                        doc.get(TYPE),
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(
+                                doc.getField(TIMESTAMP).numericValue().longValue()), ZoneId.systemDefault()),
+                        docSnippets.get(i)));
+            }
+            return new ChatSearchResultDTO(
+                    top.totalHits.value,
+                    hits,
+                    senderCounts.stream()
+                            .map(lv -> new ChatSearchResultDTO.SenderFacet(Integer.valueOf(lv.label),
+                                    names.get(Integer.valueOf(lv.label)), lv.value.longValue()))
+                            .collect(Collectors.toList()),
+                    monthCounts.stream()
+                            .map(lv -> new ChatSearchResultDTO.MonthFacet(lv.label, lv.value.longValue()))
+                            .collect(Collectors.toList()));
+        } finally {
+            searcherManager.release(searcher);
+            searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Removes hits whose message is gone from the database (a delete lost in a crash, or
+     * made on another node) from the page and from the index. One query per search.
+     */
+    private void dropDeleted(List<Document> docs, List<String> docSnippets) {
+        if (docs.isEmpty()) {
+            return;
+        }
+        List<Long> ids = docs.stream().map(doc -> Long.valueOf(doc.get(ID))).collect(Collectors.toList());
+        String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(","));
+        Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM group_messages WHERE id IN (" + placeholders + ")", Long.class, ids.toArray()));
+        for (int i = docs.size() - 1; i >= 0; i--) {
+            Long id = ids.get(i);
+            if (!existing.contains(id)) {
+                docs.remove(i);
+                docSnippets.remove(i);
+                apply(() -> writer.deleteDocuments(idTerm(id)));
+            }
+        }
+    }
+
+    private Document toDocument(IndexedMessage message) throws IOException {
+        long millis = toMillis(message.timestamp());
+        Document doc = new Document();
+        doc.add(new StringField(ID, message.id().toString(), Field.Store.YES));
+        doc.add(new StringField(GROUP, message.groupId().toString(), Field.Store.NO));
+        doc.add(new StringField(SENDER, message.senderId().toString(), Field.Store.YES));
+        doc.add(new StoredField(TYPE, message.messageType()));
+        doc.add(new LongPoint(TIMESTAMP, millis));
+        doc.add(new NumericDocValuesField(TIMESTAMP, millis));
+        doc.add(new StoredField(TIMESTAMP, millis));
+        doc.add(new Field(CONTENT, message.content(), CONTENT_FIELD));
+        doc.add(new SortedSetDocValuesFacetField(SENDER, message.senderId().toString()));
+        doc.add(new SortedSetDocValuesFacetField(MONTH, message.timestamp().format(MONTH_FORMAT)));
+        return facetsConfig.build(doc);
+    }
+
+    private long indexFromDatabase(String condition, Object... args) throws IOException {
+        long lastId = 0;
+        long count = 0;
+        while (true) {
+            Object[] params = new Object[args.length + 2];
+            System.arraycopy(args, 0, params, 0, args.length);
+            params[args.length] = lastId;
+            params[args.length + 1] = rebuildChunkSize;
+            List<IndexedMessage> rows = jdbcTemplate.query(
+                    SELECT_MESSAGES + "WHERE " + condition + " AND id > ? ORDER BY id LIMIT ?", ROW_MAPPER, params);
+            for (IndexedMessage row : rows) {
+                writer.updateDocument(idTerm(row.id()), toDocument(row));
+            }
+            count += rows.size();
+            if (rows.size() < rebuildChunkSize) {
+                return count;
+            }
+            lastId = rows.get(rows.size() - 1).id();
+        }
+    }
+
+    private Facets facetCounts(IndexSearcher searcher, FacetsCollector hits) throws IOException {
+        FacetState state = facetState(searcher.getIndexReader());
+        return state != null ? new SortedSetDocValuesFacetCounts(state.state(), hits) : null;
+    }
+
+    /**
+     * Facet state for the given reader. Normally already built by the refresh listener; a
+     * search that gets to a new reader first builds it itself.
+     */
+    private FacetState facetState(IndexReader reader) throws IOException {
+        FacetState state = facetState;
+        if (state == null || state.reader() != reader) {
+            try {
+                state = new FacetState(reader, new DefaultSortedSetDocValuesReaderState(reader, facetsConfig));
+            } catch (IllegalArgumentException e) {
+                // Nothing indexed yet, so there is no facet field
+                return null;
+            }
+            facetState = state;
+        }
+        return state;
+    }
+
+    private void loadFacetState() {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                facetState(searcher.getIndexReader());
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[ChatSearchIndex] Facet state load failed: " + e.getMessage());
+        }
+    }
+
+    private static List<LabelAndValue> topChildren(Facets facets, String dimension, int count) throws IOException {
+        if (facets == null) {
+            return List.of();
+        }
+        try {
+            FacetResult result = facets.getTopChildren(count, dimension);
+            return result != null ? List.of(result.labelValues) : List.of();
+        } catch (IllegalArgumentException e) {
+            // Dimension not present in this reader
+            return List.of();
+        }
+    }
+
+    /** Indexes messages stored recently by any node; see {@code sweep-interval-ms}. */
+    private void sweep() {
+        if (rebuilding.get()) {
+            return;
+        }
+        try {
+            LocalDateTime since = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(sweepLookbackMs));
+            indexFromDatabase("timestamp >= ?", Timestamp.valueOf(since));
+        } catch (IOException | RuntimeException e) {
+            indexFailures.increment();
+            System.err.println("[ChatSearchIndex] Sweep failed: " + e.getMessage());
+        }
+    }
+
+    // Package-private for tests, which cannot wait for the refresh timer
+    void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[ChatSearchIndex] Refresh failed: " + e.getMessage());
+        }
+    }
+
+    private synchronized void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                // Taken before the commit starts: everything indexed before this moment is in it
+                String committedAt = String.valueOf(System.currentTimeMillis());
+                writer.setLiveCommitData(rebuildInProgress
+                        ? Map.of(COMMITTED_AT, committedAt, REBUILD_IN_PROGRESS, "true").entrySet()
+                        : Map.of(COMMITTED_AT, committedAt).entrySet());
+                writer.commit();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[ChatSearchIndex] Commit failed: " + e.getMessage());
+        }
+    }
+
+    private boolean runInBackground(String name, IndexOperation operation) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                operation.run();
+            } catch (IOException | RuntimeException e) {
+                indexFailures.increment();
+                System.err.println("[ChatSearchIndex] " + name + " failed: " + e.getMessage());
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "chat-search-" + name);
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void afterCommit(IndexOperation operation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(operation);
+                }
+            });
+        } else {
+            apply(operation);
+        }
+    }
+
+    // The database is the source of truth: a failed index update never fails the write
+    private void apply(IndexOperation operation) {
+        try {
+            operation.run();
+        } catch (IOException | RuntimeException e) {
+            indexFailures.increment();
+            System.err.println("[ChatSearchIndex] Index update failed: " + e.getMessage());
+        }
+    }
+
+    private static Term idTerm(Long messageId) {
+        return new Term(ID, messageId.toString());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @FunctionalInterface
+    private interface IndexOperation {
+        void run() throws IOException;
+    }
+
+    private record IndexedMessage(Long id, Long groupId, Integer senderId, String content, String messageType,
+                                  LocalDateTime timestamp) {
+    }
+
+    private record FacetState(IndexReader reader, SortedSetDocValuesReaderState state) {
+    }
+}
@@ -0,0 +1,257 @@
+package com.studyGroup.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, fsync'd log of chat messages accepted by {@link ChatWritePipeline} but not yet
+ * persisted. A message is broadcast only after its journal entry is on disk, so a crash
+ * between broadcast and the database flush loses nothing: pending entries are replayed on
+ * the next start.
+ *
+ * Appends use group commit: writers add their entry and then wait for a shared
+ * {@code force}, which one of them performs for every entry written so far, so concurrent
+ * senders share one fsync instead of queueing behind one each.
+ *
+ * The log is split into segment files of about {@code segment-bytes}, named after the
+ * sequence number of their first entry. A segment is deleted once the pipeline has flushed
+ * every entry in it, so the journal stays small under steady traffic. Entries may be
+ * flushed out of sequence order (the queue is filled per group), so the journal keeps the
+ * set of unflushed sequence numbers and only drops what lies below the oldest of them.
+ */
+@Component
+public class ChatWriteJournal {
+
+    private static final String PREFIX = "pending-";
+    private static final String SUFFIX = ".log";
+
+    @Value("${chat.pipeline.journal-dir:./data/chat-journal}")
+    private String journalDir;
+
+    @Value("${chat.pipeline.journal-segment-bytes:67108864}")
+    private long segmentBytes;
+
+    private final ObjectMapper objectMapper;
+    private Path dir;
+
+    // Guarded by this: the segment being appended to, and the closed ones still holding unflushed entries
+    private FileChannel channel;
+    private Segment active;
+    private final Deque<Segment> closed = new ArrayDeque<>();
+    private final TreeSet<Long> unflushed = new TreeSet<>();
+    private long lastAppendedSeq;
+
+    // Held by the writer performing a force; forcedSeq is only read and written under it
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private long forcedSeq;
+
+    public ChatWriteJournal(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void open() {
+        try {
+            dir = Paths.get(journalDir).toAbsolutePath().normalize();
+            Files.createDirectories(dir);
+            // Entries left by a previous run are read by readPending() and then cleared
+            for (Path file : listSegments()) {
+                closed.add(new Segment(file, -1));
+            }
+            startSegment(1);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open chat write journal", e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Durably appends one entry and returns its sequence number. Returns once the entry,
+     * and every entry appended before it, has been forced to disk.
+     */
+    public long append(ChatWritePipeline.PendingMessage message) {
+        long seq;
+        try {
+            byte[] line = (objectMapper.writeValueAsString(message) + "\n").getBytes(StandardCharsets.UTF_8);
+            synchronized (this) {
+                if (channel.size() >= segmentBytes) {
+                    rollSegment();
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                seq = ++lastAppendedSeq;
+                unflushed.add(seq);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write chat message to journal", e);
+        }
+        awaitForced(seq);
+        return seq;
+    }
+
+    private void awaitForced(long seq) {
+        forceLock.lock();
+        try {
+            // A writer that forced while this one waited for the lock may already have covered it
+            if (forcedSeq >= seq) {
+                return;
+            }
+            long upTo;
+            FileChannel current;
+            synchronized (this) {
+                upTo = lastAppendedSeq;
+                current = channel;
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // Rolled meanwhile: the segment was forced before it was closed
+            }
+            forcedSeq = upTo;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write chat message to journal", e);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Called by the flusher once the entries {@code seqs} are committed or dead-lettered.
+     * Deletes the closed segments left with no unflushed entry, and empties the active one
+     * when every entry appended so far is flushed.
+     */
+    public synchronized void markFlushed(Collection<Long> seqs) {
+        unflushed.removeAll(seqs);
+        long flushedSeq = unflushed.isEmpty() ? lastAppendedSeq : unflushed.first() - 1;
+        try {
+            while (!closed.isEmpty() && closed.peekFirst().lastSeq() >= 0 && closed.peekFirst().lastSeq() <= flushedSeq) {
+                Files.deleteIfExists(closed.pollFirst().file());
+            }
+            if (closed.isEmpty() && flushedSeq == lastAppendedSeq && channel.size() > 0) {
+                channel.truncate(0);
+                channel.position(0);
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not truncate chat write journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hands entries left over from a previous run to {@code consumer}, oldest first, in
+     * chunks of at most {@code chunkSize}. Segments are streamed, so their size is not
+     * limited by memory. A torn last line (crash mid-write) is skipped.
+     */
+    public void readPending(int chunkSize, Consumer<List<ChatWritePipeline.PendingMessage>> consumer) {
+        List<Path> files;
+        synchronized (this) {
+            files = closed.stream().filter(s -> s.lastSeq() < 0).map(Segment::file).toList();
+        }
+        List<ChatWritePipeline.PendingMessage> chunk = new ArrayList<>(chunkSize);
+        for (Path file : files) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        chunk.add(objectMapper.readValue(line, ChatWritePipeline.PendingMessage.class));
+                    } catch (IOException e) {
+                        System.err.println("Skipping unreadable chat journal entry: " + e.getMessage());
+                        continue;
+                    }
+                    if (chunk.size() >= chunkSize) {
+                        consumer.accept(chunk);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read chat write journal " + file, e);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            consumer.accept(chunk);
+        }
+    }
+
+    /** Deletes the segments of a previous run once they have been replayed. */
+    public synchronized void clearPending() {
+        try {
+            while (!closed.isEmpty() && closed.peekFirst().lastSeq() < 0) {
+                Files.deleteIfExists(closed.pollFirst().file());
+            }
+        } catch (IOException e) {
+            System.err.println("Could not delete replayed chat journal: " + e.getMessage());
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        channel.force(false);
+        channel.close();
+        closed.addLast(new Segment(active.file(), lastAppendedSeq));
+        startSegment(lastAppendedSeq + 1);
+    }
+
+    private void startSegment(long firstSeq) throws IOException {
+        Path file = dir.resolve(PREFIX + String.format("%020d", firstSeq) + SUFFIX);
+        if (Files.exists(file)) {
+            // Same name as a previous run's segment that is still waiting to be replayed
+            file = dir.resolve(PREFIX + String.format("%020d", firstSeq) + "-" + System.currentTimeMillis() + SUFFIX);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        active = new Segment(file, -1);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        Path legacy = dir.resolve("pending.log");
+        if (Files.exists(legacy)) {
+            // Single-file journal of earlier versions; its entries predate every segment
+            files.add(legacy);
+        }
+        try (Stream<Path> listing = Files.list(dir)) {
+            listing.filter(f -> f.getFileName().toString().startsWith(PREFIX) && f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .forEach(files::add);
+        }
+        return files;
+    }
+
+    /** @param lastSeq sequence number of the segment's last entry; -1 for a previous run's segment */
+    private record Segment(Path file, long lastSeq) {
+    }
+}
@@ -0,0 +1,341 @@
+package com.studyGroup.backend.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
+import com.studyGroup.backend.dto.ChatMessageDTO;
+import com.studyGroup.backend.model.ChatDeadLetter;
+import com.studyGroup.backend.model.GroupMessage;
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.repository.ChatDeadLetterRepository;
+import com.studyGroup.backend.repository.GroupMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind path for chat messages sent over STOMP.
+ *
+ * The sender and group membership are already authorized on the STOMP session, so the
+ * inbound thread only takes an id from {@link PooledIdAllocator}, journals the message
+ * and returns the DTO to broadcast.
+ * A single flusher thread drains the queue and inserts messages and their
+ * {@code MessageReply} rows with JDBC batches. One FIFO queue and one flusher keep
+ * each group's messages in id order; the journal makes accepted messages durable
+ * until they are committed.
+ *
+ * A batch that still fails after {@code max-batch-attempts} is retried one message at a
+ * time, and messages that fail on their own go to {@code chat_dead_letters}, so one bad
+ * message cannot hold back every group.
+ *
+ * Reads are not read-your-writes: a message is broadcast as soon as it is journaled, but
+ * history, search and delete only see it once its batch is flushed, normally within
+ * {@code flush-interval-ms}, longer while the database is failing.
+ */
+@Service
+public class ChatWritePipeline {
+
+    private static final String INSERT_MESSAGE =
+            "INSERT INTO group_messages (id, group_id, sender_user_id, content, message_type, poll_id, timestamp) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_REPLY =
+            "INSERT INTO message_replies (reply_message_id, original_message_id, replier_user_id) VALUES (?, ?, ?)";
+
+    @Value("${chat.pipeline.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat.pipeline.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${chat.pipeline.max-batch-attempts:3}")
+    private int maxBatchAttempts;
+
+    @Value("${chat.pipeline.replay-chunk-size:1000}")
+    private int replayChunkSize;
+
+    private final PooledIdAllocator idAllocator;
+    private final ChatWriteJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final GroupMessageRepository messageRepository;
+    private final ChatSearchIndex searchIndex;
+    private final ChatDeadLetterRepository deadLetterRepository;
+
+    private final BlockingQueue<Queued> queue = new LinkedBlockingQueue<>();
+    private final Striped<Lock> groupLocks = Striped.lock(64);
+
+    // Recently accepted messages, so replies to messages still in the queue resolve without the DB
+    private final Cache<Long, ChatMessageDTO> recentMessages = CacheBuilder.newBuilder()
+            .maximumSize(20_000).expireAfterWrite(30, TimeUnit.MINUTES).build();
+
+    private final Timer flushTimer;
+    private final Counter flushedMessages;
+    private final Counter flushFailures;
+    private final Counter deadLetters;
+
+    private volatile boolean running = true;
+    private Thread flusher;
+
+    public ChatWritePipeline(PooledIdAllocator idAllocator, ChatWriteJournal journal, JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate, GroupMessageRepository messageRepository,
+                             ChatSearchIndex searchIndex, ChatDeadLetterRepository deadLetterRepository,
+                             MeterRegistry meterRegistry) {
+        this.idAllocator = idAllocator;
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.messageRepository = messageRepository;
+        this.searchIndex = searchIndex;
+        this.deadLetterRepository = deadLetterRepository;
+
+        Gauge.builder("chat.pipeline.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.flushTimer = Timer.builder("chat.pipeline.flush.latency").register(meterRegistry);
+        this.flushedMessages = Counter.builder("chat.pipeline.flushed.messages").register(meterRegistry);
+        this.flushFailures = Counter.builder("chat.pipeline.flush.failures").register(meterRegistry);
+        this.deadLetters = Counter.builder("chat.pipeline.dead_letters").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        replayJournal();
+        flusher = new Thread(this::flushLoop, "chat-write-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Accepts a message for persistence and hands the DTO to {@code publish} once the message
+     * is journaled; the database insert happens on the flusher thread. {@code publish} runs
+     * under the group's lock, so a group's messages are broadcast in id order.
+     * The caller must already have checked that {@code sender} is a member of the group.
+     */
+    public ChatMessageDTO submit(ChatMessageDTO chatMessage, User sender, Consumer<ChatMessageDTO> publish) {
+        Long groupId = chatMessage.getGroupId();
+        ChatMessageDTO original = chatMessage.getReplyToMessageId() != null
+                ? resolveMessage(chatMessage.getReplyToMessageId())
+                : null;
+
+        Lock lock = groupLocks.get(groupId);
+        lock.lock();
+        try {
+            PendingMessage pending = new PendingMessage(
+                    idAllocator.nextId(GroupMessage.class),
+                    groupId,
+                    sender.getId(),
+                    chatMessage.getContent(),
+                    chatMessage.getMessageType() != null ? chatMessage.getMessageType() : "TEXT",
+                    chatMessage.getTimestamp() != null ? chatMessage.getTimestamp() : LocalDateTime.now(),
+                    original != null ? original.getMessageId() : null);
+            long seq = journal.append(pending);
+            queue.add(new Queued(seq, pending));
+
+            ChatMessageDTO dto = new ChatMessageDTO();
+            dto.setGroupId(groupId);
+            dto.setMessageId(pending.id());
+            dto.setSenderId(pending.senderId());
+            dto.setSenderName(sender.getName());
+            dto.setContent(pending.content());
+            dto.setTimestamp(pending.timestamp());
+            dto.setMessageType(pending.messageType());
+            if (original != null) {
+                dto.setReplyToMessageId(original.getMessageId());
+                dto.setReplyToContent(original.getContent());
+                dto.setReplyToSenderName(original.getSenderName());
+            }
+            recentMessages.put(pending.id(), dto);
+            publish.accept(dto);
+            return dto;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private ChatMessageDTO resolveMessage(Long messageId) {
+        ChatMessageDTO cached = recentMessages.getIfPresent(messageId);
+        if (cached != null) {
+            return cached;
+        }
+        return transactionTemplate.execute(status -> messageRepository.findById(messageId).map(m -> {
+            ChatMessageDTO dto = new ChatMessageDTO();
+            dto.setMessageId(m.getId());
+            dto.setContent(m.getContent());
+            dto.setSenderName(m.getSender().getName());
+            return dto;
+        }).orElse(null));
+    }
+
+    private void flushLoop() {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        int attempts = 0;
+        while (running || !queue.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Queued first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    attempts = 0;
+                }
+                attempts++;
+                if (attempts > maxBatchAttempts) {
+                    flushOneByOne(batch);
+                } else {
+                    flush(batch);
+                }
+                journal.markFlushed(batch.stream().map(Queued::seq).collect(Collectors.toList()));
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Shutdown requested: loop condition drains what is left
+            } catch (RuntimeException e) {
+                // Keep the batch and retry; the journal still holds it if we never succeed
+                flushFailures.increment();
+                System.err.println("Chat write flush failed (attempt " + attempts + "), retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(Math.max(flushIntervalMs, 500));
+                } catch (InterruptedException ignored) {
+                    if (!running) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private void flush(List<Queued> batch) {
+        List<PendingMessage> messages = batch.stream().map(Queued::message).collect(Collectors.toList());
+        flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> insert(messages)));
+        flushedMessages.increment(messages.size());
+        index(messages);
+    }
+
+    /**
+     * Inserts each message in its own transaction and dead-letters the ones that still fail.
+     * Throws only when the dead letter cannot be written either (e.g. the database is down),
+     * so the batch is retried rather than dropped.
+     */
+    private void flushOneByOne(List<Queued> batch) {
+        for (Queued queued : batch) {
+            PendingMessage m = queued.message();
+            Integer present = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM group_messages WHERE id = ?", Integer.class, m.id());
+            if (present != null && present > 0) {
+                // Made it on an earlier pass of this loop
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(List.of(m)));
+                flushedMessages.increment();
+                index(List.of(m));
+            } catch (RuntimeException e) {
+                deadLetterRepository.save(new ChatDeadLetter(m.id(), m.groupId(), m.senderId(), m.content(),
+                        m.messageType(), m.timestamp(), m.replyToMessageId(), e.getMessage()));
+                deadLetters.increment();
+                System.err.println("[ChatWritePipeline] Message " + m.id() + " for group " + m.groupId()
+                        + " moved to chat_dead_letters: " + e.getMessage());
+            }
+        }
+    }
+
+    private void insert(List<PendingMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE, messages, messages.size(), (ps, m) -> {
+            ps.setLong(1, m.id());
+            ps.setLong(2, m.groupId());
+            ps.setInt(3, m.senderId());
+            ps.setString(4, m.content());
+            ps.setString(5, m.messageType());
+            ps.setObject(6, null);
+            ps.setTimestamp(7, Timestamp.valueOf(m.timestamp()));
+        });
+        List<PendingMessage> replies = messages.stream()
+                .filter(m -> m.replyToMessageId() != null)
+                .collect(Collectors.toList());
+        if (!replies.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_REPLY, replies, replies.size(), (ps, m) -> {
+                ps.setLong(1, m.id());
+                ps.setLong(2, m.replyToMessageId());
+                ps.setInt(3, m.senderId());
+            });
+        }
+    }
+
+    private void index(List<PendingMessage> messages) {
+        for (PendingMessage m : messages) {
+            searchIndex.index(m.id(), m.groupId(), m.senderId(), m.content(), m.messageType(), m.timestamp());
+        }
+    }
+
+    /**
+     * Re-inserts messages journaled by a previous run that never reached the database, a
+     * chunk at a time. Ids were assigned up front, so rows that did make it are recognised
+     * and skipped.
+     */
+    private void replayJournal() {
+        int[] replayed = {0};
+        journal.readPending(replayChunkSize, pending -> {
+            List<Long> ids = pending.stream().map(PendingMessage::id).collect(Collectors.toList());
+            String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(","));
+            Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT id FROM group_messages WHERE id IN (" + placeholders + ")", Long.class, ids.toArray()));
+            List<PendingMessage> missing = pending.stream()
+                    .filter(m -> !existing.contains(m.id()))
+                    .collect(Collectors.toList());
+            if (missing.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(missing));
+                index(missing);
+            } catch (RuntimeException e) {
+                flushOneByOne(missing.stream().map(m -> new Queued(0, m)).collect(Collectors.toList()));
+            }
+            replayed[0] += missing.size();
+        });
+        if (replayed[0] > 0) {
+            System.out.println("[ChatWritePipeline] Replayed " + replayed[0] + " journaled message(s)");
+        }
+        journal.clearPending();
+    }
+
+    /**
+     * A message accepted by the pipeline; also the journal record format.
+     */
+    public record PendingMessage(Long id, Long groupId, Integer senderId, String content, String messageType,
+                                 LocalDateTime timestamp, Long replyToMessageId) {
+    }
+
+    private record Queued(long seq, PendingMessage message) {
+    }
+}
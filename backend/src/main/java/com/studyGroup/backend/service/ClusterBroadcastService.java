@@ -0,0 +1,100 @@
+package com.studyGroup.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import com.studyGroup.backend.config.OutboundFlowControlInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Single entry point for server-initiated STOMP broadcasts (group topics and per-user
+ * notification queues).
+ *
+ * In {@code simple} broker mode every frame is delivered to this node's in-process broker
+ * and then handed to the configured {@link FanoutTransport} so subscribers connected to
+ * other nodes receive it too. In {@code relay} mode the external broker already fans out
+ * to every node, so frames are only sent once through the relay.
+ *
+ * Non-critical frames (e.g. live vote counts) go through the {@code Coalescible} variants:
+ * they carry a coalesce key so a backed-up session gets only the latest frame per key.
+ */
+@Service
+public class ClusterBroadcastService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final FanoutTransport fanoutTransport;
+
+    @Value("${app.node-id:#{T(java.util.UUID).randomUUID().toString()}}")
+    private String nodeId;
+
+    @Value("${app.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    public ClusterBroadcastService(SimpMessagingTemplate messagingTemplate, FanoutTransport fanoutTransport) {
+        this.messagingTemplate = messagingTemplate;
+        this.fanoutTransport = fanoutTransport;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (isFanoutEnabled()) {
+            fanoutTransport.subscribe(nodeId, this::deliverFromPeer);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (isFanoutEnabled()) {
+            fanoutTransport.unsubscribe(nodeId);
+        }
+    }
+
+    public void broadcast(String destination, Object payload) {
+        send(destination, payload, null);
+    }
+
+    public void broadcastToGroup(Long groupId, Object payload) {
+        broadcast("/topic/group/" + groupId, payload);
+    }
+
+    public void broadcastCoalescible(String destination, Object payload, String coalesceKey) {
+        send(destination, payload, coalesceKey);
+    }
+
+    public void broadcastToGroupCoalescible(Long groupId, Object payload, String coalesceKey) {
+        broadcastCoalescible("/topic/group/" + groupId, payload, coalesceKey);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void send(String destination, Object payload, String coalesceKey) {
+        deliverLocally(destination, payload, coalesceKey);
+        if (isFanoutEnabled()) {
+            fanoutTransport.publish(new FanoutTransport.Envelope(nodeId, destination, payload, coalesceKey,
+                    System.nanoTime()));
+        }
+    }
+
+    private void deliverFromPeer(FanoutTransport.Envelope envelope) {
+        deliverLocally(envelope.destination(), envelope.payload(), envelope.coalesceKey());
+    }
+
+    private void deliverLocally(String destination, Object payload, String coalesceKey) {
+        if (coalesceKey == null) {
+            messagingTemplate.convertAndSend(destination, payload);
+        } else {
+            // Plain headers become native STOMP headers and are copied onto each subscriber's frame
+            messagingTemplate.convertAndSend(destination, payload,
+                    Map.of(OutboundFlowControlInterceptor.COALESCE_KEY_HEADER, coalesceKey));
+        }
+    }
+
+    private boolean isFanoutEnabled() {
+        return !"relay".equalsIgnoreCase(brokerMode);
+    }
+}
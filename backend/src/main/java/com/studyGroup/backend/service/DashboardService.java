@@ -1,14 +1,11 @@
 package com.studyGroup.backend.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.studyGroup.backend.dto.DashboardDTO;
 import com.studyGroup.backend.dto.GroupDTO;
 import com.studyGroup.backend.dto.PeerUserDTO;
 import com.studyGroup.backend.dto.SuggestedPeerDTO;
-import com.studyGroup.backend.model.Profile;
+import com.studyGroup.backend.dto.SuggestedPeerPageDTO;
 import com.studyGroup.backend.model.User;
-import com.studyGroup.backend.repository.ProfileRepository;
 import com.studyGroup.backend.repository.UsersRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,79 +13,69 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class DashboardService {
 
-    @Autowired
-    private GroupService groupService;
+    // Peers embedded in the dashboard payload; the full ranked list is paged via getSuggestedPeers
+    private static final int DASHBOARD_PEER_LIMIT = 50;
+    private static final int MAX_PEER_PAGE_SIZE = 100;
 
     @Autowired
-    private ProfileRepository profileRepository;
+    private GroupService groupService;
 
     @Autowired
     private UsersRepository usersRepository;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private EnrollmentIndex enrollmentIndex;
 
     public DashboardDTO getDashboardData(User currentUser) throws IOException {
 
         List<GroupDTO> joinedGroups = groupService.findGroupsByUserId(currentUser.getId());
 
-        List<SuggestedPeerDTO> suggestedPeers = getSuggestedPeers(currentUser);
+        SuggestedPeerPageDTO suggestedPeers = getSuggestedPeers(currentUser, 0, DASHBOARD_PEER_LIMIT);
 
-        Profile currentUserProfile = profileRepository.findByEmail(currentUser.getEmail())
-                .orElse(new Profile());
-        Set<String> enrolledCourseIds = getEnrolledCourseIdsAsSet(currentUserProfile);
+        int enrolledCoursesCount = enrollmentIndex.getCourseIds(currentUser.getId()).size();
 
-        return new DashboardDTO(joinedGroups, suggestedPeers, enrolledCourseIds.size());
+        DashboardDTO dashboard = new DashboardDTO(joinedGroups, suggestedPeers.getPeers(), enrolledCoursesCount);
+        dashboard.setSuggestedPeersTotal(suggestedPeers.getTotal());
+        return dashboard;
     }
 
 
-    private List<SuggestedPeerDTO> getSuggestedPeers(User currentUser) throws IOException {
+    /**
+     * Peers sharing at least one course with the user, most shared courses first. Ranking
+     * comes from the in-memory {@link EnrollmentIndex}; only the users on the requested page
+     * are loaded, in one query.
+     */
+    public SuggestedPeerPageDTO getSuggestedPeers(User currentUser, int offset, int limit) {
+        int pageOffset = Math.max(0, offset);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PEER_PAGE_SIZE));
 
-        Profile currentUserProfile = profileRepository.findByEmail(currentUser.getEmail())
-                .orElseThrow(() -> new RuntimeException("Current user profile not found."));
-        Set<String> currentUserCourses = getEnrolledCourseIdsAsSet(currentUserProfile);
-
-        if (currentUserCourses.isEmpty()) {
-            return Collections.emptyList();
+        EnrollmentIndex.PeerMatches matches = enrollmentIndex.findPeers(currentUser.getId(), pageOffset, pageSize);
+        if (matches.page().isEmpty()) {
+            return new SuggestedPeerPageDTO(Collections.emptyList(), matches.total(), false);
         }
 
-        List<SuggestedPeerDTO> suggestions = new ArrayList<>();
-
-        List<User> allOtherUsers = usersRepository.findAll().stream()
-                .filter(user -> !user.getId().equals(currentUser.getId()))
+        List<Integer> peerIds = matches.page().stream()
+                .map(EnrollmentIndex.PeerMatch::userId)
                 .collect(Collectors.toList());
+        Map<Integer, User> usersById = usersRepository.findAllById(peerIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
 
-        for (User otherUser : allOtherUsers) {
-            Optional<Profile> otherUserProfileOpt = profileRepository.findByEmail(otherUser.getEmail());
-            if (otherUserProfileOpt.isPresent()) {
-                Set<String> otherUserCourses = getEnrolledCourseIdsAsSet(otherUserProfileOpt.get());
-
-                Set<String> commonCourses = new HashSet<>(currentUserCourses);
-                commonCourses.retainAll(otherUserCourses);
-
-                if (!commonCourses.isEmpty()) {
-                    
-                    suggestions.add(new SuggestedPeerDTO(PeerUserDTO.fromEntity(otherUser), commonCourses.size(), commonCourses));
-                }
+        List<SuggestedPeerDTO> suggestions = new ArrayList<>();
+        for (EnrollmentIndex.PeerMatch match : matches.page()) {
+            User peer = usersById.get(match.userId());
+            if (peer != null) {
+                suggestions.add(new SuggestedPeerDTO(PeerUserDTO.fromEntity(peer),
+                        match.commonCourseIds().size(), match.commonCourseIds()));
             }
         }
 
-        suggestions.sort(Comparator.comparingInt(SuggestedPeerDTO::getCommonCoursesCount).reversed());
-
-        return suggestions;
-    }
-
-
-    private Set<String> getEnrolledCourseIdsAsSet(Profile profile) throws IOException {
-        String enrolledCoursesJson = profile.getEnrolledCourseIds();
-        if (enrolledCoursesJson == null || enrolledCoursesJson.isEmpty() || enrolledCoursesJson.equals("[]")) {
-            return new HashSet<>();
-        }
-        return objectMapper.readValue(enrolledCoursesJson, new TypeReference<>() {});
+        boolean hasMore = pageOffset + matches.page().size() < matches.total();
+        return new SuggestedPeerPageDTO(suggestions, matches.total(), hasMore);
     }
 }
-
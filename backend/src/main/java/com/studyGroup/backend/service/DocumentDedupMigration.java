@@ -0,0 +1,82 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.model.DataMigration;
+import com.studyGroup.backend.model.MessageDocument;
+import com.studyGroup.backend.repository.DataMigrationRepository;
+import com.studyGroup.backend.repository.MessageDocumentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Deduplicates documents uploaded before content-addressed storage. Each legacy file is
+ * hashed and moved into the blob store, or deleted when an identical blob already exists,
+ * and its document is repointed to the blob's storage key. Every document is its own
+ * transaction, so one unreadable file does not hold back the rest; failed documents are
+ * retried on the next start. Once a run leaves nothing behind it is recorded in
+ * {@link DataMigration}, and later starts skip the scan.
+ */
+@Service
+public class DocumentDedupMigration {
+
+    private static final String MIGRATION = "document-dedup";
+
+    @Value("${documents.dedup.chunk-size:200}")
+    private int chunkSize;
+
+    @Autowired
+    private MessageDocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DataMigrationRepository migrationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateAll() {
+        if (migrationRepository.existsById(MIGRATION)) {
+            return;
+        }
+        Integer converted = transactionTemplate.execute(status -> documentRepository.convertBlobPathsToKeys());
+        if (converted != null && converted > 0) {
+            System.out.println("[DocumentDedupMigration] Switched " + converted + " blob document(s) to storage keys");
+        }
+
+        long afterId = 0;
+        int migrated = 0;
+        int failed = 0;
+        while (true) {
+            List<MessageDocument> chunk = documentRepository.findLegacyFilesAfter(afterId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            for (MessageDocument document : chunk) {
+                afterId = document.getId();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> documentService.migrateToBlob(document));
+                    migrated++;
+                } catch (RuntimeException e) {
+                    failed++;
+                    System.err.println("[DocumentDedupMigration] Document " + document.getId() + " not migrated: " + e.getMessage());
+                }
+            }
+        }
+        if (migrated > 0 || failed > 0) {
+            System.out.println("[DocumentDedupMigration] Moved " + migrated + " document(s) into the blob store, "
+                    + failed + " failed");
+        }
+        if (failed == 0) {
+            migrationRepository.save(new DataMigration(MIGRATION));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.model.MessageDocument;
+import com.studyGroup.backend.repository.MessageDocumentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the registered {@link DocumentProcessingStep}s for new uploads on a bounded worker
+ * pool, so the upload request returns as soon as its bytes and rows are committed.
+ *
+ * Work is queued only after commit. When the queue is full the document is skipped and
+ * counted in {@code documents.postprocess.rejected}; the upload itself is unaffected.
+ */
+@Component
+public class DocumentPostProcessor {
+
+    private final List<DocumentProcessingStep> steps;
+    private final MessageDocumentRepository documentRepository;
+    private final DocumentService documentService;
+    private final ThreadPoolExecutor workers;
+
+    private final Timer processTimer;
+    private final Counter failures;
+    private final Counter rejected;
+
+    // Lazy: DocumentService submits uploads here, so it needs this processor first
+    public DocumentPostProcessor(List<DocumentProcessingStep> steps, MessageDocumentRepository documentRepository,
+                                 @Lazy DocumentService documentService, MeterRegistry meterRegistry,
+                                 @Value("${documents.postprocess.workers:2}") int workerCount,
+                                 @Value("${documents.postprocess.queue-capacity:1000}") int queueCapacity) {
+        this.steps = steps;
+        this.documentRepository = documentRepository;
+        this.documentService = documentService;
+
+        this.processTimer = Timer.builder("documents.postprocess.latency").register(meterRegistry);
+        this.failures = Counter.builder("documents.postprocess.failures").register(meterRegistry);
+        this.rejected = Counter.builder("documents.postprocess.rejected").register(meterRegistry);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "document-postprocess-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, (task, executor) -> rejected.increment());
+
+        Gauge.builder("documents.postprocess.queue.depth", workers, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public void submit(Long documentId) {
+        if (steps.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    workers.execute(() -> process(documentId));
+                }
+            });
+        } else {
+            workers.execute(() -> process(documentId));
+        }
+    }
+
+    private void process(Long documentId) {
+        MessageDocument document = documentRepository.findById(documentId).orElse(null);
+        if (document == null) {
+            // Deleted before its turn came
+            return;
+        }
+        // Usually local, but an upload of bytes already in the object tier is only stored there
+        Resource content;
+        try {
+            content = documentService.loadDocument(document);
+        } catch (RuntimeException e) {
+            failures.increment();
+            System.err.println("[DocumentPostProcessor] Document " + documentId + " not readable: " + e.getMessage());
+            return;
+        }
+        processTimer.record(() -> {
+            for (DocumentProcessingStep step : steps) {
+                try {
+                    step.process(document, content);
+                } catch (Exception e) {
+                    failures.increment();
+                    System.err.println("[DocumentPostProcessor] " + step.getClass().getSimpleName()
+                            + " failed for document " + documentId + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+}
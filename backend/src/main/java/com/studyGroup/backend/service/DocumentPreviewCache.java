@@ -0,0 +1,125 @@
+package com.studyGroup.backend.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Preview images on disk, capped at {@code cache-max-bytes} and evicted least recently
+ * used first. The index is an in-memory Guava cache weighted by file size whose removal
+ * listener deletes the file; it is rebuilt from the directory at startup, oldest files
+ * first. Evicted previews are rendered again on demand by {@link DocumentPreviewService}.
+ */
+@Component
+public class DocumentPreviewCache {
+
+    private static final String SUFFIX = ".jpg";
+
+    private final Path dir;
+    // A single segment keeps eviction in exact LRU order across all keys
+    private final Cache<String, Integer> index;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public DocumentPreviewCache(MeterRegistry meterRegistry,
+                                @Value("${documents.preview.cache-dir:${file.upload-dir}/previews}") String dir,
+                                @Value("${documents.preview.cache-max-bytes:268435456}") long maxBytes) {
+        this.dir = Paths.get(dir);
+        this.index = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(maxBytes)
+                .weigher((String key, Integer size) -> size)
+                .<String, Integer>removalListener(notification -> {
+                    if (notification.getCause() != RemovalCause.REPLACED) {
+                        deleteQuietly(file(notification.getKey()));
+                    }
+                })
+                .build();
+        this.hits = Counter.builder("documents.preview.cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("documents.preview.cache.misses").register(meterRegistry);
+        Gauge.builder("documents.preview.cache.entries", index, Cache::size).register(meterRegistry);
+        load();
+    }
+
+    /** The cached preview, or null. Counts as a use for eviction order. */
+    public Path get(String key) {
+        if (index.getIfPresent(key) == null) {
+            misses.increment();
+            return null;
+        }
+        Path file = file(key);
+        if (!Files.exists(file)) {
+            index.invalidate(key);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return file;
+    }
+
+    public Path put(String key, byte[] image) throws IOException {
+        Path file = file(key);
+        Path temp = Files.createTempFile(dir, "preview-", ".tmp");
+        try {
+            Files.write(temp, image);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        index.put(key, image.length);
+        return file;
+    }
+
+    private void load() {
+        try {
+            Files.createDirectories(dir);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(dir)) {
+                files = listing.filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+                        .sorted(Comparator.comparing(DocumentPreviewCache::lastModified))
+                        .toList();
+            }
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                index.put(name.substring(0, name.length() - SUFFIX.length()), (int) Files.size(file));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open preview cache " + dir, e);
+        }
+    }
+
+    private Path file(String key) {
+        return dir.resolve(key + SUFFIX);
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("[DocumentPreviewCache] Could not delete " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.studyGroup.backend.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.studyGroup.backend.model.MessageDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Thumbnails for shared documents: a downscaled JPEG of an image, or of the first page of
+ * a PDF, no larger than {@code max-size} pixels on its long side.
+ *
+ * Rendered after upload as a {@link DocumentProcessingStep} and kept in the
+ * {@link DocumentPreviewCache} under the content hash, so identical files share one
+ * preview. A preview evicted from the cache is rendered again when next requested, at
+ * most {@code max-concurrent-renders} at a time; files that cannot be rendered are
+ * remembered for an hour rather than retried on every list view.
+ */
+@Component
+public class DocumentPreviewService implements DocumentProcessingStep {
+
+    private static final String PDF = "application/pdf";
+    private static final Set<String> IMAGE_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/bmp");
+
+    private final DocumentPreviewCache cache;
+    private final int maxSize;
+    private final long maxSourceBytes;
+    private final long maxSourcePixels;
+    private final float jpegQuality;
+    private final Semaphore onDemandRenders;
+
+    private final Cache<String, Boolean> unrenderable = CacheBuilder.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(1, TimeUnit.HOURS)
+            .build();
+
+    private final Timer renderTimer;
+    private final Counter failures;
+
+    public DocumentPreviewService(DocumentPreviewCache cache, MeterRegistry meterRegistry,
+                                  @Value("${documents.preview.max-size:320}") int maxSize,
+                                  @Value("${documents.preview.max-source-bytes:52428800}") long maxSourceBytes,
+                                  @Value("${documents.preview.max-source-pixels:100000000}") long maxSourcePixels,
+                                  @Value("${documents.preview.jpeg-quality:0.8}") float jpegQuality,
+                                  @Value("${documents.preview.max-concurrent-renders:2}") int maxConcurrentRenders) {
+        this.cache = cache;
+        this.maxSize = maxSize;
+        this.maxSourceBytes = maxSourceBytes;
+        this.maxSourcePixels = maxSourcePixels;
+        this.jpegQuality = jpegQuality;
+        this.onDemandRenders = new Semaphore(maxConcurrentRenders);
+        this.renderTimer = Timer.builder("documents.preview.render").register(meterRegistry);
+        this.failures = Counter.builder("documents.preview.failures").register(meterRegistry);
+    }
+
+    public boolean supports(MessageDocument document) {
+        String type = document.getFileType();
+        return type != null && (PDF.equals(type) || IMAGE_TYPES.contains(type))
+                && document.getFileSize() != null && document.getFileSize() <= maxSourceBytes;
+    }
+
+    @Override
+    public void process(MessageDocument document, Resource content) throws IOException {
+        if (supports(document) && cache.get(document.getContentHash()) == null) {
+            render(document, content);
+        }
+    }
+
+    /**
+     * The document's preview, rendered from {@code source} if it is not cached. Null when the
+     * document has no preview.
+     *
+     * @throws PreviewBusyException when too many previews are already being rendered
+     */
+    public Path getPreview(MessageDocument document, Supplier<Resource> source) throws IOException {
+        if (!supports(document)) {
+            return null;
+        }
+        String key = document.getContentHash();
+        Path cached = cache.get(key);
+        if (cached != null || unrenderable.getIfPresent(key) != null) {
+            return cached;
+        }
+        try {
+            if (!onDemandRenders.tryAcquire(5, TimeUnit.SECONDS)) {
+                throw new PreviewBusyException("Preview rendering is busy");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PreviewBusyException("Interrupted while waiting to render a preview", e);
+        }
+        try {
+            // Another request may have rendered it while this one waited
+            cached = cache.get(key);
+            return cached != null ? cached : render(document, source.get());
+        } finally {
+            onDemandRenders.release();
+        }
+    }
+
+    private Path render(MessageDocument document, Resource source) throws IOException {
+        String key = document.getContentHash();
+        long start = System.nanoTime();
+        try {
+            BufferedImage image = PDF.equals(document.getFileType()) ? renderFirstPage(source) : decodeImage(source);
+            if (image == null) {
+                unrenderable.put(key, Boolean.TRUE);
+                return null;
+            }
+            return cache.put(key, encodeJpeg(scale(image)));
+        } catch (IOException | RuntimeException e) {
+            unrenderable.put(key, Boolean.TRUE);
+            failures.increment();
+            throw e;
+        } finally {
+            renderTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private BufferedImage renderFirstPage(Resource source) throws IOException {
+        try (PDDocument pdf = source.isFile() ? Loader.loadPDF(source.getFile()) : Loader.loadPDF(source.getContentAsByteArray())) {
+            if (pdf.getNumberOfPages() == 0) {
+                return null;
+            }
+            PDRectangle box = pdf.getPage(0).getCropBox();
+            // Render straight at thumbnail scale (1 unit = 1/72 inch) instead of at print resolution
+            float scale = maxSize / Math.max(box.getWidth(), box.getHeight());
+            return new PDFRenderer(pdf).renderImage(0, scale, ImageType.RGB);
+        }
+    }
+
+    private BufferedImage decodeImage(Resource source) throws IOException {
+        try (InputStream raw = source.getInputStream();
+             ImageInputStream in = ImageIO.createImageInputStream(raw)) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    return null;
+                }
+                // Decode only every n-th pixel: plenty for a thumbnail, and a fraction of the memory for photos
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (maxSize * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage image) {
+        double factor = Math.min(1.0, (double) maxSize / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * factor));
+
+        // JPEG has no alpha: transparent areas become white
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
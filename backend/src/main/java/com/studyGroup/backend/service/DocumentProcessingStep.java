@@ -0,0 +1,18 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.model.MessageDocument;
+import org.springframework.core.io.Resource;
+
+/**
+ * One unit of background work run by {@link DocumentPostProcessor} after an upload has
+ * committed (e.g. text extraction, previews). Implementations are Spring beans and are
+ * picked up automatically; a failing step does not stop the others.
+ */
+public interface DocumentProcessingStep {
+
+    /**
+     * @param document the committed document
+     * @param content  its stored bytes, from whichever storage tier holds them (shared blob; read only)
+     */
+    void process(MessageDocument document, Resource content) throws Exception;
+}
@@ -0,0 +1,84 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.model.MessageDocument;
+import com.studyGroup.backend.repository.MessageDocumentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Fills the {@link DocumentSearchIndex} from the documents already stored, e.g. on the
+ * first start with document search or after the index directory was removed. Runs on its
+ * own thread so startup is not held back; uploads arriving meanwhile are indexed as usual.
+ *
+ * Progress is committed with the index after every chunk, so a backfill cut short by a
+ * restart resumes after the last committed chunk, and the backfill runs until the index
+ * records it as complete, even when uploads have already been indexed. Documents whose
+ * text cannot be read are indexed by file name.
+ */
+@Service
+public class DocumentSearchBackfill {
+
+    @Value("${documents.search.backfill-chunk-size:100}")
+    private int chunkSize;
+
+    @Autowired
+    private MessageDocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentTextExtractor textExtractor;
+
+    @Autowired
+    private DocumentSearchIndex searchIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfIncomplete() {
+        if (searchIndex.isBackfillComplete()) {
+            return;
+        }
+        Thread thread = new Thread(this::backfill, "document-search-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void backfill() {
+        long afterId = searchIndex.getBackfilledUpTo();
+        int indexed = 0;
+        int failed = 0;
+        try {
+            while (true) {
+                List<MessageDocument> chunk = documentRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                for (MessageDocument document : chunk) {
+                    afterId = document.getId();
+                    try {
+                        searchIndex.add(document, textExtractor.extractOrEmpty(document, () -> documentService.loadDocument(document)));
+                        indexed++;
+                    } catch (IOException | RuntimeException e) {
+                        failed++;
+                        System.err.println("[DocumentSearchBackfill] Document " + document.getId() + " not indexed: " + e.getMessage());
+                    }
+                }
+                searchIndex.recordBackfillProgress(afterId, false);
+            }
+            searchIndex.recordBackfillProgress(afterId, true);
+        } catch (IOException | RuntimeException e) {
+            // Resumes from the last recorded chunk on the next start
+            System.err.println("[DocumentSearchBackfill] Stopped after document " + afterId + ": " + e.getMessage());
+        }
+        if (indexed > 0 || failed > 0) {
+            System.out.println("[DocumentSearchBackfill] Indexed " + indexed + " document(s), " + failed + " failed");
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.model.MessageDocument;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded Lucene index over the text of uploaded documents, one entry per
+ * {@link MessageDocument}, under {@code documents.search.index-dir}.
+ *
+ * Entries are added by {@link DocumentTextExtractor} on the post-processing pool and
+ * removed when the document is deleted. Uploads are rare next to chat messages, so every
+ * change is committed and made searchable right away rather than batched. Ids deleted in
+ * the last hour are remembered, so an extraction that finishes after its document was
+ * deleted does not add the entry back.
+ *
+ * The commit user data records how far {@link DocumentSearchBackfill} has got, so a
+ * backfill cut short resumes where it stopped.
+ *
+ * Metrics: documents.search.latency, documents.search.index.docs.
+ */
+@Service
+public class DocumentSearchIndex {
+
+    private static final String ID = "id";
+    private static final String GROUP = "group";
+    private static final String FILENAME = "filename";
+    private static final String CONTENT = "content";
+    private static final String BACKFILLED_UP_TO = "backfilledUpTo";
+    private static final String BACKFILL_COMPLETE = "backfillComplete";
+
+    // Offsets in the postings let the highlighter find matches without re-analyzing the stored text
+    private static final FieldType CONTENT_FIELD = new FieldType(TextField.TYPE_STORED);
+    static {
+        CONTENT_FIELD.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        CONTENT_FIELD.freeze();
+    }
+
+    private final Path indexDir;
+    private final MeterRegistry meterRegistry;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Timer searchTimer;
+    private final Cache<Long, Boolean> recentlyDeleted = CacheBuilder.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(1, TimeUnit.HOURS)
+            .build();
+    // Carried into every commit; guarded by this
+    private final Map<String, String> commitData = new HashMap<>();
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    public DocumentSearchIndex(MeterRegistry meterRegistry,
+                               @Value("${documents.search.index-dir:./data/document-index}") String indexDir) {
+        this.indexDir = Paths.get(indexDir);
+        this.meterRegistry = meterRegistry;
+        this.searchTimer = Timer.builder("documents.search.latency").publishPercentiles(0.5, 0.99).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(indexDir);
+        directory = FSDirectory.open(indexDir);
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+        for (Map.Entry<String, String> entry : writer.getLiveCommitData()) {
+            commitData.put(entry.getKey(), entry.getValue());
+        }
+        Gauge.builder("documents.search.index.docs", this, DocumentSearchIndex::getIndexedCount).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    public int getIndexedCount() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /** Adds or replaces the document's entry; {@code text} may be empty, leaving only the file name searchable. */
+    public void index(MessageDocument document, String text) throws IOException {
+        add(document, text);
+        publish();
+    }
+
+    /** Like {@link #index} without committing; the next commit or {@link #recordBackfillProgress} persists it. */
+    public synchronized void add(MessageDocument document, String text) throws IOException {
+        if (recentlyDeleted.getIfPresent(document.getId()) != null) {
+            return;
+        }
+        Document doc = new Document();
+        doc.add(new StringField(ID, document.getId().toString(), Field.Store.YES));
+        doc.add(new StringField(GROUP, document.getMessage().getGroup().getGroupId().toString(), Field.Store.NO));
+        doc.add(new TextField(FILENAME, document.getOriginalFilename(), Field.Store.NO));
+        doc.add(new Field(CONTENT, text, CONTENT_FIELD));
+        writer.updateDocument(idTerm(document.getId()), doc);
+    }
+
+    /** Highest document id the backfill has indexed up to, or 0 before the first backfill. */
+    public synchronized long getBackfilledUpTo() {
+        return Long.parseLong(commitData.getOrDefault(BACKFILLED_UP_TO, "0"));
+    }
+
+    public synchronized boolean isBackfillComplete() {
+        return Boolean.parseBoolean(commitData.get(BACKFILL_COMPLETE));
+    }
+
+    /** Commits what the backfill has added so far together with its position. */
+    public synchronized void recordBackfillProgress(long upToId, boolean complete) throws IOException {
+        commitData.put(BACKFILLED_UP_TO, Long.toString(upToId));
+        commitData.put(BACKFILL_COMPLETE, Boolean.toString(complete));
+        writer.setLiveCommitData(Map.copyOf(commitData).entrySet());
+        publish();
+    }
+
+    /** Removes the document's entry once the surrounding transaction commits. */
+    public void delete(Long documentId) {
+        Runnable delete = () -> {
+            try {
+                synchronized (this) {
+                    recentlyDeleted.put(documentId, Boolean.TRUE);
+                    writer.deleteDocuments(idTerm(documentId));
+                }
+                publish();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[DocumentSearchIndex] Could not remove document " + documentId + ": " + e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    delete.run();
+                }
+            });
+        } else {
+            delete.run();
+        }
+    }
+
+    /**
+     * Searches one group's documents. All words of {@code text} must appear in the
+     * document's text or in its file name; file name matches rank higher.
+     */
+    public SearchResult search(Long groupId, String text, int limit) throws IOException {
+        QueryBuilder builder = new QueryBuilder(analyzer);
+        Query contentQuery = builder.createBooleanQuery(CONTENT, text, BooleanClause.Occur.MUST);
+        Query filenameQuery = builder.createBooleanQuery(FILENAME, text, BooleanClause.Occur.MUST);
+        if (contentQuery == null || filenameQuery == null) {
+            return new SearchResult(0, List.of());
+        }
+        Query query = new BooleanQuery.Builder()
+                .add(new BooleanQuery.Builder()
+                        .add(contentQuery, BooleanClause.Occur.SHOULD)
+                        .add(new BoostQuery(filenameQuery, 2f), BooleanClause.Occur.SHOULD)
+                        .build(), BooleanClause.Occur.MUST)
+                .add(new TermQuery(new Term(GROUP, groupId.toString())), BooleanClause.Occur.FILTER)
+                .build();
+
+        long start = System.nanoTime();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs top = searcher.search(query, limit);
+            String[] snippets = UnifiedHighlighter.builder(searcher, analyzer)
+                    .withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", "... ", true))
+                    .build()
+                    .highlight(CONTENT, contentQuery, top);
+            StoredFields storedFields = searcher.storedFields();
+            List<Hit> hits = new ArrayList<>(top.scoreDocs.length);
+            for (int i = 0; i < top.scoreDocs.length; i++) {
+                Document doc = storedFields.document(top.scoreDocs[i].doc);
+                hits.add(new Hit(Long.valueOf(doc.get(ID)), snippets[i]));
+            }
+            return new SearchResult(top.totalHits.value, hits);
+        } finally {
+            searcherManager.release(searcher);
+            searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private synchronized void publish() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    private static Term idTerm(Long documentId) {
+        return new Term(ID, documentId.toString());
+    }
+
+    /** @param snippet matching passage, HTML-escaped apart from the {@code <mark>} tags; null without text */
+    public record Hit(Long documentId, String snippet) {
+    }
+
+    public record SearchResult(long totalHits, List<Hit> hits) {
+    }
+}
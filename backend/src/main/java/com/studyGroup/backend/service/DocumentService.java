@@ -1,86 +1,336 @@
 package com.studyGroup.backend.service;
 
+import com.studyGroup.backend.model.DocumentBlob;
 import com.studyGroup.backend.model.MessageDocument;
 import com.studyGroup.backend.model.GroupMessage;
+import com.studyGroup.backend.model.GroupStorageUsage;
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.repository.DocumentBlobRepository;
+import com.studyGroup.backend.repository.GroupStorageUsageRepository;
 import com.studyGroup.backend.repository.MessageDocumentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Document storage is content-addressed: uploads are hashed while they stream to a temp
+ * file and stored once per digest, with the hex SHA-256 as storage key. Documents with the
+ * same bytes share the blob through a reference count in {@link DocumentBlobRepository}.
+ * New blobs go to {@link LocalDocumentStore}; {@link DocumentTieringService} moves them to
+ * {@link ObjectDocumentStore} and back as they go cold and warm again.
+ */
 @Service
 public class DocumentService {
 
     @Value("${file.upload-dir}")
     private String uploadDir;
 
+    @Value("${documents.upload.max-file-size:104857600}")
+    private long maxFileSize;
+
+    @Value("${documents.upload.group-quota-bytes:1073741824}")
+    private long groupQuotaBytes;
+
+    @Autowired
+    private LocalDocumentStore localStore;
+
+    @Autowired
+    private ObjectDocumentStore objectStore;
+
     @Autowired
     private MessageDocumentRepository documentRepository;
 
-    private Path getUploadPath() {
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            try {
-                Files.createDirectories(uploadPath);
-            } catch (IOException e) {
-                throw new RuntimeException("Could not create upload directory!", e);
+    @Autowired
+    private DocumentBlobRepository blobRepository;
+
+    @Autowired
+    private GroupStorageUsageRepository storageUsageRepository;
+
+    @Autowired
+    private GroupMessageService groupMessageService;
+
+    @Autowired
+    private DocumentPostProcessor postProcessor;
+
+    @Autowired
+    private DocumentSearchIndex searchIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Stores an upload and its chat message atomically.
+     *
+     * The body is read once, straight into the upload directory, while it is hashed and
+     * counted against the file size limit and the group's remaining quota, and is fsynced
+     * before anything is committed. One transaction then charges the quota, creates the
+     * message and its {@link MessageDocument} and moves the file into the blob store, so a
+     * failure leaves neither a dangling message nor a charged quota. A blob moved in by a
+     * transaction that then rolls back is removed again, unless another upload has claimed
+     * it meanwhile. Post-processing is queued once that transaction commits.
+     *
+     * @param declaredLength the body's Content-Length, or -1 if unknown
+     */
+    public MessageDocument storeUpload(InputStreamSource body, long declaredLength, String filename,
+                                       String contentType, Long groupId, User sender) {
+        String originalFilename = filename != null ? StringUtils.cleanPath(filename) : "";
+        if (originalFilename.isEmpty() || originalFilename.contains("..") || originalFilename.contains("/")) {
+            throw new IllegalArgumentException("Invalid file name: " + filename);
+        }
+        long limit = Math.min(maxFileSize, groupQuotaBytes - getUsedBytes(groupId));
+        if (declaredLength > limit) {
+            throw new StorageQuotaExceededException(uploadLimitMessage(limit));
+        }
+
+        Path tempFile = null;
+        try {
+            tempFile = localStore.createTempFile();
+            MessageDigest digest = newDigest();
+            long size;
+            try (InputStream in = new DigestInputStream(new LimitedInputStream(body.getInputStream(), limit), digest);
+                 FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                size = in.transferTo(Channels.newOutputStream(channel));
+                channel.force(true);
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("Failed to store empty file " + originalFilename);
             }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path staged = tempFile;
+
+            return transactionTemplate.execute(status -> {
+                if (storageUsageRepository.reserve(groupId, size, groupQuotaBytes) == 0) {
+                    throw new StorageQuotaExceededException("Group storage quota exceeded");
+                }
+                GroupMessage message = groupMessageService.saveDocumentMessage(groupId, sender, originalFilename);
+                blobRepository.addReference(hash, size);
+
+                MessageDocument document = new MessageDocument(
+                    originalFilename,
+                    hash,
+                    contentType != null && !contentType.isBlank() ? contentType : "application/octet-stream",
+                    size,
+                    hash
+                );
+                document.setContentHash(hash);
+                document.setMessage(message);
+                MessageDocument saved = documentRepository.save(document);
+
+                try {
+                    if (storeBlob(staged, hash)) {
+                        removeBlobOnRollback(hash, size);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                postProcessor.submit(saved.getId());
+                return saved;
+            });
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Failed to store file " + originalFilename, e);
+        } finally {
+            deleteQuietly(tempFile);
         }
-        return uploadPath;
     }
 
-    public MessageDocument storeFile(MultipartFile file, GroupMessage message) {
-        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        String storedFilename = UUID.randomUUID().toString() + "_" + originalFilename;
-        
+    /**
+     * Moves a document stored under its own file name into the blob store, dropping the file
+     * if an identical blob already exists. Used by {@link DocumentDedupMigration}; must run
+     * inside a transaction.
+     */
+    public void migrateToBlob(MessageDocument document) {
+        Path legacyFile = getLegacyFile(document);
+        String hash = ensureContentHash(document);
         try {
-            if (file.isEmpty()) {
-                throw new RuntimeException("Failed to store empty file " + originalFilename);
-            }
-            
-            Path targetLocation = getUploadPath().resolve(storedFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-            MessageDocument document = new MessageDocument(
-                originalFilename,
-                storedFilename,
-                file.getContentType(),
-                file.getSize(),
-                targetLocation.toString()
-            );
-            
-            document.setMessage(message);
-            return documentRepository.save(document);
-            
+            long size = document.getFileSize() != null ? document.getFileSize() : Files.size(legacyFile);
+            blobRepository.addReference(hash, size);
+            document.setStoredFilename(hash);
+            document.setFilePath(hash);
+            documentRepository.saveAndFlush(document);
+            // Last, so a failed database update leaves the legacy file where it was
+            storeBlob(legacyFile, hash);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to store file " + originalFilename, e);
+            throw new RuntimeException("Could not migrate file " + legacyFile, e);
         }
     }
 
-    public Resource loadFileAsResource(String filename) {
+    /**
+     * Opens a document from whichever tier holds it. Local files come back as a
+     * {@link FileSystemResource}, which downloads can hand to the container's sendfile.
+     */
+    public Resource loadDocument(MessageDocument document) {
+        if (!isBlob(document)) {
+            Resource legacy = new FileSystemResource(getLegacyFile(document));
+            if (legacy.exists()) {
+                return legacy;
+            }
+            throw new RuntimeException("File not found " + document.getStoredFilename());
+        }
+        String key = document.getFilePath();
+        Resource local = localStore.getResource(key, document.getFileSize());
+        if (local.exists()) {
+            return local;
+        }
+        // The tiering job deletes the local copy only once the object store has the blob
+        if (objectStore.isEnabled()) {
+            return objectStore.getResource(key, document.getFileSize());
+        }
+        throw new RuntimeException("File not found " + key);
+    }
+
+    /** Marks the document's blob as recently used, which keeps it in (or brings it back to) local storage. */
+    @Transactional
+    public void recordAccess(MessageDocument document) {
+        if (isBlob(document)) {
+            blobRepository.recordAccess(document.getContentHash());
+        }
+    }
+
+    /**
+     * Returns the document's content hash, computing and saving it for documents stored
+     * before hashes were recorded.
+     */
+    public String ensureContentHash(MessageDocument document) {
+        if (document.getContentHash() == null) {
+            MessageDigest digest = newDigest();
+            try (InputStream in = new DigestInputStream(loadDocument(document).getInputStream(), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read file " + document.getStoredFilename(), e);
+            }
+            document.setContentHash(HexFormat.of().formatHex(digest.digest()));
+            documentRepository.save(document);
+        }
+        return document.getContentHash();
+    }
+
+    private long getUsedBytes(Long groupId) {
+        Optional<GroupStorageUsage> usage = storageUsageRepository.findById(groupId);
+        if (usage.isPresent()) {
+            return usage.get().getUsedBytes();
+        }
+        // First upload to the group since usage was tracked: seed it from the existing documents
+        return transactionTemplate.execute(status -> {
+            storageUsageRepository.initUsage(groupId);
+            return storageUsageRepository.findById(groupId).map(GroupStorageUsage::getUsedBytes).orElse(0L);
+        });
+    }
+
+    private static String uploadLimitMessage(long limit) {
+        return limit <= 0
+                ? "Group storage quota exceeded"
+                : "File exceeds the upload limit of " + limit + " bytes";
+    }
+
+    // Call with the blob row locked (after addReference), so the tiering job cannot move the blob meanwhile.
+    // Returns true if the file was moved into the local store, false if the blob was already stored.
+    private boolean storeBlob(Path source, String hash) throws IOException {
+        boolean inObjectStore = blobRepository.findById(hash)
+                .map(blob -> DocumentBlob.TIER_OBJECT.equals(blob.getTier()))
+                .orElse(false);
+        if (inObjectStore) {
+            // Same bytes are already stored in the object tier; the next tiering run brings them back
+            Files.deleteIfExists(source);
+            return false;
+        }
+        return localStore.moveIn(hash, source);
+    }
+
+    /** Deletes the blob just moved in if the surrounding transaction does not commit. */
+    private void removeBlobOnRollback(String hash, long size) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    deleteBlobIfUnreferenced(hash, size);
+                }
+            }
+        });
+    }
+
+    /**
+     * Deletes the blob's files if no document references it. Runs after the transaction that
+     * dropped or never committed the reference: a concurrent upload of the same bytes may
+     * have found the file and be about to commit a reference to it, so a reference is taken
+     * and released in a new transaction, which waits for that upload's row lock, and the
+     * files are only deleted if nothing references the blob then.
+     */
+    private void deleteBlobIfUnreferenced(String hash, long size) {
+        TransactionTemplate cleanup = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        cleanup.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         try {
-            Path filePath = getUploadPath().resolve(filename);
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new RuntimeException("File not found " + filename);
+            cleanup.executeWithoutResult(status -> {
+                blobRepository.addReference(hash, size);
+                blobRepository.releaseReference(hash);
+                if (blobRepository.deleteIfUnreferenced(hash) > 0) {
+                    try {
+                        localStore.delete(hash);
+                        if (objectStore.isEnabled()) {
+                            objectStore.delete(hash);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            System.err.println("Could not delete blob " + hash + ": " + e.getMessage());
+        }
+    }
+
+    private Path getLegacyFile(MessageDocument document) {
+        return Paths.get(uploadDir).resolve(document.getStoredFilename());
+    }
+
+    private static boolean isBlob(MessageDocument document) {
+        return document.getContentHash() != null && document.getContentHash().equals(document.getFilePath());
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("Could not delete temp file " + file + ": " + e.getMessage());
             }
-        } catch (MalformedURLException e) {
-            throw new RuntimeException("File not found " + filename, e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
@@ -89,6 +339,12 @@ public class DocumentService {
                 .orElseThrow(() -> new RuntimeException("Document not found with id: " + documentId));
     }
 
+    /** The documents with the given ids that still exist, by id. */
+    public Map<Long, MessageDocument> getDocuments(List<Long> documentIds) {
+        return documentRepository.findAllById(documentIds).stream()
+                .collect(Collectors.toMap(MessageDocument::getId, Function.identity()));
+    }
+
     public MessageDocument getDocumentByMessageId(Long messageId) {
         MessageDocument doc = documentRepository.findByMessage_Id(messageId);
         if (doc == null) {
@@ -97,17 +353,82 @@ public class DocumentService {
         return doc;
     }
 
+    /**
+     * Deletes the document, and its file once no other document shares it. Files are removed
+     * only after the transaction commits, so a rollback leaves the document readable.
+     */
+    @Transactional
     public void deleteDocument(MessageDocument document) {
-        try {
-            Path filePath = Paths.get(document.getFilePath());
-            Files.deleteIfExists(filePath);
-            documentRepository.delete(document);
-        } catch (IOException e) {
-            throw new RuntimeException("Could not delete file", e);
+        documentRepository.delete(document);
+        searchIndex.delete(document.getId());
+        if (document.getFileSize() != null) {
+            storageUsageRepository.release(document.getMessage().getGroup().getGroupId(), document.getFileSize());
+        }
+        if (!isBlob(document)) {
+            Path legacyFile = Paths.get(document.getFilePath());
+            runAfterCommit(() -> {
+                try {
+                    Files.deleteIfExists(legacyFile);
+                } catch (IOException e) {
+                    System.err.println("Could not delete file " + legacyFile + ": " + e.getMessage());
+                }
+            });
+            return;
+        }
+        String hash = document.getContentHash();
+        long size = document.getFileSize() != null ? document.getFileSize() : 0;
+        blobRepository.releaseReference(hash);
+        if (blobRepository.deleteIfUnreferenced(hash) > 0) {
+            runAfterCommit(() -> deleteBlobIfUnreferenced(hash, size));
         }
     }
 
+    private static void runAfterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     public List<MessageDocument> getDocumentsByGroupId(Long groupId) {
         return documentRepository.findByMessage_Group_GroupIdOrderByUploadTimeDesc(groupId);
     }
+
+    // Fails the upload as soon as it passes the limit, instead of after writing all of it
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                checkLimit(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                checkLimit(n);
+            }
+            return n;
+        }
+
+        private void checkLimit(int bytes) {
+            count += bytes;
+            if (count > limit) {
+                throw new StorageQuotaExceededException(uploadLimitMessage(limit));
+            }
+        }
+    }
 }
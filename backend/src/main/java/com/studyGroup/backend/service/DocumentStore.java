@@ -0,0 +1,26 @@
+package com.studyGroup.backend.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A storage tier for document bytes, addressed by storage key (the content hash, see
+ * {@code MessageDocument.filePath}). {@link LocalDocumentStore} holds recently used
+ * documents; {@link ObjectDocumentStore} is the cheaper tier that
+ * {@link DocumentTieringService} moves cold ones to.
+ */
+public interface DocumentStore {
+
+    /** Copies {@code source} in under {@code key}; a key that is already stored is left as it is. */
+    void put(String key, Path source) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    /** Opens the stored bytes; {@code size} is the known length, so ranges can be served without a lookup. */
+    Resource getResource(String key, long size);
+
+    /** Removes the key; a key that is not stored is ignored. */
+    void delete(String key) throws IOException;
+}
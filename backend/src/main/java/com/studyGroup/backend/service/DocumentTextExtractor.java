@@ -0,0 +1,270 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.model.MessageDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Pulls the plain text out of uploaded PDFs, text files and Office documents (Word, Excel
+ * and PowerPoint 2007+, OpenDocument) and hands it to the {@link DocumentSearchIndex}.
+ *
+ * Office files are read as what they are, zip archives of XML, with a streaming parser
+ * that keeps only the text runs, so no office suite library is needed. The legacy binary
+ * formats (.doc, .xls, .ppt) are indexed by file name only. At most {@code max-chars} of
+ * text are kept per document, and at most {@code max-xml-bytes} of XML are inflated from
+ * one archive. A file whose text cannot be read is still indexed, by file name only.
+ */
+@Component
+public class DocumentTextExtractor implements DocumentProcessingStep {
+
+    private static final String PDF = "application/pdf";
+    private static final Set<String> TEXT_TYPES = Set.of("application/json", "application/xml", "application/csv");
+    private static final Set<String> TEXT_EXTENSIONS = Set.of("txt", "md", "csv", "json", "xml", "log");
+
+    private static final Pattern PPTX_SLIDE = Pattern.compile("ppt/slides/slide(\\d+)\\.xml");
+
+    private final DocumentSearchIndex searchIndex;
+    private final int maxChars;
+    private final long maxSourceBytes;
+    private final long maxXmlBytes;
+    private final XMLInputFactory xmlInputFactory;
+
+    private final Timer extractTimer;
+    private final Counter extractFailures;
+
+    public DocumentTextExtractor(DocumentSearchIndex searchIndex, MeterRegistry meterRegistry,
+                                 @Value("${documents.search.max-chars:200000}") int maxChars,
+                                 @Value("${documents.search.max-source-bytes:52428800}") long maxSourceBytes,
+                                 @Value("${documents.search.max-xml-bytes:104857600}") long maxXmlBytes) {
+        this.searchIndex = searchIndex;
+        this.maxChars = maxChars;
+        this.maxSourceBytes = maxSourceBytes;
+        this.maxXmlBytes = maxXmlBytes;
+        this.xmlInputFactory = XMLInputFactory.newFactory();
+        // Uploaded XML is untrusted: no DTDs, no external entities
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        this.extractTimer = Timer.builder("documents.search.extract").register(meterRegistry);
+        this.extractFailures = Counter.builder("documents.search.extract.failures").register(meterRegistry);
+    }
+
+    @Override
+    public void process(MessageDocument document, Resource content) throws IOException {
+        searchIndex.index(document, extractOrEmpty(document, () -> content));
+    }
+
+    /** Like {@link #extract}, but logs a file that cannot be read or parsed and returns an empty string. */
+    public String extractOrEmpty(MessageDocument document, Supplier<Resource> source) {
+        try {
+            return extract(document, source.get());
+        } catch (IOException | RuntimeException e) {
+            extractFailures.increment();
+            System.err.println("[DocumentTextExtractor] No text for document " + document.getId() + ": " + e.getMessage());
+            return "";
+        }
+    }
+
+    /** The document's text, or an empty string when its format is not supported or it is too large. */
+    public String extract(MessageDocument document, Resource source) throws IOException {
+        if (document.getFileSize() != null && document.getFileSize() > maxSourceBytes) {
+            return "";
+        }
+        String type = document.getFileType() != null ? document.getFileType() : "";
+        String extension = extension(document.getOriginalFilename());
+        long start = System.nanoTime();
+        try {
+            if (PDF.equals(type) || "pdf".equals(extension)) {
+                return extractPdf(source);
+            }
+            if (type.startsWith("text/") || TEXT_TYPES.contains(type) || TEXT_EXTENSIONS.contains(extension)) {
+                return extractPlainText(source);
+            }
+            return switch (extension) {
+                case "docx" -> extractZipXml(source, "word/document.xml", "t", "p");
+                case "xlsx" -> extractZipXml(source, "xl/sharedStrings.xml", "t", "si");
+                case "pptx" -> extractSlides(source);
+                case "odt", "ods", "odp" -> extractZipXml(source, "content.xml", null, "p");
+                default -> "";
+            };
+        } finally {
+            extractTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private String extractPdf(Resource source) throws IOException {
+        try (PDDocument pdf = source.isFile() ? Loader.loadPDF(source.getFile()) : Loader.loadPDF(source.getContentAsByteArray())) {
+            return truncate(new PDFTextStripper().getText(pdf));
+        }
+    }
+
+    private String extractPlainText(Resource source) throws IOException {
+        // Malformed bytes are replaced rather than failing the whole file
+        try (Reader reader = new InputStreamReader(source.getInputStream(), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[maxChars];
+            int length = 0;
+            int read;
+            while (length < maxChars && (read = reader.read(buffer, length, maxChars - length)) != -1) {
+                length += read;
+            }
+            return new String(buffer, 0, length);
+        }
+    }
+
+    /** Text of one XML entry; see {@link #appendXmlText}. */
+    private String extractZipXml(Resource source, String entryName, String textElement, String blockElement) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (ZipInputStream zip = new ZipInputStream(source.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.getName().equals(entryName)) {
+                    appendXmlText(new CappedInputStream(zip, maxXmlBytes), textElement, blockElement, text);
+                    break;
+                }
+            }
+        }
+        return truncate(text.toString());
+    }
+
+    /** PowerPoint keeps one XML entry per slide, in no particular order inside the archive. */
+    private String extractSlides(Resource source) throws IOException {
+        Map<Integer, String> slides = new TreeMap<>();
+        try (ZipInputStream zip = new ZipInputStream(source.getInputStream())) {
+            CappedInputStream budget = new CappedInputStream(zip, maxXmlBytes);
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                Matcher slide = PPTX_SLIDE.matcher(entry.getName());
+                if (slide.matches()) {
+                    StringBuilder text = new StringBuilder();
+                    appendXmlText(budget, "t", "p", text);
+                    slides.put(Integer.valueOf(slide.group(1)), text.toString());
+                }
+            }
+        }
+        return truncate(String.join("\n", slides.values()));
+    }
+
+    /**
+     * Appends the character data of {@code xml}: only inside {@code textElement} elements, or
+     * everywhere when it is null, with a line break after each {@code blockElement}.
+     * Elements are matched by local name, so the namespace prefix does not matter.
+     */
+    private void appendXmlText(InputStream xml, String textElement, String blockElement, StringBuilder out) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            // The stream must stay open for the zip's next entry
+            reader = xmlInputFactory.createXMLStreamReader(new FilterInputStream(xml) {
+                @Override
+                public void close() {
+                }
+            });
+            int depth = textElement == null ? 1 : 0;
+            while (reader.hasNext() && out.length() < maxChars) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        if (reader.getLocalName().equals(textElement)) {
+                            depth++;
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if (reader.getLocalName().equals(textElement)) {
+                            depth--;
+                        } else if (reader.getLocalName().equals(blockElement)) {
+                            out.append('\n');
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (depth > 0) {
+                            out.append(reader.getText());
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Unreadable document XML: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+    }
+
+    private String truncate(String text) {
+        return text.length() > maxChars ? text.substring(0, maxChars) : text;
+    }
+
+    private static String extension(String filename) {
+        if (filename == null || filename.lastIndexOf('.') < 0) {
+            return "";
+        }
+        return filename.substring(filename.lastIndexOf('.') + 1).toLowerCase();
+    }
+
+    /** Fails once more than {@code limit} bytes have been read, guarding against zip bombs. */
+    private static class CappedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        CappedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(long n) throws IOException {
+            count += n;
+            if (count > limit) {
+                throw new IOException("Document expands to more than " + limit + " bytes of XML");
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.repository.DocumentBlobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Moves blobs between {@link LocalDocumentStore} and {@link ObjectDocumentStore}.
+ *
+ * A blob not uploaded or downloaded for {@code cold-after-days} is copied to the object
+ * store and marked {@code object}. Its local copy is removed only
+ * {@code local-delete-grace-ms} later, by a later run, so a download that found the local
+ * file just before the move can still open it. A blob in the object tier that has been
+ * accessed again since is copied back the same way. The tier update rechecks
+ * its condition under the blob's row lock, so a blob that is uploaded again, read or
+ * deleted while being copied stays where it was and the extra copy is discarded. Does
+ * nothing while no object store is configured.
+ *
+ * Metrics: documents.tiering.demoted, documents.tiering.promoted, documents.tiering.failures.
+ */
+@Service
+public class DocumentTieringService {
+
+    private final DocumentBlobRepository blobRepository;
+    private final LocalDocumentStore localStore;
+    private final ObjectDocumentStore objectStore;
+    private final TransactionTemplate transactionTemplate;
+    private final int coldAfterDays;
+    private final int batchSize;
+    private final long localDeleteGraceMs;
+
+    private final Counter demoted;
+    private final Counter promoted;
+    private final Counter failures;
+
+    public DocumentTieringService(DocumentBlobRepository blobRepository, LocalDocumentStore localStore,
+                                  ObjectDocumentStore objectStore, TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${documents.tiering.cold-after-days:30}") int coldAfterDays,
+                                  @Value("${documents.tiering.batch-size:100}") int batchSize,
+                                  @Value("${documents.tiering.local-delete-grace-ms:3600000}") long localDeleteGraceMs) {
+        this.blobRepository = blobRepository;
+        this.localStore = localStore;
+        this.objectStore = objectStore;
+        this.transactionTemplate = transactionTemplate;
+        this.coldAfterDays = coldAfterDays;
+        this.batchSize = batchSize;
+        this.localDeleteGraceMs = localDeleteGraceMs;
+        this.demoted = Counter.builder("documents.tiering.demoted").register(meterRegistry);
+        this.promoted = Counter.builder("documents.tiering.promoted").register(meterRegistry);
+        this.failures = Counter.builder("documents.tiering.failures").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${documents.tiering.interval-ms:3600000}",
+               initialDelayString = "${documents.tiering.interval-ms:3600000}")
+    public void rebalance() {
+        if (!objectStore.isEnabled()) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(coldAfterDays);
+        int moved = 0;
+        for (String hash : blobRepository.findWarmObjectBlobs(cutoff, batchSize)) {
+            moved += run("promote", hash, () -> promote(hash));
+        }
+        for (String hash : blobRepository.findColdLocalBlobs(cutoff, batchSize)) {
+            moved += run("demote", hash, () -> demote(hash, cutoff));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (String hash : blobRepository.findExpiredLocalCopies(now, batchSize)) {
+            run("remove the local copy of", hash, () -> deleteLocalCopy(hash, now));
+        }
+        if (moved > 0) {
+            System.out.println("[DocumentTiering] Moved " + moved + " blob(s) between storage tiers");
+        }
+    }
+
+    private boolean demote(String hash, LocalDateTime cutoff) throws IOException {
+        objectStore.put(hash, localStore.resolve(hash));
+        LocalDateTime localDeleteAfter = LocalDateTime.now().plus(Duration.ofMillis(localDeleteGraceMs));
+        Integer updated = transactionTemplate.execute(status -> blobRepository.markObject(hash, cutoff, localDeleteAfter));
+        if (updated != null && updated > 0) {
+            demoted.increment();
+            return true;
+        }
+        // Used again or deleted meanwhile: the local copy stays authoritative
+        objectStore.delete(hash);
+        return false;
+    }
+
+    private boolean deleteLocalCopy(String hash, LocalDateTime now) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (blobRepository.claimLocalDelete(hash, now) == 0) {
+                // Promoted or deleted meanwhile
+                return false;
+            }
+            try {
+                localStore.delete(hash);
+            } catch (IOException e) {
+                status.setRollbackOnly();
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }));
+    }
+
+    private boolean promote(String hash) throws IOException {
+        Path temp = localStore.createTempFile();
+        try {
+            Resource cold = objectStore.getResource(hash, -1);
+            try (InputStream in = cold.getInputStream()) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Boolean moved = transactionTemplate.execute(status -> {
+                if (blobRepository.markLocal(hash) == 0) {
+                    return false;
+                }
+                try {
+                    localStore.moveIn(hash, temp);
+                } catch (IOException e) {
+                    status.setRollbackOnly();
+                    System.err.println("[DocumentTiering] Could not store " + hash + " locally: " + e.getMessage());
+                    return false;
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(moved)) {
+                return false;
+            }
+            objectStore.delete(hash);
+            promoted.increment();
+            return true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private int run(String action, String hash, TierMove move) {
+        try {
+            return move.run() ? 1 : 0;
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            System.err.println("[DocumentTiering] Could not " + action + " blob " + hash + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    @FunctionalInterface
+    private interface TierMove {
+        boolean run() throws IOException;
+    }
+}
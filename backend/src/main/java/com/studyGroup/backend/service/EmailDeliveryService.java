@@ -0,0 +1,315 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.model.EmailDeadLetter;
+import com.studyGroup.backend.model.QueuedEmail;
+import com.studyGroup.backend.repository.EmailDeadLetterRepository;
+import com.studyGroup.backend.repository.QueuedEmailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbound mail queue, kept in the email_outbox table.
+ *
+ * Callers enqueue and return immediately. The row is inserted in the caller's transaction,
+ * so an email exists only if the work that produced it commits, and queued mail survives a
+ * restart. A fixed pool of workers claims due rows in batches; each batch goes through a
+ * single {@link JavaMailSender#send(SimpleMailMessage...)} call, which sends every message
+ * over one SMTP connection instead of connecting per email. A claim is a lease: rows of a
+ * worker that dies are picked up again once {@code mail.queue.lease-ms} has passed, so
+ * delivery is at least once. Sent rows are deleted. Failed messages are rescheduled with
+ * exponential backoff (plus jitter); after {@code mail.queue.max-attempts} they move to
+ * the dead-letter table.
+ *
+ * Workers wake up right after an enqueue commits on this node and otherwise look for due
+ * rows every {@code mail.queue.poll-interval-ms}.
+ *
+ * Metrics: mail.queue.depth (rows in the outbox), mail.send.latency (per batch), mail.sent,
+ * mail.send.failures, mail.dead_letters.
+ */
+@Service
+public class EmailDeliveryService {
+
+    private static final String INSERT_EMAIL =
+            "INSERT INTO email_outbox (recipient, subject, body, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, ?, ?, 0, ?, ?)";
+
+    private final JavaMailSender mailSender;
+    private final QueuedEmailRepository queuedEmailRepository;
+    private final EmailDeadLetterRepository deadLetterRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String fromEmailAddress;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long pollIntervalMs;
+    private final long leaseMs;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    private final Timer sendTimer;
+    private final Counter sentCounter;
+    private final Counter failureCounter;
+    private final Counter deadLetterCounter;
+
+    private volatile boolean running = true;
+    private ExecutorService workerPool;
+
+    public EmailDeliveryService(JavaMailSender mailSender, QueuedEmailRepository queuedEmailRepository,
+                                EmailDeadLetterRepository deadLetterRepository, JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                                @Value("${spring.mail.username}") String fromEmailAddress,
+                                @Value("${mail.queue.workers:2}") int workers,
+                                @Value("${mail.queue.batch-size:50}") int batchSize,
+                                @Value("${mail.queue.max-attempts:5}") int maxAttempts,
+                                @Value("${mail.queue.initial-backoff-ms:2000}") long initialBackoffMs,
+                                @Value("${mail.queue.max-backoff-ms:300000}") long maxBackoffMs,
+                                @Value("${mail.queue.poll-interval-ms:1000}") long pollIntervalMs,
+                                @Value("${mail.queue.lease-ms:300000}") long leaseMs) {
+        this.mailSender = mailSender;
+        this.queuedEmailRepository = queuedEmailRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.fromEmailAddress = fromEmailAddress;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.pollIntervalMs = pollIntervalMs;
+        this.leaseMs = leaseMs;
+
+        // Counted on each scrape, so a backlog shows while the workers are busy with it
+        Gauge.builder("mail.queue.depth", queuedEmailRepository, QueuedEmailRepository::count).register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.send.latency").register(meterRegistry);
+        this.sentCounter = Counter.builder("mail.sent").register(meterRegistry);
+        this.failureCounter = Counter.builder("mail.send.failures").register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("mail.dead_letters").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "mail-worker-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < workers; i++) {
+            workerPool.submit(this::workerLoop);
+        }
+    }
+
+    /**
+     * Stops the workers after their current batch (bounded wait). Queued rows stay in the
+     * outbox for the next start; a batch cut short is sent again when its lease runs out.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        wakeUp.release(workers);
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(10, TimeUnit.SECONDS)) {
+            workerPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues one email in the caller's transaction, if there is one. Returns false if it
+     * could not be stored.
+     */
+    public boolean enqueue(String to, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            jdbcTemplate.update(INSERT_EMAIL, to, subject, body, Timestamp.valueOf(now), Timestamp.valueOf(now));
+        } catch (DataAccessException e) {
+            System.err.println("[EmailDeliveryService] Could not queue email to " + to + ": " + e.getMessage());
+            return false;
+        }
+        wakeWorkersAfterCommit();
+        return true;
+    }
+
+    /**
+     * Queues the same email for several recipients with one batched insert. Returns how
+     * many were stored.
+     */
+    public int enqueueAll(Collection<String> recipients, String subject, String body) {
+        if (recipients.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(recipients.size());
+        for (String to : recipients) {
+            rows.add(new Object[] { to, subject, body, now, now });
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_EMAIL, rows);
+        } catch (DataAccessException e) {
+            System.err.println("[EmailDeliveryService] Could not queue " + rows.size() + " email(s): " + e.getMessage());
+            return 0;
+        }
+        wakeWorkersAfterCommit();
+        return rows.size();
+    }
+
+    public long getQueueDepth() {
+        return queuedEmailRepository.count();
+    }
+
+    private void wakeWorkersAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp.release();
+                }
+            });
+        } else {
+            wakeUp.release();
+        }
+    }
+
+    private void workerLoop() {
+        while (running) {
+            try {
+                List<QueuedEmail> batch = claimBatch();
+                if (batch.isEmpty()) {
+                    wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    wakeUp.drainPermits();
+                    continue;
+                }
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("[EmailDeliveryService] Worker error: " + e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<QueuedEmail> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = queuedEmailRepository.findClaimableIds(now, batchSize);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String token = UUID.randomUUID().toString();
+        if (queuedEmailRepository.claim(ids, token, now.plus(leaseMs, ChronoUnit.MILLIS), now) == 0) {
+            return List.of();
+        }
+        return queuedEmailRepository.findByClaimTokenOrderById(token);
+    }
+
+    private void sendBatch(List<QueuedEmail> batch) {
+        Map<SimpleMailMessage, QueuedEmail> byMessage = new IdentityHashMap<>();
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            QueuedEmail email = batch.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmailAddress);
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getBody());
+            messages[i] = message;
+            byMessage.put(message, email);
+        }
+
+        List<QueuedEmail> sent = new ArrayList<>(batch);
+        long start = System.nanoTime();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                sent.clear();
+                batch.forEach(email -> retryOrDeadLetter(email, e));
+            } else {
+                failed.forEach((message, cause) -> {
+                    QueuedEmail email = byMessage.get(message);
+                    if (email != null) {
+                        sent.remove(email);
+                        retryOrDeadLetter(email, cause);
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            sent.clear();
+            batch.forEach(email -> retryOrDeadLetter(email, e));
+        } finally {
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!sent.isEmpty()) {
+            queuedEmailRepository.deleteAllByIdInBatch(sent.stream().map(QueuedEmail::getId).toList());
+            sentCounter.increment(sent.size());
+        }
+    }
+
+    private void retryOrDeadLetter(QueuedEmail email, Exception cause) {
+        failureCounter.increment();
+        int attempts = email.getAttempts() + 1;
+        String error = truncate(cause.getMessage());
+        if (attempts >= maxAttempts) {
+            deadLetter(email, attempts, error);
+            return;
+        }
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 20));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        queuedEmailRepository.reschedule(email.getId(), attempts,
+                LocalDateTime.now().plus(delay, ChronoUnit.MILLIS), error);
+    }
+
+    private void deadLetter(QueuedEmail email, int attempts, String reason) {
+        deadLetterCounter.increment();
+        System.err.println("[EmailDeliveryService] Dead-lettering email to " + email.getRecipient() + ": " + reason);
+        transactionTemplate.executeWithoutResult(status -> {
+            deadLetterRepository.save(new EmailDeadLetter(
+                    email.getRecipient(), email.getSubject(), email.getBody(), attempts, reason));
+            queuedEmailRepository.deleteById(email.getId());
+        });
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 2000 ? error.substring(0, 2000) : error;
+    }
+}
@@ -7,15 +7,39 @@ import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+
 @Service
 public class EmailService {
 
     @Autowired
     private JavaMailSender javaMailSender;
 
+    @Autowired
+    private EmailDeliveryService emailDeliveryService;
+
     @Value("${spring.mail.username}")
     private String fromEmailAddress;
 
+    /**
+     * Queues an email for background delivery (batched, retried, dead-lettered on failure).
+     * Use this for anything the caller does not need to confirm synchronously.
+     */
+    public boolean queueEmail(String to, String subject, String body) {
+        return emailDeliveryService.enqueue(to, subject, body);
+    }
+
+    /**
+     * Queues the same email for each recipient.
+     */
+    public int queueEmails(Collection<String> recipients, String subject, String body) {
+        return emailDeliveryService.enqueueAll(recipients, subject, body);
+    }
+
+    /**
+     * Sends immediately on the calling thread. Only for flows that must report delivery
+     * failure to the user (e.g. password-reset OTP).
+     */
     public String sendEmail(String to, String subject, String body) {
         try {
             SimpleMailMessage mailMessage = new SimpleMailMessage();
@@ -0,0 +1,213 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.repository.EnrollmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory enrollment index used for peer suggestions.
+ *
+ * Keeps a course -> users posting list (a {@link BitSet} over user ids) and the reverse
+ * user -> courses map. Built from the enrollments table at startup (once
+ * {@link EnrollmentService#migrateAll} has finished backfilling it), then kept current by
+ * {@link ProfileService#enrollInCourse} / {@link ProfileService#unenrollFromCourse}, whose
+ * changes are applied once their transaction commits. A periodic rebuild picks up changes
+ * made on other nodes; changes applied while it reads the table are recorded and replayed
+ * onto the new maps before they replace the old ones, so none is lost in the swap.
+ */
+@Service
+public class EnrollmentIndex {
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, BitSet> usersByCourse = new HashMap<>();
+    private Map<Integer, Set<String>> coursesByUser = new HashMap<>();
+    // Non-null while a rebuild is reading the table; guarded by the write lock
+    private List<Change> changesDuringRebuild;
+
+    @Scheduled(fixedDelayString = "${enrollment.index.rebuild-interval-ms:600000}",
+               initialDelayString = "${enrollment.index.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<String, BitSet> courses = new HashMap<>();
+        Map<Integer, Set<String>> users = new HashMap<>();
+        try {
+            for (Object[] row : enrollmentRepository.findAllUserCoursePairs()) {
+                Integer userId = (Integer) row[0];
+                String courseId = (String) row[1];
+                users.computeIfAbsent(userId, u -> new HashSet<>()).add(courseId);
+                courses.computeIfAbsent(courseId, c -> new BitSet()).set(userId);
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // The read may or may not have seen these; replaying is idempotent either way
+            for (Change change : changesDuringRebuild) {
+                apply(courses, users, change);
+            }
+            changesDuringRebuild = null;
+            usersByCourse = courses;
+            coursesByUser = users;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Adds the enrollment once the surrounding transaction commits. */
+    public void enroll(Integer userId, String courseId) {
+        afterCommit(new Change(userId, courseId, true));
+    }
+
+    /** Removes the enrollment once the surrounding transaction commits. */
+    public void unenroll(Integer userId, String courseId) {
+        afterCommit(new Change(userId, courseId, false));
+    }
+
+    private void afterCommit(Change change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyNow(change);
+                }
+            });
+        } else {
+            applyNow(change);
+        }
+    }
+
+    private void applyNow(Change change) {
+        lock.writeLock().lock();
+        try {
+            apply(usersByCourse, coursesByUser, change);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Map<String, BitSet> usersByCourse, Map<Integer, Set<String>> coursesByUser, Change change) {
+        if (change.enrolled()) {
+            usersByCourse.computeIfAbsent(change.courseId(), c -> new BitSet()).set(change.userId());
+            coursesByUser.computeIfAbsent(change.userId(), u -> new HashSet<>()).add(change.courseId());
+            return;
+        }
+        BitSet users = usersByCourse.get(change.courseId());
+        if (users != null) {
+            users.clear(change.userId());
+            if (users.isEmpty()) {
+                usersByCourse.remove(change.courseId());
+            }
+        }
+        Set<String> courses = coursesByUser.get(change.userId());
+        if (courses != null) {
+            courses.remove(change.courseId());
+            if (courses.isEmpty()) {
+                coursesByUser.remove(change.userId());
+            }
+        }
+    }
+
+    public Set<String> getCourseIds(Integer userId) {
+        lock.readLock().lock();
+        try {
+            Set<String> courses = coursesByUser.get(userId);
+            return courses == null ? Collections.emptySet() : new TreeSet<>(courses);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Peers ranked by number of shared courses (desc, then user id), computed by merging the
+     * posting lists of the user's courses. Only the top {@code offset + limit} are ordered.
+     */
+    public PeerMatches findPeers(Integer userId, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Set<String> myCourses = coursesByUser.getOrDefault(userId, Collections.emptySet());
+            Map<Integer, Integer> sharedCounts = new HashMap<>();
+            for (String courseId : myCourses) {
+                BitSet users = usersByCourse.get(courseId);
+                if (users == null) {
+                    continue;
+                }
+                for (int peer = users.nextSetBit(0); peer >= 0; peer = users.nextSetBit(peer + 1)) {
+                    if (peer != userId) {
+                        sharedCounts.merge(peer, 1, Integer::sum);
+                    }
+                }
+            }
+
+            Comparator<Map.Entry<Integer, Integer>> rank = Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey());
+            int keep = offset + limit;
+            // Bounded heap holding the best `keep` entries; its head is the worst of them
+            PriorityQueue<Map.Entry<Integer, Integer>> top = new PriorityQueue<>(rank.reversed());
+            for (Map.Entry<Integer, Integer> entry : sharedCounts.entrySet()) {
+                top.offer(entry);
+                if (top.size() > keep) {
+                    top.poll();
+                }
+            }
+            List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(top);
+            ranked.sort(rank);
+
+            List<PeerMatch> page = new ArrayList<>();
+            for (int i = offset; i < ranked.size(); i++) {
+                Integer peerId = ranked.get(i).getKey();
+                Set<String> common = new TreeSet<>(coursesByUser.getOrDefault(peerId, Collections.emptySet()));
+                common.retainAll(myCourses);
+                page.add(new PeerMatch(peerId, common));
+            }
+            return new PeerMatches(page, sharedCounts.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Change(Integer userId, String courseId, boolean enrolled) {
+    }
+
+    public record PeerMatch(Integer userId, Set<String> commonCourseIds) {
+    }
+
+    public record PeerMatches(List<PeerMatch> page, int total) {
+    }
+}
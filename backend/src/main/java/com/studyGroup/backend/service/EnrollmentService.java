@@ -0,0 +1,144 @@
+package com.studyGroup.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studyGroup.backend.model.Enrollment;
+import com.studyGroup.backend.model.Profile;
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.repository.EnrollmentRepository;
+import com.studyGroup.backend.repository.ProfileRepository;
+import com.studyGroup.backend.repository.UsersRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the move from {@code Profile.enrolledCourseIds} (JSON in a TEXT column) to the
+ * {@link Enrollment} table.
+ *
+ * Migration is online: on startup a background pass copies unmigrated profiles in small
+ * chunks, each in its own transaction, while the app keeps serving. Any request that
+ * touches a not-yet-migrated profile migrates that one profile first, so reads never see
+ * a half-copied user. The JSON column stays as a write-through mirror for clients that
+ * still read it from the profile payload.
+ */
+@Service
+public class EnrollmentService {
+
+    @Value("${enrollment.migration.chunk-size:500}")
+    private int chunkSize;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private EnrollmentIndex enrollmentIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Copies a profile's JSON enrollments into the table if that has not happened yet.
+     * Idempotent: existing rows are skipped.
+     */
+    public void ensureMigrated(Profile profile, Integer userId) {
+        if (profile.isEnrollmentsMigrated()) {
+            return;
+        }
+        for (String courseId : parseLegacyCourseIds(profile.getEnrolledCourseIds())) {
+            if (!enrollmentRepository.existsByUserIdAndCourseId(userId, courseId)) {
+                enrollmentRepository.save(new Enrollment(userId, courseId));
+            }
+        }
+        profile.setEnrollmentsMigrated(true);
+        profileRepository.save(profile);
+    }
+
+    /**
+     * Rewrites the profile's JSON mirror from the table.
+     */
+    public Profile syncProfileMirror(Profile profile, Integer userId) {
+        try {
+            profile.setEnrolledCourseIds(
+                    objectMapper.writeValueAsString(enrollmentRepository.findCourseIdsByUserId(userId)));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not update enrolled courses due to a data processing error.", e);
+        }
+        return profileRepository.save(profile);
+    }
+
+    /**
+     * Background backfill of all unmigrated profiles, then a rebuild of the in-memory index
+     * from the table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateAll() {
+        int migrated = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> migrateChunk());
+            if (count == null || count == 0) {
+                break;
+            }
+            migrated += count;
+        }
+        if (migrated > 0) {
+            System.out.println("[EnrollmentService] Migrated enrollments for " + migrated + " profile(s)");
+        }
+        enrollmentIndex.rebuild();
+    }
+
+    private int migrateChunk() {
+        List<Profile> profiles = profileRepository.findByEnrollmentsMigratedFalseOrderByEmail(
+                PageRequest.of(0, chunkSize));
+        if (profiles.isEmpty()) {
+            return 0;
+        }
+        Set<String> emails = profiles.stream().map(Profile::getEmail).collect(Collectors.toSet());
+        Map<String, Integer> userIds = usersRepository.findByEmailIn(emails).stream()
+                .collect(Collectors.toMap(User::getEmail, User::getId, (a, b) -> a));
+        for (Profile profile : profiles) {
+            Integer userId = userIds.get(profile.getEmail());
+            if (userId != null) {
+                ensureMigrated(profile, userId);
+            } else {
+                // Orphan profile without a user: nothing to migrate
+                profile.setEnrollmentsMigrated(true);
+                profileRepository.save(profile);
+            }
+        }
+        return profiles.size();
+    }
+
+    private Set<String> parseLegacyCourseIds(String json) {
+        if (json == null || json.isEmpty() || json.equals("[]")) {
+            return new HashSet<>();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<Set<String>>() {
+            });
+        } catch (IOException e) {
+            System.err.println("Skipping unreadable enrolled_course_ids: " + json);
+            return new HashSet<>();
+        }
+    }
+}
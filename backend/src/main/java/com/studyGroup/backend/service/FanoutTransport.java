@@ -0,0 +1,35 @@
+package com.studyGroup.backend.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Cross-node transport used by {@link ClusterBroadcastService} to hand a broadcast
+ * produced on one backend node to every other node, which then delivers it to its
+ * own locally connected STOMP subscribers.
+ */
+public interface FanoutTransport {
+
+    /**
+     * Publishes a frame to all other nodes. Implementations must not deliver it back to
+     * {@code envelope.originNodeId()}.
+     */
+    void publish(Envelope envelope);
+
+    /**
+     * Registers this node as a receiver. Called once at startup.
+     */
+    void subscribe(String nodeId, Consumer<Envelope> listener);
+
+    /**
+     * Detaches this node. Called on shutdown.
+     */
+    void unsubscribe(String nodeId);
+
+    /**
+     * {@code coalesceKey} is null for frames every subscriber must receive; otherwise a slow
+     * session may get only the latest frame per key (see {@code OutboundFlowControlInterceptor}).
+     */
+    record Envelope(String originNodeId, String destination, Object payload, String coalesceKey,
+                    long publishedAtNanos) {
+    }
+}
@@ -1,18 +1,29 @@
 package com.studyGroup.backend.service;
 
+import com.studyGroup.backend.dto.ChatHistoryPageDTO;
 import com.studyGroup.backend.dto.ChatMessageDTO;
+import com.studyGroup.backend.dto.PollOptionDTO;
 import com.studyGroup.backend.model.Group;
 import com.studyGroup.backend.model.GroupMessage;
+import com.studyGroup.backend.model.MessageReply;
+import com.studyGroup.backend.model.PollOption;
 import com.studyGroup.backend.model.User;
 import com.studyGroup.backend.repository.GroupMessageRepository;
 import com.studyGroup.backend.repository.GroupRepository;
+import com.studyGroup.backend.repository.PollOptionRepository;
 import com.studyGroup.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,15 +32,18 @@ public class GroupMessageService {
     private final GroupMessageRepository messageRepository;
     private final GroupRepository groupRepository;
     private final UserRepository userRepository;
+    private final ChatSearchIndex searchIndex;
     private final com.studyGroup.backend.repository.MessageReplyRepository messageReplyRepository;
+    private final PollOptionRepository pollOptionRepository;
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
 
     @Transactional
     public GroupMessage saveMessage(ChatMessageDTO chatMessage) {
-        Group group = groupRepository.findById(chatMessage.getGroupId())
-            .orElseThrow(() -> new RuntimeException("Group not found"));
-            
-        User sender = userRepository.findById(chatMessage.getSenderId())
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        // Sender and group were authorized on the STOMP session; references avoid two SELECTs per message
+        Group group = groupRepository.getReferenceById(chatMessage.getGroupId());
+        User sender = userRepository.getReferenceById(chatMessage.getSenderId());
 
         GroupMessage message = new GroupMessage(group, sender, chatMessage.getContent());
         message.setMessageType(chatMessage.getMessageType());
@@ -47,6 +61,7 @@ public class GroupMessageService {
             });
         }
 
+        searchIndex.index(saved);
         return saved;
     }
 
@@ -54,6 +69,103 @@ public class GroupMessageService {
         return messageRepository.findByGroup_GroupIdOrderByTimestampAsc(groupId);
     }
 
+    /**
+     * Full chat history as DTOs. Senders, reply originals and poll options are loaded
+     * in three batched queries regardless of the number of messages.
+     */
+    @Transactional(readOnly = true)
+    public List<ChatMessageDTO> getGroupMessageDTOs(Long groupId) {
+        return toChatMessageDTOs(messageRepository.findHistoryWithSender(groupId));
+    }
+
+    /**
+     * Keyset-paginated chat history. With no cursor the newest page is returned; {@code before}
+     * walks back in time and {@code after} catches up on newer messages. Either way the page is
+     * returned in ascending id order.
+     */
+    @Transactional(readOnly = true)
+    public ChatHistoryPageDTO getMessageHistory(Long groupId, Long before, Long after, Integer size) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Only one of 'before' or 'after' may be given");
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists without a count query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<GroupMessage> rows;
+        if (after != null) {
+            rows = messageRepository.findPageAfter(groupId, after, limit);
+        } else if (before != null) {
+            rows = messageRepository.findPageBefore(groupId, before, limit);
+        } else {
+            rows = messageRepository.findLatestPage(groupId, limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<GroupMessage> page = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        if (after == null) {
+            // Descending queries: flip back to chronological order for the client
+            Collections.reverse(page);
+        }
+
+        List<ChatMessageDTO> messages = toChatMessageDTOs(page);
+        Long oldest = page.isEmpty() ? null : page.get(0).getId();
+        Long newest = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        return new ChatHistoryPageDTO(messages, hasMore, oldest, newest);
+    }
+
+    /**
+     * Converts messages (with senders already fetched) to DTOs, hydrating reply info and
+     * poll options with one query each for the whole list.
+     */
+    public List<ChatMessageDTO> toChatMessageDTOs(List<GroupMessage> messages) {
+        if (messages.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> messageIds = messages.stream().map(GroupMessage::getId).collect(Collectors.toList());
+        Map<Long, MessageReply> repliesByMessageId = new HashMap<>();
+        for (MessageReply mr : messageReplyRepository.findWithOriginalByReplyMessageIds(messageIds)) {
+            repliesByMessageId.put(mr.getReplyMessage().getId(), mr);
+        }
+
+        Set<Long> pollIds = messages.stream()
+            .filter(m -> "POLL".equalsIgnoreCase(m.getMessageType()) && m.getPollId() != null)
+            .map(GroupMessage::getPollId)
+            .collect(Collectors.toSet());
+        Map<Long, List<PollOptionDTO>> optionsByPollId = new HashMap<>();
+        if (!pollIds.isEmpty()) {
+            for (PollOption o : pollOptionRepository.findByPoll_IdInOrderById(pollIds)) {
+                optionsByPollId.computeIfAbsent(o.getPoll().getId(), k -> new ArrayList<>())
+                    .add(new PollOptionDTO(o.getId(), o.getOptionText(), o.getVoteCount()));
+            }
+        }
+
+        return messages.stream().map(message -> {
+            ChatMessageDTO dto = new ChatMessageDTO();
+            dto.setGroupId(message.getGroup().getGroupId());
+            dto.setMessageId(message.getId());
+            dto.setSenderId(message.getSender().getId());
+            dto.setSenderName(message.getSender().getName());
+            dto.setContent(message.getContent());
+            dto.setTimestamp(message.getTimestamp());
+            dto.setMessageType(message.getMessageType());
+
+            MessageReply mr = repliesByMessageId.get(message.getId());
+            if (mr != null) {
+                dto.setReplyToMessageId(mr.getOriginalMessage().getId());
+                dto.setReplyToContent(mr.getOriginalMessage().getContent());
+                dto.setReplyToSenderName(mr.getOriginalMessage().getSender().getName());
+            }
+
+            if ("POLL".equalsIgnoreCase(message.getMessageType()) && message.getPollId() != null) {
+                dto.setPollId(message.getPollId());
+                dto.setPollOptions(optionsByPollId.getOrDefault(message.getPollId(), new ArrayList<>()));
+            }
+            return dto;
+        }).collect(Collectors.toList());
+    }
+
     @Transactional
     public void deleteMessage(Long messageId, Integer requesterUserId) {
         GroupMessage msg = messageRepository.findById(messageId)
@@ -73,24 +185,16 @@ public class GroupMessageService {
             .forEach(messageReplyRepository::delete);
 
         messageRepository.deleteById(messageId);
+        searchIndex.delete(messageId);
     }
 
     @Transactional
-    public GroupMessage saveDocumentMessage(Long groupId, Integer senderId, MultipartFile file) {
-        Group group = groupRepository.findById(groupId)
-            .orElseThrow(() -> new RuntimeException("Group not found"));
-
-        User sender = userRepository.findById(senderId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-        GroupMessage message = new GroupMessage(group, sender, file.getOriginalFilename());
-        message.setMessageType("document"); // Assuming message type for documents
+    public GroupMessage saveDocumentMessage(Long groupId, User sender, String filename) {
+        // Membership was checked by the caller, so the group is known to exist
+        GroupMessage message = new GroupMessage(groupRepository.getReferenceById(groupId), sender, filename);
+        message.setMessageType("document");
         GroupMessage saved = messageRepository.save(message);
-
-        // Store the document using DocumentService
-        // Note: DocumentService needs to be injected here, but since it's not, we'll assume it's handled elsewhere
-        // For now, just return the saved message
-
+        searchIndex.index(saved);
         return saved;
     }
 }
@@ -2,33 +2,56 @@ package com.studyGroup.backend.service;
 
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import com.studyGroup.backend.dto.CourseSummaryDTO;
 import com.studyGroup.backend.dto.CreateGroupRequest;
 import com.studyGroup.backend.dto.GroupDTO;
 import com.studyGroup.backend.dto.GroupJoinRequestDTO;
+import com.studyGroup.backend.dto.GroupPageDTO;
 import com.studyGroup.backend.dto.UserSummaryDTO;
 import com.studyGroup.backend.model.*;
+import com.studyGroup.backend.repository.DataMigrationRepository;
 import com.studyGroup.backend.repository.GroupJoinRequestRepository;
 import com.studyGroup.backend.repository.GroupMemberRepository;
 import com.studyGroup.backend.repository.GroupRepository;
+import com.studyGroup.backend.repository.GroupSpecifications;
 import com.studyGroup.backend.repository.ProfileRepository;
 import com.studyGroup.backend.repository.CalendarEventRepository;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class GroupService {
 
+    private static final int DISCOVERY_PAGE_SIZE = 20;
+    private static final int DISCOVERY_MAX_PAGE_SIZE = 100;
+    private static final String DISCOVERY_MIGRATION = "group-discovery-columns";
+
     @Autowired
     private GroupMemberRepository groupMemberRepository;
 
     @Autowired
     private GroupRepository groupRepository;
 
+    @Autowired
+    private DataMigrationRepository migrationRepository;
+
     @Autowired
     private CourseService courseService;
 
@@ -41,6 +64,9 @@ public class GroupService {
     @Autowired
     private CalendarEventRepository calendarEventRepository;
 
+    @Autowired
+    private StompSessionRegistry stompSessionRegistry;
+
     /**
      * Helper method to retrieve the "About Me" field from the Profile entity.
      * Searches by email using the defined repository method.
@@ -65,18 +91,40 @@ public class GroupService {
         return null;
     }
 
+    /**
+     * Batch version of getUserAboutMe: one query for all emails, blank values dropped.
+     */
+    private Map<String, String> getAboutMeByEmail(Collection<User> users) {
+        Set<String> emails = new HashSet<>();
+        for (User user : users) {
+            if (user != null && user.getEmail() != null) {
+                emails.add(user.getEmail());
+            }
+        }
+        Map<String, String> aboutMeByEmail = new HashMap<>();
+        if (emails.isEmpty()) {
+            return aboutMeByEmail;
+        }
+        for (Profile profile : profileRepository.findByEmailIn(emails)) {
+            String aboutMe = profile.getAboutMe();
+            if (aboutMe != null && !aboutMe.trim().isEmpty()) {
+                aboutMeByEmail.put(profile.getEmail(), aboutMe.trim());
+            }
+        }
+        return aboutMeByEmail;
+    }
+
     /**
      * Helper to convert GroupMember to DTO, pulling 'aboutMe' from Profile.
      */
-    private UserSummaryDTO convertToUserSummaryDTO(GroupMember member) {
+    private UserSummaryDTO convertToUserSummaryDTO(GroupMember member, Map<String, String> aboutMeByEmail) {
         User user = member.getUser();
-        String aboutMe = getUserAboutMe(user);
 
         return new UserSummaryDTO(
                 Long.valueOf(user.getId()),
                 user.getName(),
                 user.getEmail(),
-                aboutMe,
+                aboutMeByEmail.get(user.getEmail()),
                 member.getRole());
     }
 
@@ -84,18 +132,63 @@ public class GroupService {
         return groupMemberRepository.findByGroupGroupIdAndUser_Id(groupId, user.getId());
     }
 
-    private GroupDTO convertToDTO(Group group) {
-        return convertToDTO(group, null);
-    }
-
     /**
      * Helper to convert Group to DTO, pulling creator 'aboutMe' from Profile.
      */
     private GroupDTO convertToDTO(Group group, String userRole) {
         long memberCount = groupMemberRepository.countByGroup(group);
+        String creatorAboutMe = getUserAboutMe(group.getCreatedBy());
+        return buildDTO(group, userRole, memberCount, creatorAboutMe);
+    }
+
+    /**
+     * Converts a page of groups to DTOs with a constant number of queries: one grouped
+     * member-count aggregate and one profile lookup for all creators. Course and creator
+     * must already be fetched (see findAllWithCourseAndCreator / findByUserIdWithGroup).
+     *
+     * @param rolesByGroupId the caller's role per group id, or an empty map for no role
+     */
+    private List<GroupDTO> convertToDTOs(List<Group> groups, Map<Long, String> rolesByGroupId) {
+        if (groups.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> groupIds = groups.stream().map(Group::getGroupId).collect(Collectors.toList());
+        Map<Long, Long> memberCounts = new HashMap<>();
+        for (Object[] row : groupMemberRepository.countMembersByGroupIds(groupIds)) {
+            memberCounts.put((Long) row[0], (Long) row[1]);
+        }
+        return convertToDTOs(groups, rolesByGroupId, memberCounts);
+    }
+
+    private List<GroupDTO> convertToDTOs(List<Group> groups, Map<Long, String> rolesByGroupId,
+                                         Map<Long, Long> memberCounts) {
+        if (groups.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, String> aboutMeByEmail = getAboutMeByEmail(
+                groups.stream().map(Group::getCreatedBy).collect(Collectors.toList()));
+
+        return groups.stream()
+                .map(group -> buildDTO(group,
+                        rolesByGroupId.get(group.getGroupId()),
+                        memberCounts.getOrDefault(group.getGroupId(), 0L),
+                        aboutMeByEmail.get(group.getCreatedBy().getEmail())))
+                .collect(Collectors.toList());
+    }
+
+    private List<GroupDTO> convertMembershipsToDTOs(List<GroupMember> memberships) {
+        Map<Long, String> roles = new LinkedHashMap<>();
+        List<Group> groups = new ArrayList<>();
+        for (GroupMember membership : memberships) {
+            groups.add(membership.getGroup());
+            roles.put(membership.getGroup().getGroupId(), membership.getRole());
+        }
+        return convertToDTOs(groups, roles);
+    }
+
+    private GroupDTO buildDTO(Group group, String userRole, long memberCount, String creatorAboutMe) {
         boolean hasPasskey = group.getPasskey() != null && !group.getPasskey().isEmpty();
         User creator = group.getCreatedBy();
-        String creatorAboutMe = getUserAboutMe(creator);
 
         return new GroupDTO(
                 group.getGroupId(),
@@ -128,6 +221,8 @@ public class GroupService {
         String role = membership.getRole();
 
         groupMemberRepository.delete(membership);
+        groupRepository.adjustMemberCount(groupId, -1);
+        stompSessionRegistry.revokeMembership(currentUser.getId(), groupId);
 
         if ("Admin".equalsIgnoreCase(role)) {
             Long remainingMembers = groupMemberRepository.countByGroup(group);
@@ -218,18 +313,17 @@ public class GroupService {
             throw new RuntimeException("You must be a member of this group to view the member list.");
         }
 
-        List<GroupMember> members = groupMemberRepository.findByGroup(group);
+        List<GroupMember> members = groupMemberRepository.findByGroupWithUser(group);
+        Map<String, String> aboutMeByEmail = getAboutMeByEmail(
+                members.stream().map(GroupMember::getUser).collect(Collectors.toList()));
 
         return members.stream()
-                .map(this::convertToUserSummaryDTO)
+                .map(member -> convertToUserSummaryDTO(member, aboutMeByEmail))
                 .collect(Collectors.toList());
     }
 
     public List<GroupDTO> findGroupsByUserId(Integer userId) {
-        List<GroupMember> memberships = groupMemberRepository.findByUserId(userId);
-        return memberships.stream()
-                .map(membership -> convertToDTO(membership.getGroup(), membership.getRole()))
-                .collect(Collectors.toList());
+        return convertMembershipsToDTOs(groupMemberRepository.findByUserIdWithGroup(userId));
     }
 
     @Transactional
@@ -243,8 +337,9 @@ public class GroupService {
         group.setDescription(request.getDescription());
         group.setAssociatedCourse(course);
         group.setCreatedBy(user);
-        group.setPrivacy(request.getPrivacy());
+        group.setPrivacy(request.getPrivacy() == null ? null : request.getPrivacy().trim().toLowerCase());
         group.setMemberLimit(request.getMemberLimit());
+        group.setMemberCount(1); // the owner membership created below
 
         if ("private".equalsIgnoreCase(request.getPrivacy()) && request.getPasskey() != null
                 && !request.getPasskey().isEmpty()) {
@@ -263,10 +358,108 @@ public class GroupService {
         return convertToDTO(savedGroup, "Admin");
     }
 
+    /**
+     * Keyset-paginated group discovery. Filters are optional; {@code sort} is one of
+     * "newest" (default), "name" or "members" (denormalized member count, largest first).
+     * {@code cursor} is the opaque {@code nextCursor} of the previous page.
+     */
+    public GroupPageDTO discoverGroups(String courseId, String privacy, Boolean hasCapacity, String namePrefix,
+                                       String sort, String cursor, Integer size) {
+        int pageSize = size == null ? DISCOVERY_PAGE_SIZE : Math.max(1, Math.min(size, DISCOVERY_MAX_PAGE_SIZE));
+        String sortKey = sort == null ? "newest" : sort.toLowerCase();
+        String[] cursorParts = decodeCursor(cursor);
+        Long cursorId = cursorParts == null ? null : Long.valueOf(cursorParts[0]);
+
+        Specification<Group> spec = GroupSpecifications.fetchCourseAndCreator()
+                .and(GroupSpecifications.hasCourse(courseId))
+                .and(GroupSpecifications.hasPrivacy(privacy))
+                .and(GroupSpecifications.hasCapacity(hasCapacity))
+                .and(GroupSpecifications.nameStartsWith(namePrefix));
+
+        Sort order;
+        switch (sortKey) {
+            case "name":
+                order = Sort.by(Sort.Order.asc("name"), Sort.Order.asc("groupId"));
+                spec = spec.and(GroupSpecifications.afterName(cursorParts == null ? null : cursorParts[1], cursorId));
+                break;
+            case "members":
+                // Same direction on both columns, so the index is read backwards without a filesort
+                order = Sort.by(Sort.Order.desc("memberCount"), Sort.Order.desc("groupId"));
+                spec = spec.and(GroupSpecifications.afterMemberCount(
+                        cursorParts == null ? null : Integer.valueOf(cursorParts[1]), cursorId));
+                break;
+            case "newest":
+                order = Sort.by(Sort.Order.desc("groupId"));
+                spec = spec.and(GroupSpecifications.idBefore(cursorId));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown sort: " + sort);
+        }
+
+        // One extra row tells us whether there is a next page without a count query
+        List<Group> rows = groupRepository.findBy(spec, q -> q.sortBy(order).limit(pageSize + 1).all());
+        boolean hasMore = rows.size() > pageSize;
+        List<Group> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<Long, Long> memberCounts = new HashMap<>();
+        for (Group group : page) {
+            memberCounts.put(group.getGroupId(), group.getMemberCount().longValue());
+        }
+        List<GroupDTO> groups = convertToDTOs(page, new HashMap<>(), memberCounts);
+
+        String nextCursor = null;
+        if (hasMore) {
+            Group last = page.get(page.size() - 1);
+            String sortValue = "name".equals(sortKey) ? last.getName()
+                    : "members".equals(sortKey) ? String.valueOf(last.getMemberCount()) : "";
+            nextCursor = encodeCursor(last.getGroupId(), sortValue);
+        }
+        return new GroupPageDTO(groups, nextCursor, hasMore);
+    }
+
+    private static String encodeCursor(Long groupId, String sortValue) {
+        String raw = groupId + "|" + (sortValue == null ? "" : sortValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            Long.valueOf(parts[0]);
+            return parts.length == 2 ? parts : new String[] { parts[0], "" };
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Backfills Group.memberCount and lower-cases privacy on the first start after discovery
+     * was added. Both scan the whole table, so later starts skip them; {@link #recountMemberCounts}
+     * repairs counter drift on demand.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void migrateDiscoveryColumns() {
+        if (migrationRepository.existsById(DISCOVERY_MIGRATION)) {
+            return;
+        }
+        groupRepository.recountMemberCounts();
+        groupRepository.normalizePrivacy();
+        migrationRepository.save(new DataMigration(DISCOVERY_MIGRATION));
+    }
+
+    /** Brings Group.memberCount back in line with group_member. */
+    @Transactional
+    public void recountMemberCounts() {
+        groupRepository.recountMemberCounts();
+    }
+
     public List<GroupDTO> getAllGroups() {
-        return groupRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(groupRepository.findAllWithCourseAndCreator(), new HashMap<>());
     }
 
     @Transactional
@@ -308,6 +501,7 @@ public class GroupService {
         newMembership.setUser(user);
         newMembership.setRole("Member");
         groupMemberRepository.save(newMembership);
+        groupRepository.adjustMemberCount(groupId, 1);
     }
 
     /**
@@ -379,6 +573,7 @@ public class GroupService {
             newMembership.setUser(request.getUser());
             newMembership.setRole("Member");
             groupMemberRepository.save(newMembership);
+            groupRepository.adjustMemberCount(groupId, 1);
         } else if (!"DENIED".equalsIgnoreCase(status)) {
             throw new RuntimeException("Invalid status provided. Must be APPROVED or DENIED.");
         }
@@ -420,6 +615,8 @@ public class GroupService {
 
         // 5. Remove the member
         groupMemberRepository.delete(memberToRemove);
+        groupRepository.adjustMemberCount(groupId, -1);
+        stompSessionRegistry.revokeMembership(memberToRemove.getUser().getId(), groupId);
 
         // 6. Clean up any related join requests (Requires deleteByGroupAndUser in
         // repository)
@@ -461,11 +658,10 @@ public class GroupService {
     }
 
     public List<GroupDTO> findGroupsByUserIdAndCourseId(Integer userId, String courseId) {
-        List<GroupMember> memberships = groupMemberRepository.findByUserId(userId);
-        return memberships.stream()
+        List<GroupMember> memberships = groupMemberRepository.findByUserIdWithGroup(userId).stream()
                 .filter(membership -> membership.getGroup().getAssociatedCourse().getCourseId().equals(courseId))
-                .map(membership -> convertToDTO(membership.getGroup(), membership.getRole()))
                 .collect(Collectors.toList());
+        return convertMembershipsToDTOs(memberships);
     }
 
     public String getUserRoleInGroup(Long groupId, User user) {
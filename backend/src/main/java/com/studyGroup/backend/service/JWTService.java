@@ -1,24 +1,35 @@
 package com.studyGroup.backend.service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import com.studyGroup.backend.repository.UsersRepository;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import com.studyGroup.backend.model.User;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JWTService {
 
-    private final UsersRepository usersRepository;
+    // Request attribute holding the token verified for the current request and its claims
+    private static final String REQUEST_CLAIMS_ATTRIBUTE = JWTService.class.getName() + ".claims";
+    private static final String BEARER_PREFIX = "Bearer ";
 
-    public JWTService(UsersRepository usersRepository) {
-        this.usersRepository = usersRepository;
+    private final PrincipalCache principalCache;
+
+    public JWTService(PrincipalCache principalCache) {
+        this.principalCache = principalCache;
     }
 
     @Value("${jwt.secret}")
@@ -27,39 +38,99 @@ public class JWTService {
     @Value("${jwt.expiration.ms}")
     private long expirationTime;
 
-    private SecretKey getSigningKey() {
-       
-        return Keys.hmacShaKeyFor(secretKeyString.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${jwt.verified-cache.ttl-seconds:600}")
+    private long verifiedCacheTtlSeconds;
+
+    // Built once: the key and parser are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Recently verified token -> claims; entries are re-checked against the token's own expiry
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secretKeyString.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = CacheBuilder.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfterWrite(verifiedCacheTtlSeconds, TimeUnit.SECONDS)
+                .build();
     }
 
- 
     public String generateToken(String email) {
         return Jwts.builder()
                 .setSubject(email) 
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     
     public String validateToken(String token) {
         try {
-            return getClaimFromToken(token, Claims::getSubject);
+            return getClaimFromToken(token, 0, Claims::getSubject);
         } catch (Exception e) {
            
             return "401";
         }
     }
 
-    
-    private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+    /**
+     * Same as {@link #validateToken} for a whole {@code Authorization: Bearer ...} header. The
+     * token is not copied out of the header: the header itself is the cache key, so the
+     * authenticated hot path allocates no token string.
+     */
+    public String validateAuthorizationHeader(String authHeader) {
+        try {
+            return getClaimFromToken(authHeader, BEARER_PREFIX.length(), Claims::getSubject);
+        } catch (Exception e) {
+            return "401";
+        }
+    }
+
+    private <T> T getClaimFromToken(String source, int offset, Function<Claims, T> claimsResolver) {
+        return claimsResolver.apply(verify(source, offset));
+    }
+
+    /**
+     * Verifies the token starting at {@code offset} in {@code source} at most once per
+     * request: first the current request's holder, then the verified-token cache, and only
+     * then a signature check. Cache keys are the source strings, bare tokens and whole
+     * headers alike; the two never collide since a token has no space.
+     */
+    private Claims verify(String source, int offset) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(REQUEST_CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                instanceof VerifiedToken verified && verified.matches(source, offset)) {
+            return verified.claims();
+        }
+
+        Claims claims = verifiedTokens.getIfPresent(source);
+        if (claims != null && isExpired(claims)) {
+            verifiedTokens.invalidate(source);
+            claims = null;
+        }
+        if (claims == null) {
+            // Throws on a bad signature or an expired token
+            claims = parser.parseClaimsJws(offset == 0 ? source : source.substring(offset)).getBody();
+            verifiedTokens.put(source, claims);
+        }
+
+        if (request != null) {
+            request.setAttribute(REQUEST_CLAIMS_ATTRIBUTE, new VerifiedToken(source, offset, claims),
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+        return claims;
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && !expiration.after(new Date());
     }
 
     public Integer extractUserId(String token) {
@@ -67,9 +138,20 @@ public class JWTService {
         if ("401".equals(email)) {
             throw new RuntimeException("Invalid token");
         }
-        return usersRepository.findByEmail(email)
-                .map(user -> user.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = principalCache.get(email);
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
+        return user.getId();
     }
-}
 
+    /** The token is {@code source} from {@code offset} on. */
+    private record VerifiedToken(String source, int offset, Claims claims) {
+
+        boolean matches(String otherSource, int otherOffset) {
+            int length = source.length() - offset;
+            return otherSource.length() - otherOffset == length
+                    && source.regionMatches(offset, otherSource, otherOffset, length);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.studyGroup.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The hot tier: files under {@code file.upload-dir}, sharded by the first two hex digits
+ * of the key ({@code blobs/ab/ab12...}) so no directory grows past a few thousand entries.
+ */
+@Component
+public class LocalDocumentStore implements DocumentStore {
+
+    private static final String BLOB_DIR = "blobs";
+
+    private final Path root;
+
+    public LocalDocumentStore(@Value("${file.upload-dir}") String uploadDir) {
+        this.root = Paths.get(uploadDir);
+    }
+
+    public Path resolve(String key) {
+        if (key.length() < 2 || key.contains("/") || key.contains("..")) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return root.resolve(BLOB_DIR).resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    /** A temp file on the same file system as the blobs, so {@link #moveIn} is a rename. */
+    public Path createTempFile() throws IOException {
+        Files.createDirectories(root);
+        return Files.createTempFile(root, "upload-", ".tmp");
+    }
+
+    /**
+     * Like {@link #put}, but moves {@code source} instead of copying it.
+     *
+     * @return true if the file was moved in, false if the key was already stored
+     */
+    public boolean moveIn(String key, Path source) throws IOException {
+        Path target = resolve(key);
+        if (Files.exists(target)) {
+            // Same bytes are already stored: keep the existing file
+            Files.deleteIfExists(source);
+            return false;
+        }
+        boolean newShard = !Files.isDirectory(target.getParent());
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        // The rename is durable only once the directory entry is: fsync the directory, and its parent for a new shard
+        syncDirectory(target.getParent());
+        if (newShard) {
+            syncDirectory(target.getParent().getParent());
+        }
+        return true;
+    }
+
+    private static void syncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Windows cannot open a directory as a channel; NTFS journals the rename itself
+        }
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = resolve(key);
+        if (!Files.exists(target)) {
+            Path temp = createTempFile();
+            try {
+                Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+                moveIn(key, temp);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public Resource getResource(String key, long size) {
+        // FileSystemResource reads through NIO channels, so range requests seek instead of skipping bytes
+        return new FileSystemResource(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+}
@@ -0,0 +1,45 @@
+package com.studyGroup.backend.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM stand-in for a real cross-node transport. Every application context in the
+ * same JVM that uses this transport with the same channel joins one shared hub, so
+ * several "nodes" started side by side (e.g. in an integration test) see each other's
+ * broadcasts exactly as they would over a real bus.
+ */
+public class LoopbackFanoutTransport implements FanoutTransport {
+
+    private static final Map<String, Map<String, Consumer<Envelope>>> HUBS = new ConcurrentHashMap<>();
+
+    private final Map<String, Consumer<Envelope>> nodes;
+
+    public LoopbackFanoutTransport(String channel) {
+        this.nodes = HUBS.computeIfAbsent(channel, c -> new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public void publish(Envelope envelope) {
+        nodes.forEach((nodeId, listener) -> {
+            if (!nodeId.equals(envelope.originNodeId())) {
+                listener.accept(envelope);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(String nodeId, Consumer<Envelope> listener) {
+        nodes.put(nodeId, listener);
+    }
+
+    @Override
+    public void unsubscribe(String nodeId) {
+        nodes.remove(nodeId);
+    }
+
+    public int nodeCount() {
+        return nodes.size();
+    }
+}
@@ -0,0 +1,21 @@
+package com.studyGroup.backend.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Default transport for a single-node deployment: broadcasts stay on this node.
+ */
+public class NoopFanoutTransport implements FanoutTransport {
+
+    @Override
+    public void publish(Envelope envelope) {
+    }
+
+    @Override
+    public void subscribe(String nodeId, Consumer<Envelope> listener) {
+    }
+
+    @Override
+    public void unsubscribe(String nodeId) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.dto.NotificationDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes saved notifications to {@code /queue/notifications/{userId}} off the caller's
+ * thread. Each user is pinned to one single-threaded lane (userId mod lanes), so a user's
+ * notifications are pushed in the order they were created while different users proceed
+ * in parallel.
+ *
+ * When called inside a transaction the push waits for commit, so clients never see a
+ * notification that was rolled back.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private final ClusterBroadcastService broadcastService;
+    private final List<ThreadPoolExecutor> lanes = new ArrayList<>();
+
+    public NotificationDispatcher(ClusterBroadcastService broadcastService, MeterRegistry meterRegistry,
+                                  @Value("${notifications.dispatch.lanes:4}") int laneCount) {
+        this.broadcastService = broadcastService;
+        for (int i = 0; i < laneCount; i++) {
+            String name = "notification-push-" + i;
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, name);
+                        t.setDaemon(true);
+                        return t;
+                    });
+            lanes.add(lane);
+        }
+        Gauge.builder("notifications.dispatch.queue.depth", lanes,
+                l -> l.stream().mapToInt(e -> e.getQueue().size()).sum()).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            lane.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public void dispatch(NotificationDTO notification) {
+        dispatch(List.of(notification));
+    }
+
+    public void dispatch(Collection<NotificationDTO> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(notifications);
+                }
+            });
+        } else {
+            enqueue(notifications);
+        }
+    }
+
+    private void enqueue(Collection<NotificationDTO> notifications) {
+        for (NotificationDTO notification : notifications) {
+            Integer userId = notification.getUserId();
+            lanes.get(Math.floorMod(userId, lanes.size())).execute(() -> push(notification));
+        }
+    }
+
+    private void push(NotificationDTO notification) {
+        try {
+            broadcastService.broadcast("/queue/notifications/" + notification.getUserId(), notification);
+        } catch (RuntimeException e) {
+            System.err.println("[NotificationDispatcher] Push to user " + notification.getUserId()
+                    + " failed: " + e.getMessage());
+        }
+    }
+}
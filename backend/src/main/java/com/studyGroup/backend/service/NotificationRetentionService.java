@@ -0,0 +1,170 @@
+package com.studyGroup.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Moves old notifications from {@code notifications} into {@code notification_archive}.
+ *
+ * Reminders, which make up most of the table and are useless once the session is over,
+ * have their own shorter age limit. Each chunk is its own short transaction: lock up to
+ * {@code chunk-size} old rows (SKIP LOCKED, so concurrent runs on other nodes and user
+ * traffic are not blocked), copy them, delete the ones whose copy is in the archive and fix
+ * the unread counters of their owners. A row that cannot be copied fails the chunk, which
+ * rolls back and leaves every row of it in place. A pause between chunks keeps the job from
+ * saturating the database.
+ *
+ * Metrics: notifications.retention.archived (total) and
+ * notifications.retention.archived.per.run (rows per run).
+ */
+@Service
+public class NotificationRetentionService {
+
+    private static final String ARCHIVE_ROWS =
+            "INSERT INTO notification_archive (id, user_id, type, title, message, is_read, created_at, " +
+            "related_entity_id, related_entity_type, archived_at) " +
+            "SELECT id, user_id, type, title, message, is_read, created_at, related_entity_id, related_entity_type, ? " +
+            "FROM notifications WHERE id IN (%s)";
+
+    // Only rows whose copy is in the archive are removed
+    private static final String DELETE_ARCHIVED =
+            "DELETE n FROM notifications n JOIN notification_archive a ON a.id = n.id WHERE n.id IN (%s)";
+
+    private static final String DECREMENT_UNREAD =
+            "UPDATE notification_counters SET unread_count = GREATEST(unread_count - ?, 0) WHERE user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAgeDays;
+    private final int reminderMaxAgeDays;
+    private final int chunkSize;
+    private final long pauseMs;
+
+    private final Counter archivedCounter;
+    private final DistributionSummary archivedPerRun;
+
+    public NotificationRetentionService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${notifications.retention.max-age-days:90}") int maxAgeDays,
+                                        @Value("${notifications.retention.reminder-max-age-days:14}") int reminderMaxAgeDays,
+                                        @Value("${notifications.retention.chunk-size:1000}") int chunkSize,
+                                        @Value("${notifications.retention.pause-ms:200}") long pauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAgeDays = maxAgeDays;
+        this.reminderMaxAgeDays = reminderMaxAgeDays;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+        this.archivedCounter = Counter.builder("notifications.retention.archived").register(meterRegistry);
+        this.archivedPerRun = DistributionSummary.builder("notifications.retention.archived.per.run").register(meterRegistry);
+    }
+
+    /**
+     * Archives created before the archive columns were widened to match {@code notifications}
+     * still have the narrow columns: ddl-auto only adds columns, it never resizes them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void widenArchiveColumns() {
+        Integer narrow = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() " +
+                "AND table_name = 'notification_archive' AND column_name IN ('type', 'related_entity_type') " +
+                "AND character_maximum_length < 255", Integer.class);
+        if (narrow != null && narrow > 0) {
+            jdbcTemplate.execute("ALTER TABLE notification_archive MODIFY type VARCHAR(255) NOT NULL, " +
+                    "MODIFY related_entity_type VARCHAR(255)");
+            System.out.println("[NotificationRetention] Widened notification_archive columns to match notifications");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.retention.interval-ms:3600000}",
+               initialDelayString = "${notifications.retention.interval-ms:3600000}")
+    public void archiveOldNotifications() {
+        LocalDateTime now = LocalDateTime.now();
+        long archived = 0;
+        try {
+            archived += archive(now.minusDays(reminderMaxAgeDays), "Reminders");
+            archived += archive(now.minusDays(maxAgeDays), null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            archivedPerRun.record(archived);
+        }
+        if (archived > 0) {
+            System.out.println("[NotificationRetention] Archived " + archived + " notification(s)");
+        }
+    }
+
+    private long archive(LocalDateTime olderThan, String type) throws InterruptedException {
+        long total = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> archiveChunk(olderThan, type));
+            if (moved == null || moved == 0) {
+                return total;
+            }
+            total += moved;
+            archivedCounter.increment(moved);
+            if (moved < chunkSize) {
+                return total;
+            }
+            Thread.sleep(pauseMs);
+        }
+    }
+
+    private int archiveChunk(LocalDateTime olderThan, String type) {
+        String select = "SELECT id, user_id, is_read FROM notifications WHERE created_at < ?"
+                + (type != null ? " AND type = ?" : "")
+                + " ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED";
+        Object[] args = type != null
+                ? new Object[] { Timestamp.valueOf(olderThan), type, chunkSize }
+                : new Object[] { Timestamp.valueOf(olderThan), chunkSize };
+
+        List<Integer> ids = new ArrayList<>();
+        Map<Integer, Integer> unreadByUser = new HashMap<>();
+        jdbcTemplate.query(select, rs -> {
+            ids.add(rs.getInt("id"));
+            if (!rs.getBoolean("is_read")) {
+                unreadByUser.merge(rs.getInt("user_id"), 1, Integer::sum);
+            }
+        }, args);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(","));
+        List<Object> archiveArgs = new ArrayList<>();
+        archiveArgs.add(Timestamp.valueOf(LocalDateTime.now()));
+        archiveArgs.addAll(ids);
+        jdbcTemplate.update(String.format(ARCHIVE_ROWS, placeholders), archiveArgs.toArray());
+        int deleted = jdbcTemplate.update(String.format(DELETE_ARCHIVED, placeholders), ids.toArray());
+        if (deleted != ids.size()) {
+            // Rolls back the chunk, so the unread counters below stay in step with the live table
+            throw new IllegalStateException("Archived " + deleted + " of " + ids.size() + " notifications");
+        }
+
+        if (!unreadByUser.isEmpty()) {
+            List<Map.Entry<Integer, Integer>> counts = new ArrayList<>(unreadByUser.entrySet());
+            counts.sort(Map.Entry.comparingByKey());
+            jdbcTemplate.batchUpdate(DECREMENT_UNREAD, counts, counts.size(), (ps, e) -> {
+                ps.setInt(1, e.getValue());
+                ps.setInt(2, e.getKey());
+            });
+        }
+        return ids.size();
+    }
+}
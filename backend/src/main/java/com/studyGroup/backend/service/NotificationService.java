@@ -1,24 +1,44 @@
 package com.studyGroup.backend.service;
 
+import com.studyGroup.backend.config.AuthenticatedUser;
 import com.studyGroup.backend.dto.NotificationDTO;
+import com.studyGroup.backend.dto.NotificationPageDTO;
+import com.studyGroup.backend.model.DataMigration;
 import com.studyGroup.backend.model.Notification;
 import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.model.NotificationCounter;
+import com.studyGroup.backend.repository.DataMigrationRepository;
+import com.studyGroup.backend.repository.NotificationCounterRepository;
 import com.studyGroup.backend.repository.NotificationRepository;
 import com.studyGroup.backend.repository.UsersRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class NotificationService {
 
+    private static final int INBOX_PAGE_SIZE = 20;
+    private static final int INBOX_MAX_PAGE_SIZE = 100;
+    private static final String UNREAD_COUNTS_MIGRATION = "notification-unread-counters";
+
     @Autowired
     private NotificationRepository notificationRepository;
 
@@ -26,12 +46,34 @@ public class NotificationService {
     private UsersRepository usersRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private NotificationCounterRepository counterRepository;
+
+    @Autowired
+    private DataMigrationRepository migrationRepository;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private PooledIdAllocator idAllocator;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notifications (id, user_id, title, message, type, is_read, created_at, " +
+            "related_entity_id, related_entity_type) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INCREMENT_UNREAD =
+            "INSERT INTO notification_counters (user_id, unread_count) VALUES (?, 1) " +
+            "ON DUPLICATE KEY UPDATE unread_count = unread_count + 1";
+
+    @Transactional
     public NotificationDTO createNotification(Integer userId, String message, String type) {
         return createNotification(userId, null, message, type, null, null);
     }
 
+    @Transactional
     public NotificationDTO createNotification(Integer userId, String title, String message, String type,
                                               Long relatedEntityId, String relatedEntityType) {
         Notification notification = new Notification();
@@ -45,25 +87,80 @@ public class NotificationService {
         notification.setRelatedEntityType(relatedEntityType);
 
         Notification savedNotification = notificationRepository.save(notification);
+        counterRepository.adjustUnreadCount(userId, 1);
         NotificationDTO dto = convertToDTO(savedNotification);
 
         // Publish real-time notification to user-specific destination
-        messagingTemplate.convertAndSend("/queue/notifications/" + userId, dto);
+        notificationDispatcher.dispatch(dto);
 
         return dto;
     }
 
+    /**
+     * Creates the same notification for many users: ids are pre-allocated, rows go in as one
+     * JDBC batch and the pushes are handed to {@link NotificationDispatcher}. Duplicate
+     * recipients are ignored.
+     */
+    @Transactional
+    public List<NotificationDTO> createNotifications(Collection<Integer> recipientIds, NotificationTemplate template) {
+        List<Integer> recipients = new ArrayList<>(new LinkedHashSet<>(recipientIds));
+        if (recipients.isEmpty()) {
+            return List.of();
+        }
+        long[] ids = idAllocator.nextIds(Notification.class, recipients.size());
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationDTO> dtos = new ArrayList<>(recipients.size());
+        for (int i = 0; i < recipients.size(); i++) {
+            dtos.add(new NotificationDTO((int) ids[i], recipients.get(i), template.title(), template.message(),
+                    template.type(), false, now, template.relatedEntityId(), template.relatedEntityType()));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, dtos, dtos.size(), (ps, n) -> {
+            ps.setInt(1, n.getId());
+            ps.setInt(2, n.getUserId());
+            ps.setString(3, n.getTitle());
+            ps.setString(4, n.getMessage());
+            ps.setString(5, n.getType());
+            ps.setBoolean(6, false);
+            ps.setTimestamp(7, Timestamp.valueOf(n.getCreatedAt()));
+            if (n.getRelatedEntityId() != null) {
+                ps.setLong(8, n.getRelatedEntityId());
+            } else {
+                ps.setNull(8, Types.BIGINT);
+            }
+            ps.setString(9, n.getRelatedEntityType());
+        });
+        // Sorted so concurrent fan-outs lock counter rows in the same order
+        List<Integer> sortedRecipients = new ArrayList<>(recipients);
+        sortedRecipients.sort(null);
+        jdbcTemplate.batchUpdate(INCREMENT_UNREAD, sortedRecipients, sortedRecipients.size(),
+                (ps, userId) -> ps.setInt(1, userId));
+
+        notificationDispatcher.dispatch(dtos);
+        return dtos;
+    }
+
+    @Transactional
+    public List<NotificationDTO> createUpdateNotifications(Collection<Integer> recipientIds, String title, String message,
+                                                           Long relatedEntityId, String relatedEntityType) {
+        return createNotifications(recipientIds,
+                new NotificationTemplate(title, message, "Updates", relatedEntityId, relatedEntityType));
+    }
+
     // Convenience helpers for common types
+    @Transactional
     public NotificationDTO createInviteNotification(Integer userId, String title, String message,
                                                     Long relatedEntityId, String relatedEntityType) {
         return createNotification(userId, title, message, "Invites", relatedEntityId, relatedEntityType);
     }
 
+    @Transactional
     public NotificationDTO createReminderNotification(Integer userId, String title, String message,
                                                       Long relatedEntityId, String relatedEntityType) {
         return createNotification(userId, title, message, "Reminders", relatedEntityId, relatedEntityType);
     }
 
+    @Transactional
     public NotificationDTO createUpdateNotification(Integer userId, String title, String message,
                                                     Long relatedEntityId, String relatedEntityType) {
         return createNotification(userId, title, message, "Updates", relatedEntityId, relatedEntityType);
@@ -74,11 +171,62 @@ public class NotificationService {
         return notifications.stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
+    /**
+     * Keyset-paginated inbox, newest first. {@code cursor} is the opaque {@code nextCursor}
+     * of the previous page.
+     */
+    public NotificationPageDTO getInbox(Integer userId, String cursor, Integer size) {
+        int pageSize = size == null ? INBOX_PAGE_SIZE : Math.max(1, Math.min(size, INBOX_MAX_PAGE_SIZE));
+        // One extra row tells us whether there is a next page without a count query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        String[] cursorParts = decodeCursor(cursor);
+        List<Notification> rows = cursorParts == null
+                ? notificationRepository.findInboxFirstPage(userId, limit)
+                : notificationRepository.findInboxPageBefore(userId,
+                        LocalDateTime.parse(cursorParts[0]), Integer.valueOf(cursorParts[1]), limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Notification> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            Notification last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new NotificationPageDTO(
+                page.stream().map(this::convertToDTO).collect(Collectors.toList()), nextCursor, hasMore);
+    }
+
+    private static String encodeCursor(LocalDateTime createdAt, Integer id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            LocalDateTime.parse(parts[0]);
+            Integer.valueOf(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     public List<NotificationDTO> getUnreadNotificationsByUserId(Integer userId) {
         List<Notification> notifications = notificationRepository.findByUserIdAndIsReadOrderByCreatedAtDesc(userId, false);
         return notifications.stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
+    public long getUnreadCount(Integer userId) {
+        return counterRepository.findById(userId)
+                .map(NotificationCounter::getUnreadCount)
+                .orElse(0L);
+    }
+
     @Transactional
     public void markAsRead(Integer notificationId) {
         Integer authenticatedUserId = getAuthenticatedUserId();
@@ -87,8 +235,22 @@ public class NotificationService {
         if (!authenticatedUserId.equals(notification.getUserId())) {
             throw new RuntimeException("Unauthorized: Cannot mark notification as read for another user");
         }
-        notification.setIsRead(true);
-        notificationRepository.save(notification);
+        int updated = notificationRepository.markReadByUserIdAndIdIn(authenticatedUserId, List.of(notificationId));
+        counterRepository.adjustUnreadCount(authenticatedUserId, -updated);
+    }
+
+    /**
+     * Marks the given notifications read in one UPDATE. Ids that belong to other users or
+     * are already read are skipped.
+     */
+    @Transactional
+    public void markSelectedAsRead(List<Integer> notificationIds) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return;
+        }
+        Integer authenticatedUserId = getAuthenticatedUserId();
+        int updated = notificationRepository.markReadByUserIdAndIdIn(authenticatedUserId, notificationIds);
+        counterRepository.adjustUnreadCount(authenticatedUserId, -updated);
     }
 
     @Transactional
@@ -97,11 +259,8 @@ public class NotificationService {
         if (!authenticatedUserId.equals(userId)) {
             throw new RuntimeException("Unauthorized: Cannot modify notifications for another user");
         }
-        List<Notification> notifications = notificationRepository.findByUserIdAndIsReadOrderByCreatedAtDesc(userId, false);
-        for (Notification notification : notifications) {
-            notification.setIsRead(true);
-        }
-        notificationRepository.saveAll(notifications);
+        int updated = notificationRepository.markAllReadByUserId(userId);
+        counterRepository.adjustUnreadCount(userId, -updated);
     }
 
     @Transactional
@@ -124,6 +283,32 @@ public class NotificationService {
             }
         }
         notificationRepository.deleteAllByIdIn(notificationIds);
+        long unreadDeleted = notifications.stream().filter(n -> !Boolean.TRUE.equals(n.getIsRead())).count();
+        if (unreadDeleted > 0) {
+            counterRepository.adjustUnreadCount(authenticatedUserId, -unreadDeleted);
+        }
+    }
+
+    /**
+     * Fills the unread counters from the notifications table on the first start after they
+     * were added. Later starts skip the full scan; {@link #repairUnreadCounts} rebuilds them
+     * on demand.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initUnreadCounts() {
+        if (migrationRepository.existsById(UNREAD_COUNTS_MIGRATION)) {
+            return;
+        }
+        repairUnreadCounts();
+        migrationRepository.save(new DataMigration(UNREAD_COUNTS_MIGRATION));
+    }
+
+    /** Rebuilds every unread counter from the notifications table; scans the whole table. */
+    @Transactional
+    public void repairUnreadCounts() {
+        counterRepository.clearUnreadCounts();
+        counterRepository.recountUnreadCounts();
     }
 
     private Integer getAuthenticatedUserId() {
@@ -131,12 +316,19 @@ public class NotificationService {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new RuntimeException("User not authenticated");
         }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getUser().getId();
+        }
         String email = authentication.getName();
         User user = usersRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return user.getId();
     }
 
+    public record NotificationTemplate(String title, String message, String type,
+                                       Long relatedEntityId, String relatedEntityType) {
+    }
+
     private NotificationDTO convertToDTO(Notification notification) {
         return new NotificationDTO(
                 notification.getId(),
@@ -0,0 +1,162 @@
+package com.studyGroup.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The cold tier: an S3 bucket, or an S3-compatible server such as MinIO, addressed path-style
+ * as {@code <endpoint>/<bucket>/<key>} (PUT, GET, HEAD, DELETE). Requests are signed with
+ * AWS Signature Version 4 when {@code documents.storage.cold.access-key} is set, and sent
+ * anonymously otherwise (a bucket policy must then admit the app). Bodies are streamed and
+ * sent as {@code UNSIGNED-PAYLOAD}, so use an https endpoint outside a trusted network.
+ * Disabled, and tiering with it, while {@code documents.storage.cold.endpoint} is empty.
+ */
+@Component
+public class ObjectDocumentStore implements DocumentStore {
+
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final String baseUrl;
+    private final S3RequestSigner signer;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    public ObjectDocumentStore(@Value("${documents.storage.cold.endpoint:}") String endpoint,
+                               @Value("${documents.storage.cold.bucket:documents}") String bucket,
+                               @Value("${documents.storage.cold.region:us-east-1}") String region,
+                               @Value("${documents.storage.cold.access-key:}") String accessKey,
+                               @Value("${documents.storage.cold.secret-key:}") String secretKey) {
+        this.baseUrl = endpoint.isBlank() ? null : endpoint.replaceAll("/+$", "") + "/" + bucket + "/";
+        this.signer = accessKey.isBlank() ? null : new S3RequestSigner(accessKey, secretKey, region);
+    }
+
+    public boolean isEnabled() {
+        return baseUrl != null;
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        if (exists(key)) {
+            return;
+        }
+        HttpResponse<Void> response = send(request("PUT", key, HttpRequest.BodyPublishers.ofFile(source)),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Object store PUT " + key + " failed with status " + response.statusCode());
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        HttpResponse<Void> response = send(request("HEAD", key, HttpRequest.BodyPublishers.noBody()),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return false;
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Object store HEAD " + key + " failed with status " + response.statusCode());
+        }
+        return true;
+    }
+
+    @Override
+    public Resource getResource(String key, long size) {
+        return new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return "object [" + key + "]";
+            }
+
+            @Override
+            public String getFilename() {
+                return key;
+            }
+
+            @Override
+            public boolean exists() {
+                return true;
+            }
+
+            @Override
+            public long contentLength() {
+                return size;
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                HttpResponse<InputStream> response = send(request("GET", key, HttpRequest.BodyPublishers.noBody()),
+                        HttpResponse.BodyHandlers.ofInputStream());
+                if (response.statusCode() != 200) {
+                    response.body().close();
+                    throw new IOException("Object store GET " + key + " failed with status " + response.statusCode());
+                }
+                return response.body();
+            }
+        };
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<Void> response = send(request("DELETE", key, HttpRequest.BodyPublishers.noBody()),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2 && response.statusCode() != 404) {
+            throw new IOException("Object store DELETE " + key + " failed with status " + response.statusCode());
+        }
+    }
+
+    private HttpRequest.Builder request(String method, String key, HttpRequest.BodyPublisher body) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("No object store is configured");
+        }
+        URI uri = URI.create(baseUrl + key);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .method(method, body)
+                .timeout(Duration.ofMinutes(5));
+        if (signer != null) {
+            String amzDate = AMZ_DATE.format(Instant.now());
+            SortedMap<String, String> signed = new TreeMap<>();
+            signed.put("host", hostHeader(uri));
+            signed.put("x-amz-content-sha256", S3RequestSigner.UNSIGNED_PAYLOAD);
+            signed.put("x-amz-date", amzDate);
+            builder.header("x-amz-content-sha256", S3RequestSigner.UNSIGNED_PAYLOAD)
+                    .header("x-amz-date", amzDate)
+                    .header("Authorization", signer.authorization(method, uri.getRawPath(), "", signed,
+                            S3RequestSigner.UNSIGNED_PAYLOAD, amzDate));
+        }
+        return builder;
+    }
+
+    // The Host header the client sends itself: the port only when it is not the scheme's default
+    private static String hostHeader(URI uri) {
+        int port = uri.getPort();
+        boolean defaultPort = port < 0 || ("https".equals(uri.getScheme()) ? port == 443 : port == 80);
+        return defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest.Builder request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return httpClient.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling the object store", e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.controller.PollVoteDTO;
+import com.studyGroup.backend.dto.PollOptionDTO;
+import com.studyGroup.backend.repository.PollOptionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces live vote updates. Votes only mark their poll dirty; a scheduled tick sends at
+ * most one {@link PollVoteDTO} per dirty poll. The tick interval is
+ * {@code 1000 / poll.broadcast.max-updates-per-second} ms.
+ *
+ * Each update carries the current count of every option of the poll, read from the
+ * database at the tick, not only the votes this node saw. A newer update therefore fully
+ * supersedes an older one whichever node sent it, which lets the outbound flow control
+ * coalesce vote frames per poll for slow sessions without losing counts.
+ *
+ * A vote marks its poll only after its transaction commits, so the tick that follows reads
+ * a count that includes it, and a vote that rolls back is never announced.
+ */
+@Service
+@RequiredArgsConstructor
+public class PollVoteBroadcaster {
+
+    private final ClusterBroadcastService broadcastService;
+    private final PollOptionRepository pollOptionRepository;
+
+    // pollId -> pending update
+    private final Map<Long, PendingPollUpdate> pending = new ConcurrentHashMap<>();
+
+    /** Marks the poll dirty once the surrounding transaction commits. */
+    public void onVote(Long groupId, Long pollId, Long optionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.put(pollId, new PendingPollUpdate(groupId, optionId));
+                }
+            });
+        } else {
+            pending.put(pollId, new PendingPollUpdate(groupId, optionId));
+        }
+    }
+
+    @Scheduled(fixedRateString = "#{1000 / ${poll.broadcast.max-updates-per-second:4}}")
+    public void flush() {
+        for (Long pollId : pending.keySet()) {
+            // A vote arriving after this remove marks the poll dirty again for the next tick
+            PendingPollUpdate update = pending.remove(pollId);
+            if (update == null) {
+                continue;
+            }
+            try {
+                broadcastService.broadcastToGroupCoalescible(update.groupId(), snapshot(pollId, update.lastOptionId()), "poll:" + pollId);
+            } catch (RuntimeException e) {
+                System.err.println("[PollVoteBroadcaster] Could not broadcast votes of poll " + pollId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private PollVoteDTO snapshot(Long pollId, Long lastOptionId) {
+        List<PollOptionDTO> options = new ArrayList<>();
+        Long lastCount = null;
+        for (Object[] row : pollOptionRepository.findVoteCountsByPollId(pollId)) {
+            Long optionId = (Long) row[0];
+            Long count = (Long) row[1];
+            options.add(new PollOptionDTO(optionId, null, count));
+            if (optionId.equals(lastOptionId)) {
+                lastCount = count;
+            }
+        }
+        PollVoteDTO dto = new PollVoteDTO();
+        dto.setMessageType("POLL_VOTE");
+        dto.setPollId(pollId);
+        dto.setOptionId(lastOptionId);
+        dto.setVoteCount(lastCount);
+        dto.setOptions(options);
+        return dto;
+    }
+
+    private record PendingPollUpdate(Long groupId, Long lastOptionId) {
+    }
+}
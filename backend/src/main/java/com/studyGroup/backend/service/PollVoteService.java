@@ -0,0 +1,44 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.dto.PollOptionDTO;
+import com.studyGroup.backend.model.PollOption;
+import com.studyGroup.backend.model.PollVote;
+import com.studyGroup.backend.repository.PollOptionRepository;
+import com.studyGroup.backend.repository.PollVoteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class PollVoteService {
+
+    private final PollOptionRepository pollOptionRepository;
+    private final PollVoteRepository pollVoteRepository;
+    private final PollVoteBroadcaster pollVoteBroadcaster;
+
+    /**
+     * Records a single vote for {@code voterId} and bumps the option's count with an atomic
+     * UPDATE. A second vote by the same user on the same poll is rejected; if two requests
+     * race past the exists check, the (poll_id, user_id) unique constraint rejects the loser
+     * with a {@link org.springframework.dao.DataIntegrityViolationException}.
+     */
+    @Transactional
+    public PollOptionDTO vote(Long pollId, Long optionId, Integer voterId) {
+        PollOption option = pollOptionRepository.findByIdAndPoll_Id(optionId, pollId)
+                .orElseThrow(() -> new RuntimeException("Option not found"));
+        Long groupId = option.getPoll().getGroup().getGroupId();
+        String optionText = option.getOptionText();
+
+        if (pollVoteRepository.existsByPollIdAndUserId(pollId, voterId)) {
+            throw new IllegalStateException("You have already voted in this poll");
+        }
+        pollVoteRepository.saveAndFlush(new PollVote(pollId, optionId, voterId));
+
+        pollOptionRepository.incrementVoteCount(optionId);
+        Long voteCount = pollOptionRepository.findVoteCountById(optionId);
+
+        pollVoteBroadcaster.onVote(groupId, pollId, optionId);
+        return new PollOptionDTO(optionId, optionText, voteCount);
+    }
+}
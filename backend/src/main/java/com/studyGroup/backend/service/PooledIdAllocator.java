@@ -0,0 +1,75 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.model.GroupMessage;
+import com.studyGroup.backend.model.Notification;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out entity ids before the row exists, using the same pooled (hi/lo) table
+ * generator Hibernate uses for regular saves, so ids never collide between JDBC batch
+ * inserts and JPA inserts. Only one row update per allocation block reaches the database.
+ *
+ * Used for {@link GroupMessage} (write-behind chat pipeline) and {@link Notification}
+ * (bulk fan-out).
+ */
+@Component
+public class PooledIdAllocator {
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PooledIdAllocator(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Both tables used to be auto-increment. Seed each generator row above the highest
+     * existing id so the first pooled block starts after it.
+     */
+    @PostConstruct
+    public void seed() {
+        seed("group_messages", GroupMessage.ID_ALLOCATION_SIZE);
+        seed("notifications", Notification.ID_ALLOCATION_SIZE);
+    }
+
+    private void seed(String table, int allocationSize) {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM id_generators WHERE sequence_name = ?", Integer.class, table);
+        if (rows != null && rows > 0) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        try {
+            jdbcTemplate.update("INSERT INTO id_generators (sequence_name, next_val) VALUES (?, ?)",
+                    table, maxId + allocationSize);
+        } catch (DuplicateKeyException e) {
+            // Another node seeded it first
+        }
+    }
+
+    public long nextId(Class<?> entityClass) {
+        return nextIds(entityClass, 1)[0];
+    }
+
+    public long[] nextIds(Class<?> entityClass, int count) {
+        IdentifierGenerator generator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(entityClass)
+                .getGenerator();
+        long[] ids = new long[count];
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (int i = 0; i < count; i++) {
+                ids[i] = ((Number) generator.generate((SharedSessionContractImplementor) session, null)).longValue();
+            }
+        }
+        return ids;
+    }
+}
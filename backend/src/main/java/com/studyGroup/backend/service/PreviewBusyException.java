@@ -0,0 +1,16 @@
+package com.studyGroup.backend.service;
+
+/**
+ * Too many previews are already being rendered on demand; the client should retry shortly.
+ * Mapped to 503 with Retry-After by the preview endpoint.
+ */
+public class PreviewBusyException extends RuntimeException {
+
+    public PreviewBusyException(String message) {
+        super(message);
+    }
+
+    public PreviewBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
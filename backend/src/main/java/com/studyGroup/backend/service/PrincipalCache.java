@@ -0,0 +1,59 @@
+package com.studyGroup.backend.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.repository.UsersRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, TTL-based cache of {@link User} rows keyed by token subject (email), so
+ * authenticating a request does not query the users table on every call.
+ *
+ * Entries are evicted explicitly when the user changes on this node
+ * ({@link UserService#updateUser}, {@link UserService#changePassword}); the TTL bounds
+ * how long other nodes can serve a stale copy. Cached instances are detached and shared:
+ * callers must not mutate them.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UsersRepository usersRepository;
+    private final Cache<String, User> users;
+
+    public PrincipalCache(UsersRepository usersRepository, MeterRegistry meterRegistry,
+                          @Value("${app.auth.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${app.auth.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.usersRepository = usersRepository;
+        this.users = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, users, "auth.principals");
+    }
+
+    /**
+     * Returns the user for the given email, or null if there is none. Misses are not cached,
+     * so a user registered a moment ago is found on the next call.
+     */
+    public User get(String email) {
+        User user = users.getIfPresent(email);
+        if (user == null) {
+            user = usersRepository.findByEmail(email).orElse(null);
+            if (user != null) {
+                users.put(email, user);
+            }
+        }
+        return user;
+    }
+
+    public void invalidate(String email) {
+        users.invalidate(email);
+    }
+}
@@ -1,18 +1,17 @@
 package com.studyGroup.backend.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.studyGroup.backend.model.Course;
+import com.studyGroup.backend.model.Enrollment;
 import com.studyGroup.backend.model.Profile;
+import com.studyGroup.backend.repository.EnrollmentRepository;
 import com.studyGroup.backend.repository.ProfileRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @Service
 public class ProfileService {
@@ -29,7 +28,14 @@ public class ProfileService {
     @Autowired
     private com.studyGroup.backend.repository.UsersRepository usersRepository;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private EnrollmentIndex enrollmentIndex;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
 
     public Optional<Profile> getProfileByEmail(String email) {
         // This method correctly uses the repository to fetch the Profile by email.
@@ -51,118 +57,89 @@ public class ProfileService {
     }
 
     /**
-     * Helper to deserialize the JSON string of enrolled course IDs into a Java Set.
+     * Loads the profile and user for an enrollment operation, migrating the profile's
+     * legacy JSON enrollments into the table first if the background backfill has not
+     * reached it yet.
      */
-    private Set<String> getEnrolledCourseIdsAsSet(Profile profile) throws IOException {
-        String enrolledCoursesJson = profile.getEnrolledCourseIds();
-        if (enrolledCoursesJson == null || enrolledCoursesJson.isEmpty() || enrolledCoursesJson.equals("[]")) {
-            return new HashSet<>();
-        }
-        return objectMapper.readValue(enrolledCoursesJson, new TypeReference<Set<String>>() {
-        });
+    private Profile loadMigratedProfile(String email, com.studyGroup.backend.model.User user) {
+        Profile profile = profileRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User profile not found."));
+        enrollmentService.ensureMigrated(profile, user.getId());
+        return profile;
+    }
+
+    private com.studyGroup.backend.model.User loadUser(String email) {
+        return usersRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found."));
     }
 
+    @Transactional
     public Profile enrollInCourse(String email, String courseId) {
-        Profile profile = profileRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User profile not found."));
+        com.studyGroup.backend.model.User user = loadUser(email);
+        Profile profile = loadMigratedProfile(email, user);
 
         // Validate that the course exists before enrolling
         Course course = courseService.getCourseById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found."));
 
-        try {
-            Set<String> enrolledCourseIds = getEnrolledCourseIdsAsSet(profile);
-
-            // Enrollment logic
-            if (!enrolledCourseIds.contains(courseId)) {
-                enrolledCourseIds.add(courseId);
-                profile.setEnrolledCourseIds(objectMapper.writeValueAsString(enrolledCourseIds));
-                Profile savedProfile = profileRepository.save(profile);
-
-                // Send Notification
-                com.studyGroup.backend.model.User user = usersRepository.findByEmail(email).orElse(null);
-                if (user != null) {
-                    notificationService.createNotification(
-                            user.getId(),
-                            "Course Enrollment",
-                            "You have successfully enrolled in " + course.getCourseName(),
-                            "Updates",
-                            null,
-                            null);
-                }
-
-                return savedProfile;
-            }
-            // Return existing profile if already enrolled
+        // Return existing profile if already enrolled
+        if (enrollmentRepository.existsByUserIdAndCourseId(user.getId(), courseId)) {
             return profile;
-        } catch (IOException e) {
-            throw new RuntimeException("Could not update enrolled courses due to a data processing error.", e);
         }
+
+        // A concurrent enrollment that passed the check above fails here on the unique key
+        // (DataIntegrityViolationException, mapped to 409 by the controller)
+        enrollmentRepository.saveAndFlush(new Enrollment(user.getId(), courseId));
+        Profile savedProfile = enrollmentService.syncProfileMirror(profile, user.getId());
+        // Applied after commit, so a rolled-back enrollment never reaches the index
+        enrollmentIndex.enroll(user.getId(), courseId);
+
+        // Send Notification
+        notificationService.createNotification(
+                user.getId(),
+                "Course Enrollment",
+                "You have successfully enrolled in " + course.getCourseName(),
+                "Updates",
+                null,
+                null);
+
+        return savedProfile;
     }
 
+    @Transactional
     public Profile unenrollFromCourse(String email, String courseId) {
-        Profile profile = profileRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User profile not found."));
+        com.studyGroup.backend.model.User user = loadUser(email);
+        Profile profile = loadMigratedProfile(email, user);
 
-        // Fetch course name for notification
-        String courseName = "the course";
-        Optional<Course> courseOpt = courseService.getCourseById(courseId);
-        if (courseOpt.isPresent()) {
-            courseName = courseOpt.get().getCourseName();
+        // Return existing profile if not enrolled in that course
+        if (enrollmentRepository.deleteByUserIdAndCourseId(user.getId(), courseId) == 0) {
+            return profile;
         }
 
-        try {
-            Set<String> enrolledCourseIds = getEnrolledCourseIdsAsSet(profile);
-
-            if (enrolledCourseIds.remove(courseId)) {
-                profile.setEnrolledCourseIds(objectMapper.writeValueAsString(enrolledCourseIds));
-                Profile savedProfile = profileRepository.save(profile);
-
-                // Send Notification
-                com.studyGroup.backend.model.User user = usersRepository.findByEmail(email).orElse(null);
-                if (user != null) {
-                    notificationService.createNotification(
-                            user.getId(),
-                            "Course Unenrollment",
-                            "You have successfully unenrolled from " + courseName,
-                            "Updates",
-                            null,
-                            null);
-                }
-
-                return savedProfile;
-            } else {
-                // Return existing profile if not enrolled in that course
-                return profile;
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Could not update enrolled courses due to a data processing error.", e);
-        }
-    }
+        Profile savedProfile = enrollmentService.syncProfileMirror(profile, user.getId());
+        enrollmentIndex.unenroll(user.getId(), courseId);
 
-    public java.util.List<Course> getEnrolledCourses(String email) {
-        Profile profile = profileRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User profile not found."));
+        // Fetch course name for notification
+        String courseName = courseService.getCourseById(courseId)
+                .map(Course::getCourseName)
+                .orElse("the course");
+
+        // Send Notification
+        notificationService.createNotification(
+                user.getId(),
+                "Course Unenrollment",
+                "You have successfully unenrolled from " + courseName,
+                "Updates",
+                null,
+                null);
+
+        return savedProfile;
+    }
 
-        try {
-            Set<String> enrolledIds = getEnrolledCourseIdsAsSet(profile);
-            // Fetch all courses and filter by ID (simplest approach given current
-            // CourseService)
-            // Or better: Iterate IDs and fetch individual courses if few, or fetch all and
-            // filter.
-            // Given typical usage, fetching all and filtering in memory is okay, or
-            // fetching individually.
-            // Let's use existing courseService.getAllCourses() and filter for now as it's
-            // safest without adding repo methods.
-            // Actually, querying repository by ID list is better but sticking to service
-            // layer:
-
-            java.util.List<Course> allCourses = courseService.getAllCourses();
-            return allCourses.stream()
-                    .filter(c -> enrolledIds.contains(c.getCourseId()))
-                    .collect(java.util.stream.Collectors.toList());
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to retrieve enrolled courses.", e);
-        }
+    @Transactional
+    public List<Course> getEnrolledCourses(String email) {
+        com.studyGroup.backend.model.User user = loadUser(email);
+        loadMigratedProfile(email, user);
+        return enrollmentRepository.findCoursesByUserId(user.getId());
     }
-}
\ No newline at end of file
+}
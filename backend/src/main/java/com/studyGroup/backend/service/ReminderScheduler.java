@@ -0,0 +1,368 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.model.CalendarEvent;
+import com.studyGroup.backend.model.EventReminder;
+import com.studyGroup.backend.model.EventReminderDelivery;
+import com.studyGroup.backend.model.GroupMember;
+import com.studyGroup.backend.repository.CalendarEventRepository;
+import com.studyGroup.backend.repository.EventReminderDeliveryRepository;
+import com.studyGroup.backend.repository.EventReminderRepository;
+import com.studyGroup.backend.repository.GroupMemberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Event-driven calendar reminders, replacing the minutely polling job.
+ *
+ * Each event gets one {@link EventReminder} row per configured offset when it is created
+ * (rows are replaced when the start time changes and dropped when the event is deleted).
+ * That table, indexed on (status, due_at), is the durable due-time queue. Reminders due
+ * within the next {@code calendar.reminders.horizon-ms} are armed on an in-memory timer so
+ * they fire at their due time; a periodic load arms the next window and, after a restart,
+ * fires anything that came due while the app was down.
+ *
+ * Firing claims the row with a conditional update, so a reminder fires once even with
+ * several nodes armed. Members are notified in parallel; each member's delivery is
+ * recorded under a (reminder, user) key in the same transaction as the member's
+ * notification and queued email, so a fan-out interrupted by a crash is resumed without
+ * duplicates and without skipping anyone. A reminder whose event is gone by the time it
+ * fires is marked CANCELLED. Drift (actual fire time minus due time) is recorded as
+ * {@code calendar.reminder.drift}.
+ */
+@Service
+public class ReminderScheduler {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    @Value("${calendar.reminders.offsets-minutes:60}")
+    private String offsetsMinutes;
+
+    @Value("${calendar.reminders.horizon-ms:300000}")
+    private long horizonMs;
+
+    @Value("${calendar.reminders.fanout-threads:4}")
+    private int fanoutThreads;
+
+    // A SENDING claim older than this is assumed to belong to a dead node
+    @Value("${calendar.reminders.claim-timeout-ms:300000}")
+    private long claimTimeoutMs;
+
+    @Autowired
+    private EventReminderRepository reminderRepository;
+
+    @Autowired
+    private EventReminderDeliveryRepository deliveryRepository;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, Armed> armed = new ConcurrentHashMap<>();
+    private List<Integer> offsets;
+    private Timer driftTimer;
+    private ScheduledExecutorService timer;
+    private ExecutorService firePool;
+    private ExecutorService fanoutPool;
+
+    @PostConstruct
+    public void start() {
+        offsets = Arrays.stream(offsetsMinutes.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(Integer::valueOf)
+                .sorted()
+                .collect(Collectors.toList());
+        driftTimer = Timer.builder("calendar.reminder.drift").register(meterRegistry);
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "reminder-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        // Firing blocks on its fan-out, so it gets its own threads to keep the timer punctual
+        AtomicInteger fireThreadNumber = new AtomicInteger();
+        firePool = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "reminder-fire-" + fireThreadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger threadNumber = new AtomicInteger();
+        fanoutPool = Executors.newFixedThreadPool(fanoutThreads, r -> {
+            Thread t = new Thread(r, "reminder-fanout-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+        firePool.shutdownNow();
+        fanoutPool.shutdownNow();
+    }
+
+    /**
+     * Creates and arms the reminders for a newly created event. If every offset is already
+     * in the past but the event has not started, a single immediate reminder is created.
+     */
+    public void schedule(CalendarEvent event) {
+        LocalDateTime now = nowUtc();
+        LocalDateTime start = event.getStartTime();
+        if (!start.isAfter(now)) {
+            return;
+        }
+        List<EventReminder> reminders = new ArrayList<>();
+        for (Integer offset : offsets) {
+            LocalDateTime dueAt = start.minusMinutes(offset);
+            if (dueAt.isAfter(now)) {
+                reminders.add(new EventReminder(event.getId(), offset, dueAt));
+            }
+        }
+        if (reminders.isEmpty()) {
+            int minutesLeft = (int) Math.max(1, Duration.between(now, start).toMinutes());
+            reminders.add(new EventReminder(event.getId(), minutesLeft, now));
+        }
+        for (EventReminder reminder : reminderRepository.saveAll(reminders)) {
+            arm(reminder);
+        }
+    }
+
+    /**
+     * Replaces the reminders of an event whose start time changed.
+     */
+    public void reschedule(CalendarEvent event) {
+        cancel(event.getId());
+        schedule(event);
+    }
+
+    /**
+     * Drops the reminders of an event (deleted or moved).
+     */
+    public void cancel(Long eventId) {
+        armed.entrySet().removeIf(entry -> {
+            if (entry.getValue().eventId().equals(eventId)) {
+                entry.getValue().future().cancel(false);
+                return true;
+            }
+            return false;
+        });
+        reminderRepository.deleteByEventId(eventId);
+    }
+
+    /**
+     * Startup: creates reminders for upcoming events that predate the reminder table, then
+     * arms the first window (including anything missed while down).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        widenStatusColumn();
+        List<CalendarEvent> upcoming = calendarEventRepository.findByStartTimeGreaterThanEqual(nowUtc());
+        if (!upcoming.isEmpty()) {
+            Set<Long> withReminders = new HashSet<>(reminderRepository.findEventIdsWithReminders(
+                    upcoming.stream().map(CalendarEvent::getId).collect(Collectors.toList())));
+            for (CalendarEvent event : upcoming) {
+                if (!withReminders.contains(event.getId()) && !legacyReminderSent(event)) {
+                    schedule(event);
+                }
+            }
+        }
+        loadDueWindow();
+    }
+
+    // Tables created before CANCELLED existed have status as ENUM('PENDING','SENDING','SENT');
+    // ddl-auto never changes an existing column
+    private void widenStatusColumn() {
+        Integer enumColumns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() " +
+                "AND table_name = 'event_reminders' AND column_name = 'status' AND data_type = 'enum'", Integer.class);
+        if (enumColumns != null && enumColumns > 0) {
+            jdbcTemplate.execute("ALTER TABLE event_reminders MODIFY status VARCHAR(16) NOT NULL");
+            System.out.println("[Reminder] Changed event_reminders.status to VARCHAR");
+        }
+    }
+
+    /**
+     * Arms every pending reminder due before the end of the next window, and takes over
+     * fan-outs abandoned by a dead node. Runs at half the horizon so windows overlap.
+     */
+    @Scheduled(fixedDelayString = "#{${calendar.reminders.horizon-ms:300000} / 2}",
+               initialDelayString = "#{${calendar.reminders.horizon-ms:300000} / 2}")
+    public void loadDueWindow() {
+        LocalDateTime now = nowUtc();
+        for (EventReminder reminder : reminderRepository.findByStatusAndDueAtBefore(
+                EventReminder.Status.PENDING, now.plus(Duration.ofMillis(horizonMs)))) {
+            arm(reminder);
+        }
+        for (EventReminder reminder : reminderRepository.findByStatusAndClaimedAtBefore(
+                EventReminder.Status.SENDING, now.minus(Duration.ofMillis(claimTimeoutMs)))) {
+            arm(reminder);
+        }
+    }
+
+    private void arm(EventReminder reminder) {
+        long delayMs = Duration.between(nowUtc(), reminder.getDueAt()).toMillis();
+        if (delayMs > horizonMs) {
+            // Picked up by a later loadDueWindow()
+            return;
+        }
+        armed.compute(reminder.getId(), (id, existing) -> existing != null && !existing.future().isDone()
+                ? existing
+                : new Armed(reminder.getEventId(), timer.schedule(
+                        () -> firePool.execute(() -> fire(id)), Math.max(0, delayMs), TimeUnit.MILLISECONDS)));
+    }
+
+    private void fire(Long reminderId) {
+        armed.remove(reminderId);
+        try {
+            LocalDateTime now = nowUtc();
+            if (reminderRepository.claim(reminderId, now, now.minus(Duration.ofMillis(claimTimeoutMs))) == 0) {
+                return;
+            }
+            ReminderMessage message = transactionTemplate.execute(status -> loadMessage(reminderId));
+            if (message == null) {
+                reminderRepository.markSent(reminderId, now, EventReminder.Status.CANCELLED);
+                return;
+            }
+            driftTimer.record(Duration.between(message.dueAt(), now));
+
+            Set<Integer> alreadyDelivered = new HashSet<>(deliveryRepository.findUserIdsByReminderId(reminderId));
+            List<CompletableFuture<Void>> deliveries = message.recipients().stream()
+                    .filter(recipient -> !alreadyDelivered.contains(recipient.userId()))
+                    .map(recipient -> CompletableFuture.runAsync(() -> deliver(reminderId, message, recipient), fanoutPool))
+                    .collect(Collectors.toList());
+            CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).join();
+
+            reminderRepository.markSent(reminderId, nowUtc(), EventReminder.Status.SENT);
+            System.out.println("[Reminder] " + message.timeFrame() + " reminder sent for event: " + message.topic());
+        } catch (RuntimeException e) {
+            // Left in SENDING; loadDueWindow() retries it once the claim goes stale
+            System.err.println("[Reminder] Failed to fire reminder " + reminderId + ": " + e.getMessage());
+        }
+    }
+
+    private ReminderMessage loadMessage(Long reminderId) {
+        EventReminder reminder = reminderRepository.findById(reminderId).orElse(null);
+        if (reminder == null) {
+            return null;
+        }
+        CalendarEvent event = calendarEventRepository.findById(reminder.getEventId()).orElse(null);
+        if (event == null) {
+            return null;
+        }
+        String timeFrame = reminder.getOffsetMinutes() % 60 == 0
+                ? plural(reminder.getOffsetMinutes() / 60, "hour")
+                : plural(reminder.getOffsetMinutes(), "minute");
+
+        StringBuilder body = new StringBuilder();
+        body.append("Dear Group Member,\n\n");
+        body.append("This is a reminder that an event in your group is starting in less than ").append(timeFrame).append(".\n\n");
+        CalendarEventService.appendCommonEventLines(body, event);
+
+        List<Recipient> recipients = new ArrayList<>();
+        for (GroupMember member : groupMemberRepository.findByGroupWithUser(event.getAssociatedGroup())) {
+            recipients.add(new Recipient(member.getUser().getId(), member.getUser().getEmail()));
+        }
+        return new ReminderMessage(
+                reminder.getDueAt(),
+                event.getId(),
+                event.getTopic(),
+                timeFrame,
+                "Reminder: Event Starting in " + timeFrame + " - " + event.getTopic(),
+                body.toString(),
+                "Reminder: '" + event.getTopic() + "' starts at "
+                        + CalendarEventService.formatTimeRangeIST(event.getStartTime(), event.getEndTime())
+                        + " in '" + event.getAssociatedGroup().getName() + "'.",
+                recipients);
+    }
+
+    private void deliver(Long reminderId, ReminderMessage message, Recipient recipient) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Idempotency key first: if another attempt already delivered, stop here
+                deliveryRepository.saveAndFlush(new EventReminderDelivery(reminderId, recipient.userId()));
+                notificationService.createReminderNotification(
+                        recipient.userId(),
+                        "Upcoming session reminder",
+                        message.notificationText(),
+                        message.eventId(),
+                        "CALENDAR_EVENT");
+                // The outbox row commits with the key, so a failure above leaves nothing queued
+                emailService.queueEmail(recipient.email(), message.subject(), message.emailBody());
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Delivered by an earlier attempt
+        }
+    }
+
+    // Set by the old polling job; such events already got their reminder
+    private static boolean legacyReminderSent(CalendarEvent event) {
+        return Boolean.TRUE.equals(event.getReminder1HourSent())
+                || Boolean.TRUE.equals(event.getReminder10MinSent())
+                || Boolean.TRUE.equals(event.getReminder1MinSent());
+    }
+
+    private static String plural(int n, String unit) {
+        return n + " " + unit + (n == 1 ? "" : "s");
+    }
+
+    private static LocalDateTime nowUtc() {
+        return ZonedDateTime.now(UTC).toLocalDateTime();
+    }
+
+    private record Armed(Long eventId, ScheduledFuture<?> future) {
+    }
+
+    private record Recipient(Integer userId, String email) {
+    }
+
+    private record ReminderMessage(LocalDateTime dueAt, Long eventId, String topic, String timeFrame, String subject,
+                                   String emailBody, String notificationText, List<Recipient> recipients) {
+    }
+}
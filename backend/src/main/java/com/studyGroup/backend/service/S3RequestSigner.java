@@ -0,0 +1,83 @@
+package com.studyGroup.backend.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+
+/**
+ * AWS Signature Version 4 for S3 requests, as accepted by S3 and S3-compatible servers
+ * (MinIO, Ceph, R2). Only what {@link ObjectDocumentStore} needs: header-based signing of
+ * single-object requests, with the payload either hashed or sent as {@code UNSIGNED-PAYLOAD}.
+ */
+final class S3RequestSigner {
+
+    static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String SERVICE = "s3";
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+
+    S3RequestSigner(String accessKey, String secretKey, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+    }
+
+    /**
+     * The {@code Authorization} header value for a request.
+     *
+     * @param canonicalUri   the URI-encoded path, e.g. {@code /bucket/key}
+     * @param canonicalQuery the encoded, sorted query string; empty without one
+     * @param headers        every header to sign, by lower-case name; must include
+     *                       {@code host}, {@code x-amz-date} and {@code x-amz-content-sha256}
+     * @param amzDate        the {@code x-amz-date} value, {@code yyyyMMdd'T'HHmmss'Z'} in UTC
+     */
+    String authorization(String method, String canonicalUri, String canonicalQuery,
+                         SortedMap<String, String> headers, String payloadHash, String amzDate) {
+        String signedHeaders = String.join(";", headers.keySet());
+        String canonicalRequest = method + "\n"
+                + canonicalUri + "\n"
+                + canonicalQuery + "\n"
+                + headers.entrySet().stream()
+                        .map(header -> header.getKey() + ":" + header.getValue().trim() + "\n")
+                        .collect(Collectors.joining())
+                + "\n"
+                + signedHeaders + "\n"
+                + payloadHash;
+
+        String date = amzDate.substring(0, 8);
+        String scope = date + "/" + region + "/" + SERVICE + "/aws4_request";
+        String stringToSign = ALGORITHM + "\n" + amzDate + "\n" + scope + "\n" + sha256Hex(canonicalRequest);
+
+        byte[] signingKey = hmac(hmac(hmac(hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date), region), SERVICE), "aws4_request");
+        String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+        return ALGORITHM + " Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature;
+    }
+
+    static String sha256Hex(String data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
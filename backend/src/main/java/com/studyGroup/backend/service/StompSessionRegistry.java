@@ -0,0 +1,195 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.repository.GroupMemberRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authenticated STOMP sessions, the groups each session's user belongs to, and the
+ * session's subscriptions to group topics.
+ *
+ * Memberships are loaded with one query at CONNECT, so SUBSCRIBE and SEND to a group are
+ * authorized from memory. A group missing from the cache (joined after connecting) is
+ * checked against the database once and then cached. Leaving or being removed from a
+ * group, once committed, evicts it from every session of that user and unsubscribes those
+ * sessions from the group's topic at the broker, so no further group frames reach them.
+ */
+@Service
+public class StompSessionRegistry {
+
+    private final GroupMemberRepository groupMemberRepository;
+    private final MessageChannel brokerChannel;
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+    // Bumped before each revoke scans the sessions; lets a membership read tell that it raced one
+    private final AtomicLong revocations = new AtomicLong();
+
+    private final Counter membershipMisses;
+    private final Counter revokedSubscriptions;
+
+    // Lazy: the broker channel is built by the WebSocket configuration, which needs this registry first
+    public StompSessionRegistry(GroupMemberRepository groupMemberRepository,
+                                @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel,
+                                MeterRegistry meterRegistry) {
+        this.groupMemberRepository = groupMemberRepository;
+        this.brokerChannel = brokerChannel;
+        Gauge.builder("stomp.sessions.active", sessions, Map::size).register(meterRegistry);
+        this.membershipMisses = Counter.builder("stomp.sessions.membership.misses").register(meterRegistry);
+        this.revokedSubscriptions = Counter.builder("stomp.sessions.subscriptions.revoked").register(meterRegistry);
+    }
+
+    public void register(String sessionId, User user) {
+        long seen = revocations.get();
+        Set<Long> groupIds = ConcurrentHashMap.newKeySet();
+        groupIds.addAll(groupMemberRepository.findGroupIdsByUserId(user.getId()));
+        SessionState state = new SessionState(user, groupIds, new HashMap<>());
+        sessions.put(sessionId, state);
+        // A revoke that ran while the groups were loading may have missed this session; re-read after it
+        if (revocations.get() != seen) {
+            List<Long> current = groupMemberRepository.findGroupIdsByUserId(user.getId());
+            synchronized (state) {
+                state.groupIds().retainAll(current);
+            }
+        }
+    }
+
+    public User getUser(String sessionId) {
+        SessionState state = sessions.get(sessionId);
+        return state != null ? state.user() : null;
+    }
+
+    public boolean canAccessGroup(String sessionId, Long groupId) {
+        SessionState state = sessions.get(sessionId);
+        if (state == null) {
+            return false;
+        }
+        if (state.groupIds().contains(groupId)) {
+            return true;
+        }
+        // Not cached: only non-members and groups joined since CONNECT get here
+        membershipMisses.increment();
+        long seen = revocations.get();
+        if (groupMemberRepository.existsByGroup_GroupIdAndUser_Id(groupId, state.user().getId())) {
+            state.groupIds().add(groupId);
+            // Same race as in register: the check may predate a revoke that has already scanned
+            if (revocations.get() != seen
+                    && !groupMemberRepository.existsByGroup_GroupIdAndUser_Id(groupId, state.user().getId())) {
+                state.groupIds().remove(groupId);
+                return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Authorizes a SUBSCRIBE to a group's topic and remembers the subscription, so that it
+     * can be cancelled if the user leaves the group. Check and record happen under the
+     * session's lock, so a concurrent revoke either sees the subscription or rejects it.
+     */
+    public boolean subscribeToGroup(String sessionId, String subscriptionId, Long groupId) {
+        SessionState state = sessions.get(sessionId);
+        if (state == null || !canAccessGroup(sessionId, groupId)) {
+            return false;
+        }
+        synchronized (state) {
+            if (!state.groupIds().contains(groupId)) {
+                return false;
+            }
+            if (subscriptionId != null) {
+                state.groupSubscriptions().put(subscriptionId, groupId);
+            }
+            return true;
+        }
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        SessionState state = sessions.get(sessionId);
+        if (state != null && subscriptionId != null) {
+            synchronized (state) {
+                state.groupSubscriptions().remove(subscriptionId);
+            }
+        }
+    }
+
+    /** Revokes the user's access to the group once the surrounding transaction commits. */
+    public void revokeMembership(Integer userId, Long groupId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    revokeNow(userId, groupId);
+                }
+            });
+        } else {
+            revokeNow(userId, groupId);
+        }
+    }
+
+    private void revokeNow(Integer userId, Long groupId) {
+        revocations.incrementAndGet();
+        // Leaving a group is rare compared with message traffic, so a scan beats a second index
+        for (Map.Entry<String, SessionState> session : sessions.entrySet()) {
+            SessionState state = session.getValue();
+            if (!state.user().getId().equals(userId)) {
+                continue;
+            }
+            List<String> cancelled = new ArrayList<>();
+            synchronized (state) {
+                state.groupIds().remove(groupId);
+                state.groupSubscriptions().entrySet().removeIf(subscription -> {
+                    if (subscription.getValue().equals(groupId)) {
+                        cancelled.add(subscription.getKey());
+                        return true;
+                    }
+                    return false;
+                });
+            }
+            for (String subscriptionId : cancelled) {
+                unsubscribeAtBroker(session.getKey(), subscriptionId);
+            }
+        }
+    }
+
+    private void unsubscribeAtBroker(String sessionId, String subscriptionId) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.UNSUBSCRIBE);
+        headers.setSessionId(sessionId);
+        headers.setSubscriptionId(subscriptionId);
+        headers.setLeaveMutable(true);
+        brokerChannel.send(MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()));
+        revokedSubscriptions.increment();
+    }
+
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+    }
+
+    /** @param groupSubscriptions subscription id to group id; guarded by the state's lock */
+    private record SessionState(User user, Set<Long> groupIds, Map<String, Long> groupSubscriptions) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.studyGroup.backend.service;
+
+/**
+ * An upload is larger than the per-file limit or than what is left of its group's storage
+ * quota. Mapped to 413 by the upload endpoints.
+ */
+public class StorageQuotaExceededException extends RuntimeException {
+
+    public StorageQuotaExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,289 @@
+package com.studyGroup.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Cross-node transport over plain TCP between a fixed list of peers, for running several
+ * nodes in simple broker mode without an external broker.
+ *
+ * Every node listens on {@code app.websocket.fanout.tcp.port} and keeps one outbound
+ * connection per peer, so frames from one node reach each peer in publish order. A
+ * connection opens with the shared secret and is closed if it does not match; the port
+ * should still only be reachable from the other nodes. Frames are length-prefixed JSON,
+ * and the payload arrives on the peer as a JSON tree that the broker serializes back to
+ * the same body.
+ *
+ * Each peer has a bounded queue. While a peer is down or falling behind, frames for it
+ * beyond the queue are dropped and counted (websocket.fanout.dropped) rather than holding
+ * up broadcasts on this node; the link reconnects every second until the peer is back.
+ */
+public class TcpFanoutTransport implements FanoutTransport {
+
+    private static final int MAX_FRAME_BYTES = 4 * 1024 * 1024;
+    private static final int CONNECT_TIMEOUT_MS = 2000;
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private final String bindAddress;
+    private final int port;
+    private final List<InetSocketAddress> peers;
+    private final byte[] secret;
+    private final int queueCapacity;
+    private final ObjectMapper objectMapper;
+    private final Counter droppedFrames;
+
+    private final List<PeerLink> links = new ArrayList<>();
+    private final Set<Socket> inbound = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket serverSocket;
+    private volatile boolean running;
+
+    /** @param peers {@code host:port} of every other node; this node's own address is harmless */
+    public TcpFanoutTransport(String bindAddress, int port, List<String> peers, String secret, int queueCapacity,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("app.websocket.fanout.tcp.secret must be set for the tcp fan-out transport");
+        }
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.peers = peers.stream().filter(peer -> !peer.isBlank()).map(TcpFanoutTransport::parsePeer).toList();
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.queueCapacity = queueCapacity;
+        this.objectMapper = objectMapper;
+        this.droppedFrames = Counter.builder("websocket.fanout.dropped").register(meterRegistry);
+    }
+
+    @Override
+    public void publish(Envelope envelope) {
+        byte[] frame;
+        try {
+            ObjectNode wire = objectMapper.createObjectNode();
+            wire.put("origin", envelope.originNodeId());
+            wire.put("destination", envelope.destination());
+            wire.set("payload", objectMapper.valueToTree(envelope.payload()));
+            wire.put("coalesceKey", envelope.coalesceKey());
+            wire.put("publishedAtNanos", envelope.publishedAtNanos());
+            frame = objectMapper.writeValueAsBytes(wire);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("[TcpFanoutTransport] Could not serialize frame for " + envelope.destination() + ": " + e.getMessage());
+            return;
+        }
+        for (PeerLink link : links) {
+            if (!link.queue.offer(frame)) {
+                droppedFrames.increment();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(String nodeId, Consumer<Envelope> listener) {
+        try {
+            serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(new InetSocketAddress(InetAddress.getByName(bindAddress), port));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not listen for fan-out peers on " + bindAddress + ":" + port, e);
+        }
+        running = true;
+        Thread acceptor = new Thread(() -> accept(nodeId, listener), "fanout-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        for (InetSocketAddress peer : peers) {
+            PeerLink link = new PeerLink(peer);
+            links.add(link);
+            link.start();
+        }
+    }
+
+    @Override
+    public synchronized void unsubscribe(String nodeId) {
+        running = false;
+        closeQuietly(serverSocket);
+        for (PeerLink link : links) {
+            link.stop();
+        }
+        links.clear();
+        inbound.forEach(TcpFanoutTransport::closeQuietly);
+    }
+
+    /** Port actually bound; differs from the configured one when that was 0. */
+    public int getLocalPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept(String nodeId, Consumer<Envelope> listener) {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread reader = new Thread(() -> read(socket, nodeId, listener), "fanout-read-" + socket.getRemoteSocketAddress());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("[TcpFanoutTransport] Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void read(Socket socket, String nodeId, Consumer<Envelope> listener) {
+        inbound.add(socket);
+        try (socket; DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            socket.setTcpNoDelay(true);
+            if (!MessageDigest.isEqual(secret, readFrame(in))) {
+                System.err.println("[TcpFanoutTransport] Rejected peer " + socket.getRemoteSocketAddress() + ": wrong secret");
+                return;
+            }
+            while (running) {
+                JsonNode wire = objectMapper.readTree(readFrame(in));
+                String origin = wire.path("origin").asText();
+                if (origin.equals(nodeId)) {
+                    continue;
+                }
+                JsonNode coalesceKey = wire.get("coalesceKey");
+                Envelope envelope = new Envelope(origin, wire.path("destination").asText(), wire.get("payload"),
+                        coalesceKey == null || coalesceKey.isNull() ? null : coalesceKey.asText(),
+                        wire.path("publishedAtNanos").asLong());
+                try {
+                    listener.accept(envelope);
+                } catch (RuntimeException e) {
+                    System.err.println("[TcpFanoutTransport] Could not deliver frame for " + envelope.destination() + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("[TcpFanoutTransport] Peer " + socket.getRemoteSocketAddress() + " disconnected: " + e.getMessage());
+            }
+        } finally {
+            inbound.remove(socket);
+        }
+    }
+
+    private static byte[] readFrame(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Frame length " + length + " out of range");
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return frame;
+    }
+
+    private static void writeFrame(DataOutputStream out, byte[] frame) throws IOException {
+        out.writeInt(frame.length);
+        out.write(frame);
+    }
+
+    private static InetSocketAddress parsePeer(String peer) {
+        int colon = peer.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("Fan-out peer must be host:port, got " + peer);
+        }
+        return InetSocketAddress.createUnresolved(peer.substring(0, colon).trim(),
+                Integer.parseInt(peer.substring(colon + 1).trim()));
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    /** Outbound connection to one peer, written by its own thread from a bounded queue. */
+    private final class PeerLink {
+
+        private final InetSocketAddress peer;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final Thread writer;
+        private volatile Socket socket;
+
+        PeerLink(InetSocketAddress peer) {
+            this.peer = peer;
+            this.writer = new Thread(this::run, "fanout-write-" + peer.getHostString() + ":" + peer.getPort());
+            this.writer.setDaemon(true);
+        }
+
+        void start() {
+            writer.start();
+        }
+
+        void stop() {
+            writer.interrupt();
+            closeQuietly(socket);
+        }
+
+        private void run() {
+            DataOutputStream out = null;
+            while (running) {
+                byte[] frame = null;
+                try {
+                    frame = queue.poll(1, TimeUnit.SECONDS);
+                    if (out == null) {
+                        out = connect();
+                    }
+                    if (frame != null) {
+                        writeFrame(out, frame);
+                    }
+                    if (queue.isEmpty()) {
+                        out.flush();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (IOException e) {
+                    if (running) {
+                        System.err.println("[TcpFanoutTransport] Link to " + peer + " failed: " + e.getMessage());
+                    }
+                    if (frame != null) {
+                        droppedFrames.increment();
+                    }
+                    closeQuietly(socket);
+                    out = null;
+                    try {
+                        Thread.sleep(RECONNECT_DELAY_MS);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            closeQuietly(socket);
+        }
+
+        private DataOutputStream connect() throws IOException {
+            Socket connection = new Socket();
+            socket = connection;
+            connection.setTcpNoDelay(true);
+            connection.connect(new InetSocketAddress(peer.getHostString(), peer.getPort()), CONNECT_TIMEOUT_MS);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            writeFrame(out, secret);
+            return out;
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.studyGroup.backend.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.studyGroup.backend.config.AuthenticatedUser;
 import com.studyGroup.backend.model.Profile;
 import com.studyGroup.backend.model.User;
 import com.studyGroup.backend.repository.ProfileRepository;
@@ -33,13 +36,15 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Optional<User> userOptional = usersRepository.findByEmail(username);
-        if (userOptional.isEmpty()) {
+        User user = principalCache.get(username);
+        if (user == null) {
             throw new UsernameNotFoundException("User not found with email: " + username);
         }
-        User user = userOptional.get();
 
         return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(),
                 new ArrayList<>());
@@ -63,6 +68,8 @@ public class UserService implements UserDetailsService {
         Profile profile = new Profile();
         profile.setEmail(user.getEmail());
         profile.setFullname(user.getName());
+        // New profiles have no legacy JSON enrollments to copy
+        profile.setEnrollmentsMigrated(true);
         profileRepository.save(profile);
 
         // Send Welcome Notification
@@ -97,11 +104,23 @@ public class UserService implements UserDetailsService {
         if ("401".equals(email)) {
             return null;
         }
-        User user = usersRepository.findByEmail(email).orElse(null);
-        if (user != null) {
-            user.setId(user.getId()); // Ensure ID is set
+        // Usually the user JwtAuthFilter already resolved for this request
+        User current = getCurrentUser();
+        if (current != null && email.equals(current.getEmail())) {
+            return current;
+        }
+        return principalCache.get(email);
+    }
+
+    /**
+     * The user authenticated for the current request, or null.
+     */
+    public User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getUser();
         }
-        return user;
+        return null;
     }
 
     public User updateUser(String email, User userDetails) {
@@ -120,7 +139,9 @@ public class UserService implements UserDetailsService {
 
             existingUser.setUniversityGpa(userDetails.getUniversityGpa());
 
-            return usersRepository.save(existingUser);
+            User saved = usersRepository.save(existingUser);
+            principalCache.invalidate(email);
+            return saved;
         }
         return null;
     }
@@ -140,6 +161,7 @@ public class UserService implements UserDetailsService {
             User user = userOptional.get();
             user.setPassword(passwordEncoder.encode(newPassword));
             usersRepository.save(user);
+            principalCache.invalidate(email);
         } else {
             throw new UsernameNotFoundException("User not found with email: " + email);
         }
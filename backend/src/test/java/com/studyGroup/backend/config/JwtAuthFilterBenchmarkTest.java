@@ -0,0 +1,115 @@
+package com.studyGroup.backend.config;
+
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.repository.UsersRepository;
+import com.studyGroup.backend.service.JWTService;
+import com.studyGroup.backend.service.PrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-request cost of authentication in the filter chain: a request with a valid bearer
+ * token (verified-token and principal caches warm, as for a returning user) against the
+ * same request without one. Reports time and heap allocated per request; the added time
+ * must stay under 5 us. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class JwtAuthFilterBenchmarkTest {
+
+    private static final int WARMUP = 50_000;
+    private static final int REQUESTS = 500_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private JwtAuthFilter filter;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(7);
+        user.setEmail("student@example.com");
+        UsersRepository usersRepository = mock(UsersRepository.class);
+        when(usersRepository.findByEmail("student@example.com")).thenReturn(Optional.of(user));
+        PrincipalCache principalCache = new PrincipalCache(usersRepository, new SimpleMeterRegistry(), 10_000, 300);
+
+        JWTService jwtService = new JWTService(principalCache);
+        ReflectionTestUtils.setField(jwtService, "secretKeyString", "benchmark-secret-benchmark-secret-benchmark");
+        ReflectionTestUtils.setField(jwtService, "expirationTime", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheTtlSeconds", 600L);
+        jwtService.init();
+        token = jwtService.generateToken("student@example.com");
+
+        filter = new JwtAuthFilter();
+        ReflectionTestUtils.setField(filter, "jwtService", jwtService);
+        ReflectionTestUtils.setField(filter, "principalCache", principalCache);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticationAddsUnderFiveMicrosPerRequest() throws Exception {
+        String header = "Bearer " + token;
+        run(WARMUP, null);
+        run(WARMUP, header);
+
+        Result anonymous = run(REQUESTS, null);
+        Result authenticated = run(REQUESTS, header);
+        double overheadMicros = (authenticated.nanosPerRequest() - anonymous.nanosPerRequest()) / 1000;
+        System.out.printf("[JwtAuthFilterBenchmark] anonymous: %.0f ns, %d B/request; authenticated: %.0f ns, "
+                        + "%d B/request; auth overhead %.2f us, %d B%n",
+                anonymous.nanosPerRequest(), anonymous.bytesPerRequest(),
+                authenticated.nanosPerRequest(), authenticated.bytesPerRequest(), overheadMicros,
+                authenticated.bytesPerRequest() - anonymous.bytesPerRequest());
+
+        assertTrue(overheadMicros < 5, "auth overhead " + overheadMicros + " us");
+    }
+
+    private Result run(int requests, String authorization) throws Exception {
+        // One request object reused, so only the filter's own allocations are counted
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/groups");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+        };
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            filter.doFilter(request, response, chain);
+            if (authorization != null) {
+                assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+            }
+            SecurityContextHolder.clearContext();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Result((double) nanos / requests, allocated / requests);
+    }
+
+    private record Result(double nanosPerRequest, long bytesPerRequest) {
+    }
+}
@@ -0,0 +1,160 @@
+package com.studyGroup.backend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Slow-consumer harness: one client stops reading while another keeps up. Frames go through
+ * the real outbound channel interceptor and session decorator, and the "socket" of the slow
+ * client blocks until released, as a full TCP send buffer would.
+ */
+class OutboundFlowControlInterceptorTest {
+
+    private static final int BACKLOG_LIMIT = 4;
+    private static final int VOTE_FRAMES = 500;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, List<String>> written = new ConcurrentHashMap<>();
+    private final Map<String, WebSocketSession> decoratedSessions = new ConcurrentHashMap<>();
+    private final CountDownLatch slowClientReads = new CountDownLatch(1);
+
+    private ExecutorService outboundPool;
+    private ExecutorSubscribableChannel outboundChannel;
+
+    @BeforeEach
+    void connect() throws Exception {
+        OutboundFlowControlInterceptor flowControl = new OutboundFlowControlInterceptor(meterRegistry, BACKLOG_LIMIT, "coalesce", 500);
+        // Stands in for the STOMP handler: keeps the session it is given and writes frames to it
+        WebSocketHandler stompHandler = new AbstractWebSocketHandler() {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) {
+                decoratedSessions.put(session.getId(), session);
+            }
+        };
+        WebSocketHandler handler = new OutboundSessionDecoratorFactory(flowControl).decorate(stompHandler);
+        handler.afterConnectionEstablished(socket("slow", slowClientReads));
+        handler.afterConnectionEstablished(socket("fast", new CountDownLatch(0)));
+
+        outboundPool = Executors.newFixedThreadPool(16);
+        outboundChannel = new ExecutorSubscribableChannel(outboundPool);
+        outboundChannel.addInterceptor(flowControl);
+        outboundChannel.subscribe(message -> {
+            String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+            try {
+                decoratedSessions.get(sessionId).sendMessage(
+                        new TextMessage(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8)));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @AfterEach
+    void shutdown() {
+        slowClientReads.countDown();
+        outboundPool.shutdownNow();
+    }
+
+    @Test
+    void slowClientGetsEveryChatFrameAndOnlyTheLatestVoteFrame() throws Exception {
+        for (String session : List.of("slow", "fast")) {
+            for (int i = 0; i < BACKLOG_LIMIT; i++) {
+                send(session, "chat-" + i, null);
+            }
+        }
+        // The slow socket has taken nothing, so its backlog is full from here on
+        awaitWritten("fast", BACKLOG_LIMIT);
+        for (int i = 0; i < VOTE_FRAMES; i++) {
+            send("slow", "vote-" + i, "poll:1");
+            send("fast", "vote-" + i, "poll:1");
+            awaitWritten("fast", BACKLOG_LIMIT + i + 1);
+        }
+        send("slow", "chat-last", null);
+
+        assertEquals(VOTE_FRAMES - 1, meterRegistry.counter("websocket.outbound.coalesced").count());
+        assertTrue(written.getOrDefault("slow", List.of()).isEmpty());
+
+        slowClientReads.countDown();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (!written.getOrDefault("slow", List.of()).contains("vote-" + (VOTE_FRAMES - 1))
+                    || written.getOrDefault("fast", List.of()).size() < BACKLOG_LIMIT + VOTE_FRAMES) {
+                Thread.sleep(5);
+            }
+        });
+        outboundPool.shutdown();
+        assertTrue(outboundPool.awaitTermination(5, TimeUnit.SECONDS));
+
+        List<String> slow = written.get("slow");
+        for (int i = 0; i < BACKLOG_LIMIT; i++) {
+            assertTrue(slow.contains("chat-" + i));
+        }
+        assertTrue(slow.contains("chat-last"));
+        assertEquals(List.of("vote-" + (VOTE_FRAMES - 1)), slow.stream().filter(f -> f.startsWith("vote-")).toList());
+        // The fast client is unaffected by its neighbour: nothing of its was coalesced
+        List<String> fast = written.get("fast");
+        assertEquals(VOTE_FRAMES, fast.stream().filter(f -> f.startsWith("vote-")).count());
+        IntStream.range(0, BACKLOG_LIMIT).forEach(i -> assertTrue(fast.contains("chat-" + i)));
+    }
+
+    // The fast client reads each frame before the next is sent
+    private void awaitWritten(String sessionId, int frames) {
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (written.getOrDefault(sessionId, List.of()).size() < frames) {
+                Thread.onSpinWait();
+            }
+        });
+    }
+
+    private void send(String sessionId, String payload, String coalesceKey) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        if (coalesceKey != null) {
+            headers.setNativeHeader(OutboundFlowControlInterceptor.COALESCE_KEY_HEADER, coalesceKey);
+        }
+        Message<byte[]> message = MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), headers.getMessageHeaders());
+        outboundChannel.send(message);
+    }
+
+    private WebSocketSession socket(String id, CountDownLatch reads) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        doAnswer(call -> {
+            reads.await();
+            written.computeIfAbsent(id, k -> new CopyOnWriteArrayList<>())
+                    .add(((TextMessage) call.getArgument(0)).getPayload());
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+}
@@ -0,0 +1,79 @@
+package com.studyGroup.backend.config;
+
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.repository.GroupMemberRepository;
+import com.studyGroup.backend.service.JWTService;
+import com.studyGroup.backend.service.PrincipalCache;
+import com.studyGroup.backend.service.StompSessionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * SEND authorization: a member may send to their group's chat endpoint, and nobody may send
+ * straight to a broker destination, where the frame would reach subscribers unchecked.
+ */
+class WebSocketAuthInterceptorTest {
+
+    private static final String SESSION = "s1";
+    private static final long MEMBER_GROUP = 10L;
+
+    private WebSocketAuthInterceptor interceptor;
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @BeforeEach
+    void connect() {
+        GroupMemberRepository members = mock(GroupMemberRepository.class);
+        when(members.findGroupIdsByUserId(1)).thenReturn(List.of(MEMBER_GROUP));
+        when(members.existsByGroup_GroupIdAndUser_Id(anyLong(), any())).thenReturn(false);
+        StompSessionRegistry registry = new StompSessionRegistry(members, mock(MessageChannel.class),
+                new SimpleMeterRegistry());
+        User user = new User();
+        user.setId(1);
+        registry.register(SESSION, user);
+
+        interceptor = new WebSocketAuthInterceptor(mock(JWTService.class), mock(PrincipalCache.class), registry);
+    }
+
+    @Test
+    void memberMaySendToTheirGroupOnly() {
+        Message<byte[]> allowed = send("/app/chat.sendMessage/" + MEMBER_GROUP);
+        assertSame(allowed, interceptor.preSend(allowed, channel));
+
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(send("/app/chat.sendMessage/20"), channel));
+    }
+
+    @Test
+    void sendToBrokerDestinationIsRejected() {
+        for (String destination : List.of("/topic/group/" + MEMBER_GROUP, "/topic/group/20",
+                "/queue/notifications/2", "/queue/notifications/1")) {
+            assertThrows(MessagingException.class, () -> interceptor.preSend(send(destination), channel), destination);
+        }
+    }
+
+    private static Message<byte[]> send(String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setSessionId(SESSION);
+        accessor.setDestination(destination);
+        accessor.setLeaveMutable(true);
+        String payload = "{\"senderId\":2,\"content\":\"forged\"}";
+        return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+}
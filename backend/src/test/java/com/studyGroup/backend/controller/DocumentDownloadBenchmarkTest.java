@@ -0,0 +1,223 @@
+package com.studyGroup.backend.controller;
+
+import com.studyGroup.backend.config.CurrentUser;
+import com.studyGroup.backend.model.Group;
+import com.studyGroup.backend.model.GroupMessage;
+import com.studyGroup.backend.model.MessageDocument;
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.service.DocumentPreviewService;
+import com.studyGroup.backend.service.DocumentSearchIndex;
+import com.studyGroup.backend.service.DocumentService;
+import com.studyGroup.backend.service.GroupService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput of {@code GET /api/documents/{messageId}} for a 100MB document with many
+ * concurrent downloaders, over a real Tomcat connector on loopback: whole-file downloads
+ * (sendfile) and the same bytes fetched as 10MB ranges (206 from the file channel).
+ * Services are mocked; only the controller and the container are measured. Reports MB/s
+ * across all downloaders. Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest(classes = DocumentDownloadBenchmarkTest.DownloadApp.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Tag("benchmark")
+class DocumentDownloadBenchmarkTest {
+
+    private static final long FILE_SIZE = 100L * 1024 * 1024;
+    private static final long RANGE_SIZE = 10L * 1024 * 1024;
+    private static final int DOWNLOADERS = 16;
+    private static final long MESSAGE_ID = 1L;
+
+    private static Path file;
+
+    @LocalServerPort
+    private int port;
+
+    @MockitoBean private DocumentService documentService;
+    @MockitoBean private GroupService groupService;
+    @MockitoBean private DocumentPreviewService previewService;
+    @MockitoBean private DocumentSearchIndex searchIndex;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @BeforeAll
+    static void createFile() throws IOException {
+        file = Files.createTempFile("download-benchmark", ".pdf");
+        byte[] chunk = new byte[1024 * 1024];
+        ThreadLocalRandom.current().nextBytes(chunk);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < FILE_SIZE; written += chunk.length) {
+                out.write(chunk);
+            }
+        }
+    }
+
+    @AfterAll
+    static void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @BeforeEach
+    void stubDocument() {
+        Group group = new Group();
+        group.setGroupId(1L);
+        GroupMessage message = new GroupMessage();
+        message.setGroup(group);
+        MessageDocument doc = new MessageDocument();
+        doc.setMessage(message);
+        doc.setOriginalFilename("lecture.pdf");
+        doc.setFileType("application/pdf");
+        doc.setFileSize(FILE_SIZE);
+        doc.setContentHash("5f2b9c");
+
+        when(documentService.getDocumentByMessageId(MESSAGE_ID)).thenReturn(doc);
+        when(documentService.ensureContentHash(any())).thenReturn(doc.getContentHash());
+        when(documentService.loadDocument(any())).thenAnswer(invocation -> new FileSystemResource(file));
+        when(groupService.getUserRoleInGroup(anyLong(), any())).thenReturn("member");
+    }
+
+    @Test
+    void concurrentDownloadsOfALargeDocument() throws Exception {
+        // Warm-up: JIT, connection pool and the page cache
+        measure(4, this::downloadWhole);
+        measure(4, this::downloadInRanges);
+
+        double wholeMBps = measure(DOWNLOADERS, this::downloadWhole);
+        double rangedMBps = measure(DOWNLOADERS, this::downloadInRanges);
+        System.out.printf("[DocumentDownloadBenchmark] %d downloaders x 100MB: whole file %.0f MB/s, "
+                + "10MB ranges %.0f MB/s%n", DOWNLOADERS, wholeMBps, rangedMBps);
+
+        assertTrue(wholeMBps > 50, "whole-file throughput " + wholeMBps + " MB/s");
+        assertTrue(rangedMBps > 50, "ranged throughput " + rangedMBps + " MB/s");
+    }
+
+    private double measure(int downloaders, Download download) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(downloaders);
+        try {
+            long start = System.nanoTime();
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < downloaders; i++) {
+                results.add(pool.submit(download::run));
+            }
+            long bytes = 0;
+            for (Future<Long> result : results) {
+                bytes += result.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            assertEquals(downloaders * FILE_SIZE, bytes);
+            return bytes / 1024.0 / 1024.0 / seconds;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long downloadWhole() throws Exception {
+        HttpResponse<InputStream> response = client.send(request().build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+        assertEquals(FILE_SIZE, response.headers().firstValueAsLong("Content-Length").orElse(-1));
+        return drain(response.body());
+    }
+
+    private long downloadInRanges() throws Exception {
+        long bytes = 0;
+        for (long offset = 0; offset < FILE_SIZE; offset += RANGE_SIZE) {
+            long last = Math.min(offset + RANGE_SIZE, FILE_SIZE) - 1;
+            HttpResponse<InputStream> response = client.send(request()
+                    .header("Range", "bytes=" + offset + "-" + last).build(), HttpResponse.BodyHandlers.ofInputStream());
+            assertEquals(206, response.statusCode());
+            bytes += drain(response.body());
+        }
+        return bytes;
+    }
+
+    private HttpRequest.Builder request() {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/documents/" + MESSAGE_ID));
+    }
+
+    private static long drain(InputStream body) throws IOException {
+        try (body) {
+            return body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Download {
+        long run() throws Exception;
+    }
+
+    /**
+     * The download endpoint alone: embedded Tomcat and Spring MVC, no security, database or
+     * storage tiers. Every request is made by the same group member.
+     */
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class})
+    static class DownloadApp implements WebMvcConfigurer {
+
+        private final User member = new User();
+
+        @Override
+        public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+            resolvers.add(new HandlerMethodArgumentResolver() {
+                @Override
+                public boolean supportsParameter(MethodParameter parameter) {
+                    return parameter.hasParameterAnnotation(CurrentUser.class);
+                }
+
+                @Override
+                public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                              NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+                    return member;
+                }
+            });
+        }
+
+        @Bean
+        DocumentController documentController() {
+            return new DocumentController();
+        }
+    }
+}
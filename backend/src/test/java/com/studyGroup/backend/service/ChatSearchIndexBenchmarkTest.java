@@ -0,0 +1,135 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Search latency over an index of 1M messages in 200 groups, while chat traffic keeps
+ * indexing new messages and the index's own timer reopens the searcher every second:
+ * p99 must stay under the 50 ms target. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ChatSearchIndexBenchmarkTest {
+
+    private static final int MESSAGES = 1_000_000;
+    private static final int GROUPS = 200;
+    // Long enough to span about ten searcher refreshes
+    private static final long TIMED_NANOS = 10_000_000_000L;
+    // Chat traffic during the timed searches
+    private static final int MESSAGES_PER_SECOND = 500;
+    private static final String[] WORDS = {
+            "exam", "lecture", "notes", "assignment", "deadline", "project", "quiz", "chapter", "algorithm",
+            "database", "network", "thread", "memory", "index", "query", "graph", "matrix", "proof", "lab",
+            "review", "slides", "meeting", "tomorrow", "question", "answer", "solution", "homework", "grade"};
+
+    @TempDir
+    Path indexDir;
+
+    private ChatSearchIndex index;
+    private final Random random = new Random(42);
+    private final LocalDateTime firstMessageAt = LocalDateTime.now().minusDays(365);
+
+    @BeforeEach
+    void fillIndex() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                // Every indexed message still exists
+                return Arrays.stream(args).map(elementType::cast).toList();
+            }
+        };
+        index = new ChatSearchIndex(jdbcTemplate, mock(UserRepository.class), new SimpleMeterRegistry(),
+                indexDir.toString(), 1000, 30000, 5000, false, 0, 60000);
+        index.open();
+
+        for (long id = 1; id <= MESSAGES; id++) {
+            indexMessage(id, random);
+        }
+        index.refresh();
+    }
+
+    @AfterEach
+    void closeIndex() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void searchP99IsUnderFiftyMillis() throws Exception {
+        // Warm-up: class loading, JIT and the first facet state
+        for (int i = 0; i < 200; i++) {
+            search();
+        }
+
+        AtomicBoolean chatting = new AtomicBoolean(true);
+        AtomicLong sent = new AtomicLong();
+        Thread chat = new Thread(() -> {
+            Random chatRandom = new Random(7);
+            long id = MESSAGES;
+            long started = System.nanoTime();
+            while (chatting.get()) {
+                indexMessage(++id, chatRandom);
+                sent.incrementAndGet();
+                long due = started + sent.get() * 1_000_000_000L / MESSAGES_PER_SECOND;
+                LockSupport.parkNanos(due - System.nanoTime());
+            }
+        }, "chat-traffic");
+        chat.start();
+
+        long[] nanos = new long[1 << 20];
+        int searches = 0;
+        long timedStart = System.nanoTime();
+        try {
+            while (System.nanoTime() - timedStart < TIMED_NANOS && searches < nanos.length) {
+                long start = System.nanoTime();
+                search();
+                nanos[searches++] = System.nanoTime() - start;
+            }
+        } finally {
+            chatting.set(false);
+            chat.join();
+        }
+        double seconds = (System.nanoTime() - timedStart) / 1e9;
+        Arrays.sort(nanos, 0, searches);
+        double p50 = nanos[searches / 2] / 1e6;
+        double p99 = nanos[(int) (searches * 0.99)] / 1e6;
+        System.out.printf("[ChatSearchIndexBenchmark] %d messages, %d searches over %.1f s with %d messages "
+                + "indexed meanwhile: p50 %.2f ms, p99 %.2f ms%n", MESSAGES, searches, seconds, sent.get(), p50, p99);
+        assertTrue(p99 < 50, "p99 " + p99 + " ms");
+    }
+
+    private void search() throws Exception {
+        boolean newestFirst = random.nextBoolean();
+        index.search((long) random.nextInt(GROUPS), sentence(1 + random.nextInt(2), random), null, null, null,
+                newestFirst, 20);
+    }
+
+    private void indexMessage(long id, Random random) {
+        index.index(id, id % GROUPS, (int) (id % 50), sentence(12, random), "TEXT", firstMessageAt.plusSeconds(30 * id));
+    }
+
+    private static String sentence(int words, Random random) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(i > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
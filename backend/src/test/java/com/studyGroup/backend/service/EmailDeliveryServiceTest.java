@@ -0,0 +1,141 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.model.EmailDeadLetter;
+import com.studyGroup.backend.repository.EmailDeadLetterRepository;
+import com.studyGroup.backend.repository.QueuedEmailRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The outbox against a real database: mail is queued with the caller's transaction, survives
+ * a restart of the service, and failing recipients end in the dead-letter table.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:mail;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailDeliveryServiceTest {
+
+    @Autowired private QueuedEmailRepository queuedEmailRepository;
+    @Autowired private EmailDeadLetterRepository deadLetterRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private final InMemoryMailSender mailSender = new InMemoryMailSender();
+    private final List<EmailDeliveryService> started = new ArrayList<>();
+
+    @BeforeEach
+    void clear() {
+        queuedEmailRepository.deleteAll();
+        deadLetterRepository.deleteAll();
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        for (EmailDeliveryService service : started) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void mailIsQueuedOnlyWhenTheCallersTransactionCommits() {
+        EmailDeliveryService service = start(service(5));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            service.enqueue("rolled-back@example.com", "Subject", "Body");
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status ->
+                service.enqueueAll(List.of("a@example.com", "b@example.com"), "Subject", "Body"));
+
+        await(() -> mailSender.getSentMessages().size() == 2 && queuedEmailRepository.count() == 0);
+        assertEquals(List.of("a@example.com", "b@example.com"), recipients(mailSender.getSentMessages()));
+    }
+
+    @Test
+    void queuedMailSurvivesARestart() {
+        EmailDeliveryService beforeRestart = service(5);
+        beforeRestart.enqueue("later@example.com", "Subject", "Body");
+        assertEquals(1, queuedEmailRepository.count());
+
+        start(service(5));
+
+        await(() -> mailSender.getSentMessages().size() == 1 && queuedEmailRepository.count() == 0);
+        assertEquals(List.of("later@example.com"), recipients(mailSender.getSentMessages()));
+    }
+
+    @Test
+    void failingRecipientIsRetriedThenDeadLettered() {
+        mailSender.failWhen(message -> recipients(List.of(message)).contains("bounce@example.com"));
+        EmailDeliveryService service = start(service(3));
+
+        service.enqueueAll(List.of("ok@example.com", "bounce@example.com"), "Subject", "Body");
+
+        await(() -> deadLetterRepository.count() == 1 && queuedEmailRepository.count() == 0);
+        EmailDeadLetter deadLetter = deadLetterRepository.findAll().get(0);
+        assertEquals("bounce@example.com", deadLetter.getRecipient());
+        assertEquals(3, deadLetter.getAttempts());
+        assertEquals(List.of("ok@example.com"), recipients(mailSender.getSentMessages()));
+    }
+
+    private EmailDeliveryService service(int maxAttempts) {
+        return new EmailDeliveryService(mailSender, queuedEmailRepository, deadLetterRepository,
+                jdbcTemplate, transactionTemplate, new SimpleMeterRegistry(), "noreply@example.com",
+                2, 50, maxAttempts, 10, 50, 50, 60_000);
+    }
+
+    private EmailDeliveryService start(EmailDeliveryService service) {
+        service.start();
+        started.add(service);
+        return service;
+    }
+
+    private static List<String> recipients(List<MimeMessage> messages) {
+        List<String> recipients = new ArrayList<>();
+        try {
+            for (MimeMessage message : messages) {
+                recipients.add(message.getRecipients(Message.RecipientType.TO)[0].toString());
+            }
+        } catch (MessagingException e) {
+            throw new IllegalStateException(e);
+        }
+        recipients.sort(null);
+        return recipients;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (!condition.getAsBoolean()) {
+                Thread.sleep(20);
+            }
+        });
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,97 @@
+package com.studyGroup.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Broadcast latency across 2-4 simulated nodes over the TCP fan-out transport on loopback
+ * sockets: from publish on one node until every other node has the frame. The p99 must stay
+ * under 20 ms. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class FanoutLatencyBenchmarkTest {
+
+    private static final int WARMUP = 2_000;
+    private static final int BROADCASTS = 10_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<TcpFanoutTransport> nodes = new ArrayList<>();
+    private final Random random = new Random(42);
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(node -> node.unsubscribe(null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 4})
+    void broadcastP99IsUnderTwentyMillis(int nodeCount) throws Exception {
+        int[] ports = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            ports[i] = TcpFanoutTransportTest.freePort();
+        }
+        AtomicReference<CountDownLatch> round = new AtomicReference<>();
+        AtomicInteger received = new AtomicInteger();
+        for (int i = 0; i < nodeCount; i++) {
+            List<String> peers = new ArrayList<>();
+            for (int j = 0; j < nodeCount; j++) {
+                if (j != i) {
+                    peers.add("127.0.0.1:" + ports[j]);
+                }
+            }
+            TcpFanoutTransport node = new TcpFanoutTransport("127.0.0.1", ports[i], peers, "benchmark", 10_000,
+                    objectMapper, new SimpleMeterRegistry());
+            node.subscribe("node-" + i, envelope -> {
+                received.incrementAndGet();
+                round.get().countDown();
+            });
+            nodes.add(node);
+        }
+
+        for (int i = 0; i < WARMUP; i++) {
+            broadcast(nodeCount, round);
+        }
+        long[] nanos = new long[BROADCASTS];
+        for (int i = 0; i < BROADCASTS; i++) {
+            nanos[i] = broadcast(nodeCount, round);
+        }
+        Arrays.sort(nanos);
+        double p50 = nanos[BROADCASTS / 2] / 1e6;
+        double p99 = nanos[(int) (BROADCASTS * 0.99)] / 1e6;
+        System.out.printf("[FanoutLatencyBenchmark] %d nodes: p50=%.3f ms p99=%.3f ms max=%.3f ms%n",
+                nodeCount, p50, p99, nanos[BROADCASTS - 1] / 1e6);
+
+        assertEquals((WARMUP + BROADCASTS) * (nodeCount - 1), received.get(), "frames were lost");
+        assertTrue(p99 < 20, "p99 " + p99 + " ms");
+    }
+
+    // One chat-sized frame from a random node; returns the time until every other node has it
+    private long broadcast(int nodeCount, AtomicReference<CountDownLatch> round) throws InterruptedException {
+        CountDownLatch delivered = new CountDownLatch(nodeCount - 1);
+        round.set(delivered);
+        int origin = random.nextInt(nodeCount);
+        long start = System.nanoTime();
+        nodes.get(origin).publish(new FanoutTransport.Envelope("node-" + origin, "/topic/group/1",
+                Map.of("messageType", "CHAT", "senderName", "Student", "content", "See you at the library at five"),
+                null, start));
+        assertTrue(delivered.await(10, TimeUnit.SECONDS), "broadcast not delivered");
+        return System.nanoTime() - start;
+    }
+}
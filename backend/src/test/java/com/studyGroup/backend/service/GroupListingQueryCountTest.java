@@ -0,0 +1,146 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.dto.GroupDTO;
+import com.studyGroup.backend.model.Course;
+import com.studyGroup.backend.model.Group;
+import com.studyGroup.backend.model.GroupMember;
+import com.studyGroup.backend.model.GroupMemberId;
+import com.studyGroup.backend.model.Profile;
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.repository.CourseRepository;
+import com.studyGroup.backend.repository.GroupMemberRepository;
+import com.studyGroup.backend.repository.GroupRepository;
+import com.studyGroup.backend.repository.ProfileRepository;
+import com.studyGroup.backend.repository.UsersRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Group listings must cost the same number of statements whether a page holds 3 groups or
+ * 30. Runs outside a test transaction, so a lazy load that slips back in either shows up
+ * as an extra statement or fails outright instead of being served from the session.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:groups;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@Import(GroupService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GroupListingQueryCountTest {
+
+    @Autowired private GroupService groupService;
+    @Autowired private UsersRepository usersRepository;
+    @Autowired private ProfileRepository profileRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private GroupRepository groupRepository;
+    @Autowired private GroupMemberRepository groupMemberRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean private CourseService courseService;
+    @MockitoBean private StompSessionRegistry stompSessionRegistry;
+
+    private Statistics statistics;
+    private Course course;
+    private User member;
+    private int created;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        groupMemberRepository.deleteAll();
+        groupRepository.deleteAll();
+        profileRepository.deleteAll();
+        usersRepository.deleteAll();
+        courseRepository.deleteAll();
+
+        course = new Course();
+        course.setCourseId("CS101");
+        course.setCourseName("Algorithms");
+        course = courseRepository.save(course);
+        member = createUser("member");
+    }
+
+    @Test
+    void allGroupsCostTheSameForAnyNumberOfGroups() {
+        createGroups(3);
+        long small = statementsFor(() -> groupService.getAllGroups(), 3);
+        createGroups(27);
+        long large = statementsFor(() -> groupService.getAllGroups(), 30);
+
+        assertEquals(small, large);
+    }
+
+    @Test
+    void groupsOfAUserCostTheSameForAnyNumberOfGroups() {
+        createGroups(3);
+        long small = statementsFor(() -> groupService.findGroupsByUserId(member.getId()), 3);
+        createGroups(27);
+        long large = statementsFor(() -> groupService.findGroupsByUserId(member.getId()), 30);
+
+        assertEquals(small, large);
+    }
+
+    private long statementsFor(Supplier<List<GroupDTO>> listing, int expectedGroups) {
+        statistics.clear();
+        List<GroupDTO> groups = listing.get();
+        assertEquals(expectedGroups, groups.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Each group has its own creator with a profile, and the shared member in it
+    private void createGroups(int count) {
+        for (int i = 0; i < count; i++) {
+            User creator = createUser("creator" + created++);
+            Group group = new Group();
+            group.setName("Group of " + creator.getName());
+            group.setAssociatedCourse(course);
+            group.setCreatedBy(creator);
+            group.setPrivacy("public");
+            group = groupRepository.save(group);
+            addMember(group, creator, "Admin");
+            addMember(group, member, "Member");
+        }
+    }
+
+    private User createUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user = usersRepository.save(user);
+        Profile profile = new Profile();
+        profile.setEmail(user.getEmail());
+        profile.setAboutMe("About " + name);
+        profileRepository.save(profile);
+        return user;
+    }
+
+    private void addMember(Group group, User user, String role) {
+        GroupMember membership = new GroupMember();
+        membership.setId(new GroupMemberId(group.getGroupId(), user.getId()));
+        membership.setGroup(group);
+        membership.setUser(user);
+        membership.setRole(role);
+        groupMemberRepository.save(membership);
+    }
+}
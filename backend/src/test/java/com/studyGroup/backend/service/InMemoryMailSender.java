@@ -0,0 +1,65 @@
+package com.studyGroup.backend.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Fake SMTP sink for tests: messages are rendered exactly as for SMTP but kept in memory
+ * instead of being sent. A failure predicate lets a test make selected recipients fail to
+ * exercise retry and dead-lettering.
+ */
+public class InMemoryMailSender extends JavaMailSenderImpl {
+
+    private final List<MimeMessage> sentMessages = new CopyOnWriteArrayList<>();
+    private volatile Predicate<MimeMessage> failWhen = message -> false;
+    private final AtomicInteger sendCalls = new AtomicInteger();
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        sendCalls.incrementAndGet();
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        for (int i = 0; i < mimeMessages.length; i++) {
+            MimeMessage message = mimeMessages[i];
+            if (failWhen.test(message)) {
+                Object key = originalMessages != null ? originalMessages[i] : message;
+                failedMessages.put(key, new MessagingException("Rejected by in-memory sink"));
+            } else {
+                sentMessages.add(message);
+            }
+        }
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    public List<MimeMessage> getSentMessages() {
+        return Collections.unmodifiableList(new ArrayList<>(sentMessages));
+    }
+
+    // Number of transport sessions opened, i.e. batches sent
+    public int getSendCalls() {
+        return sendCalls.get();
+    }
+
+    public void failWhen(Predicate<MimeMessage> predicate) {
+        this.failWhen = predicate;
+    }
+
+    public void clear() {
+        sentMessages.clear();
+        sendCalls.set(0);
+        failWhen = message -> false;
+    }
+}
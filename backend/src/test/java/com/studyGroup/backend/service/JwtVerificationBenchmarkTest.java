@@ -0,0 +1,103 @@
+package com.studyGroup.backend.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Token verification throughput for a request that resolves its token three times (filter,
+ * profile lookup, user id). Compares the old path, which rebuilt the key and parser and checked
+ * the signature on every call, with the current one: shared parser, verified-token cache and
+ * the per-request holder. Also reports the shared parser with the cache switched off, i.e. the
+ * first request for a token. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class JwtVerificationBenchmarkTest {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark";
+    private static final String EMAIL = "student@example.com";
+    private static final int LOOKUPS_PER_REQUEST = 3;
+    private static final int WARMUP = 5_000;
+    private static final int REQUESTS = 20_000;
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void cachedVerificationOutrunsParsingEveryCall() {
+        JWTService cached = jwtService(10_000);
+        JWTService uncached = jwtService(0);
+        String token = cached.generateToken(EMAIL);
+
+        Runnable before = () -> {
+            for (int i = 0; i < LOOKUPS_PER_REQUEST; i++) {
+                assertEquals(EMAIL, parseWithFreshParser(token));
+            }
+        };
+        Runnable signatureOnly = () -> inRequest(uncached, token);
+        Runnable after = () -> inRequest(cached, token);
+
+        run(WARMUP, before);
+        run(WARMUP, signatureOnly);
+        run(WARMUP, after);
+        double beforeRate = run(REQUESTS, before);
+        double signatureOnlyRate = run(REQUESTS, signatureOnly);
+        double afterRate = run(REQUESTS, after);
+        System.out.printf("[JwtVerificationBenchmark] requests/s: fresh parser per call %.0f, shared parser "
+                        + "(cache off) %.0f, cached %.0f (%.1fx)%n",
+                beforeRate, signatureOnlyRate, afterRate, afterRate / beforeRate);
+
+        assertTrue(afterRate > 5 * beforeRate, "cached " + afterRate + "/s, before " + beforeRate + "/s");
+    }
+
+    private static JWTService jwtService(long verifiedCacheMaxSize) {
+        JWTService jwtService = new JWTService(mock(PrincipalCache.class));
+        ReflectionTestUtils.setField(jwtService, "secretKeyString", SECRET);
+        ReflectionTestUtils.setField(jwtService, "expirationTime", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxSize", verifiedCacheMaxSize);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheTtlSeconds", 600L);
+        jwtService.init();
+        return jwtService;
+    }
+
+    // What validateToken did before: new key, new parser, full signature check
+    private static String parseWithFreshParser(String token) {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        return claims.getSubject();
+    }
+
+    private static void inRequest(JWTService jwtService, String token) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        for (int i = 0; i < LOOKUPS_PER_REQUEST; i++) {
+            assertEquals(EMAIL, jwtService.validateToken(token));
+        }
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static double run(int requests, Runnable request) {
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            request.run();
+        }
+        return requests / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,106 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.repository.NotificationCounterRepository;
+import com.studyGroup.backend.repository.NotificationRepository;
+import com.studyGroup.backend.service.NotificationService.NotificationTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fan-out of one notification to a 300-member group: the bulk path (pre-allocated ids, one
+ * JDBC batch) against the per-row loop {@code CalendarEventService} used to run, each inside
+ * one transaction as a request would. Reports milliseconds per fan-out; the bulk path must be
+ * faster. Run with {@code mvn test -Pbenchmark}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notifications;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@Import({NotificationService.class, NotificationDispatcher.class, PooledIdAllocator.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Tag("benchmark")
+class NotificationFanoutBenchmarkTest {
+
+    private static final int RECIPIENTS = 300;
+    private static final int WARMUP = 10;
+    private static final int ROUNDS = 30;
+
+    @Autowired private NotificationService notificationService;
+    @Autowired private NotificationRepository notificationRepository;
+    @Autowired private NotificationCounterRepository counterRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @MockitoBean private ClusterBroadcastService broadcastService;
+
+    private final List<Integer> recipients = new ArrayList<>();
+    private final NotificationTemplate template =
+            new NotificationTemplate("New event", "Exam review on Friday", "update", 1L, "event");
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository.deleteAll();
+        counterRepository.deleteAll();
+        for (int userId = 1; userId <= RECIPIENTS; userId++) {
+            recipients.add(userId);
+        }
+    }
+
+    @Test
+    void bulkFanoutBeatsPerRowLoop() {
+        for (int i = 0; i < WARMUP; i++) {
+            perRow();
+            bulk();
+        }
+
+        double perRowMillis = time(this::perRow);
+        double bulkMillis = time(this::bulk);
+        System.out.printf("[NotificationFanoutBenchmark] %d recipients: per-row loop %.2f ms, bulk %.2f ms (%.1fx)%n",
+                RECIPIENTS, perRowMillis, bulkMillis, perRowMillis / bulkMillis);
+
+        assertEquals((long) 2 * (WARMUP + ROUNDS) * RECIPIENTS, notificationRepository.count());
+        assertTrue(bulkMillis < perRowMillis, "bulk " + bulkMillis + " ms, per-row " + perRowMillis + " ms");
+    }
+
+    private void perRow() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Integer userId : recipients) {
+                notificationService.createNotification(userId, template.title(), template.message(),
+                        template.type(), template.relatedEntityId(), template.relatedEntityType());
+            }
+        });
+    }
+
+    private void bulk() {
+        transactionTemplate.executeWithoutResult(status ->
+                notificationService.createNotifications(recipients, template));
+    }
+
+    private static double time(Runnable fanout) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            fanout.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / ROUNDS;
+    }
+}
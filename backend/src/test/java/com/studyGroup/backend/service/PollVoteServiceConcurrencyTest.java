@@ -0,0 +1,175 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.controller.PollVoteDTO;
+import com.studyGroup.backend.dto.PollOptionDTO;
+import com.studyGroup.backend.model.Course;
+import com.studyGroup.backend.model.Group;
+import com.studyGroup.backend.model.Poll;
+import com.studyGroup.backend.model.PollOption;
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.repository.CourseRepository;
+import com.studyGroup.backend.repository.GroupRepository;
+import com.studyGroup.backend.repository.PollOptionRepository;
+import com.studyGroup.backend.repository.PollRepository;
+import com.studyGroup.backend.repository.PollVoteRepository;
+import com.studyGroup.backend.repository.UsersRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 1,000 voters vote at once, each sending its vote twice, against a real database. Every
+ * voter must be counted exactly once, and the coalesced broadcast must end on the full count.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:polls;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        // The rejected double submissions are expected
+        "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF"
+})
+@Import({PollVoteService.class, PollVoteBroadcaster.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PollVoteServiceConcurrencyTest {
+
+    private static final int VOTERS = 1_000;
+
+    @Autowired private PollVoteService pollVoteService;
+    @Autowired private PollVoteBroadcaster pollVoteBroadcaster;
+    @Autowired private UsersRepository usersRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private GroupRepository groupRepository;
+    @Autowired private PollRepository pollRepository;
+    @Autowired private PollOptionRepository pollOptionRepository;
+    @Autowired private PollVoteRepository pollVoteRepository;
+
+    @MockitoBean private ClusterBroadcastService broadcastService;
+
+    @Test
+    void parallelVotersAreAllCountedExactlyOnce() throws Exception {
+        Poll poll = createPoll();
+        List<PollOption> options = List.of(createOption(poll, "yes"), createOption(poll, "no"));
+
+        ExecutorService voters = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        Map<Long, AtomicInteger> accepted = new ConcurrentHashMap<>();
+        List<Future<?>> votes = new ArrayList<>();
+        for (int voter = 1; voter <= VOTERS; voter++) {
+            Integer voterId = voter;
+            Long optionId = options.get(voter % 2).getId();
+            // Each voter double-submits; only one of the two may count
+            Callable<Void> vote = () -> {
+                start.await();
+                try {
+                    pollVoteService.vote(poll.getId(), optionId, voterId);
+                    accepted.computeIfAbsent(optionId, k -> new AtomicInteger()).incrementAndGet();
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            };
+            votes.add(voters.submit(vote));
+            votes.add(voters.submit(vote));
+        }
+        start.countDown();
+        for (Future<?> vote : votes) {
+            vote.get(2, TimeUnit.MINUTES);
+        }
+        voters.shutdown();
+
+        assertEquals(VOTERS, rejected.get());
+        assertEquals(VOTERS, pollVoteRepository.count());
+        Map<Long, Long> counts = pollOptionRepository.findVoteCountsByPollId(poll.getId()).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+        for (PollOption option : options) {
+            assertEquals(VOTERS / 2, counts.get(option.getId()));
+            assertEquals(VOTERS / 2, accepted.get(option.getId()).get());
+        }
+
+        // Ticks may still be running; the last update out must carry every vote
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (lastBroadcastTotal(poll) != VOTERS) {
+                pollVoteBroadcaster.flush();
+                Thread.sleep(50);
+            }
+        });
+        ArgumentCaptor<Object> updates = ArgumentCaptor.forClass(Object.class);
+        verify(broadcastService, atLeastOnce()).broadcastToGroupCoalescible(any(), updates.capture(), anyString());
+        assertTrue(updates.getAllValues().size() < VOTERS, "vote broadcasts were not coalesced");
+    }
+
+    private long lastBroadcastTotal(Poll poll) {
+        ArgumentCaptor<Object> updates = ArgumentCaptor.forClass(Object.class);
+        verify(broadcastService, atLeastOnce()).broadcastToGroupCoalescible(
+                eq(poll.getGroup().getGroupId()), updates.capture(), eq("poll:" + poll.getId()));
+        PollVoteDTO last = (PollVoteDTO) updates.getValue();
+        return last.getOptions().stream().mapToLong(PollOptionDTO::getVoteCount).sum();
+    }
+
+    private Poll createPoll() {
+        User creator = new User();
+        creator.setName("Host");
+        creator.setEmail("host@example.com");
+        creator = usersRepository.save(creator);
+
+        Course course = new Course();
+        course.setCourseId("POLL101");
+        course.setCourseName("Polling");
+        course = courseRepository.save(course);
+
+        Group group = new Group();
+        group.setName("Live class");
+        group.setAssociatedCourse(course);
+        group.setCreatedBy(creator);
+        group.setPrivacy("public");
+        group = groupRepository.save(group);
+
+        Poll poll = new Poll();
+        poll.setGroup(group);
+        poll.setCreator(creator);
+        poll.setQuestion("Ready?");
+        return pollRepository.save(poll);
+    }
+
+    private PollOption createOption(Poll poll, String text) {
+        PollOption option = new PollOption();
+        option.setPoll(poll);
+        option.setOptionText(text);
+        return pollOptionRepository.save(option);
+    }
+}
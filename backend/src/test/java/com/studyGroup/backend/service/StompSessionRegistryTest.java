@@ -0,0 +1,208 @@
+package com.studyGroup.backend.service;
+
+import com.studyGroup.backend.model.User;
+import com.studyGroup.backend.repository.GroupMemberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Revoking a membership with 10k connected sessions: only the affected user's group
+ * subscriptions are cancelled at the broker, and only after the transaction commits. Also
+ * 10k sessions connecting, subscribing, leaving groups and disconnecting at once from a
+ * thread pool: no revoked subscription survives and the session count adds up.
+ */
+class StompSessionRegistryTest {
+
+    private static final int SESSIONS = 10_000;
+    private static final int GROUPS = 100;
+    private static final int LEAVING_USER = 4242;
+    private static final long LEFT_GROUP = LEAVING_USER % GROUPS;
+
+    private final List<Message<?>> brokerMessages = new CopyOnWriteArrayList<>();
+    private StompSessionRegistry registry;
+
+    @BeforeEach
+    void connectSessions() {
+        GroupMemberRepository members = mock(GroupMemberRepository.class);
+        when(members.findGroupIdsByUserId(anyInt()))
+                .thenAnswer(call -> List.of((long) ((Integer) call.getArgument(0) % GROUPS), 999L));
+        when(members.existsByGroup_GroupIdAndUser_Id(anyLong(), any())).thenReturn(false);
+        MessageChannel brokerChannel = (message, timeout) -> brokerMessages.add(message);
+        registry = new StompSessionRegistry(members, brokerChannel, new SimpleMeterRegistry());
+
+        for (int userId = 1; userId <= SESSIONS; userId++) {
+            String sessionId = "s" + userId;
+            registry.register(sessionId, user(userId));
+            assertTrue(registry.subscribeToGroup(sessionId, "sub-group", (long) (userId % GROUPS)));
+            assertTrue(registry.subscribeToGroup(sessionId, "sub-other", 999L));
+        }
+        // A second tab of the leaving user
+        registry.register("s" + LEAVING_USER + "-tab2", user(LEAVING_USER));
+        assertTrue(registry.subscribeToGroup("s" + LEAVING_USER + "-tab2", "tab2-group", LEFT_GROUP));
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void revokeUnsubscribesOnlyTheLeavingUsersSessions() {
+        assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> registry.revokeMembership(LEAVING_USER, LEFT_GROUP));
+
+        Set<String> unsubscribed = brokerMessages.stream()
+                .map(SimpMessageHeaderAccessor::wrap)
+                .peek(headers -> assertEquals(SimpMessageType.UNSUBSCRIBE, headers.getMessageType()))
+                .map(headers -> headers.getSessionId() + "/" + headers.getSubscriptionId())
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("s4242/sub-group", "s4242-tab2/tab2-group"), unsubscribed);
+
+        assertFalse(registry.canAccessGroup("s" + LEAVING_USER, LEFT_GROUP));
+        assertFalse(registry.subscribeToGroup("s" + LEAVING_USER, "again", LEFT_GROUP));
+        assertTrue(registry.canAccessGroup("s" + LEAVING_USER, 999L));
+        // Other members of the same group keep their access
+        assertTrue(registry.canAccessGroup("s" + (LEAVING_USER + GROUPS), LEFT_GROUP));
+    }
+
+    @Test
+    void revokeWaitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        registry.revokeMembership(LEAVING_USER, LEFT_GROUP);
+
+        assertTrue(brokerMessages.isEmpty());
+        assertTrue(registry.canAccessGroup("s" + LEAVING_USER, LEFT_GROUP));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(2, brokerMessages.size());
+        assertFalse(registry.canAccessGroup("s" + LEAVING_USER, LEFT_GROUP));
+    }
+
+    @Test
+    void unsubscribedTopicsAreNotCancelledAgain() {
+        registry.unsubscribe("s" + LEAVING_USER, "sub-group");
+        registry.revokeMembership(LEAVING_USER, LEFT_GROUP);
+
+        assertEquals(1, brokerMessages.size());
+        assertEquals("s4242-tab2", SimpMessageHeaderAccessor.wrap(brokerMessages.get(0)).getSessionId());
+    }
+
+    @Test
+    void concurrentSessionsNeverKeepARevokedSubscription() throws Exception {
+        // Stands in for the group_members table; a revoke removes the row before it commits
+        Map<Integer, Set<Long>> database = new ConcurrentHashMap<>();
+        for (int userId = 1; userId <= SESSIONS; userId++) {
+            Set<Long> groups = ConcurrentHashMap.newKeySet();
+            groups.add((long) (userId % GROUPS));
+            groups.add(999L);
+            database.put(userId, groups);
+        }
+        GroupMemberRepository members = mock(GroupMemberRepository.class);
+        when(members.findGroupIdsByUserId(anyInt()))
+                .thenAnswer(call -> List.copyOf(database.get((Integer) call.getArgument(0))));
+        when(members.existsByGroup_GroupIdAndUser_Id(anyLong(), any()))
+                .thenAnswer(call -> database.get((Integer) call.getArgument(1)).contains((Long) call.getArgument(0)));
+        List<Message<?>> unsubscribes = new CopyOnWriteArrayList<>();
+        StompSessionRegistry shared = new StompSessionRegistry(members,
+                (message, timeout) -> unsubscribes.add(message), new SimpleMeterRegistry());
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        Set<Integer> revoked = new HashSet<>();
+        int disconnected = 0;
+        for (int userId = 1; userId <= SESSIONS; userId++) {
+            int id = userId;
+            long group = id % GROUPS;
+            boolean shortLived = id % 5 == 0;
+            disconnected += shortLived ? 1 : 0;
+            tasks.add(() -> {
+                String sessionId = "c" + id;
+                shared.register(sessionId, user(id));
+                shared.subscribeToGroup(sessionId, "sub-group", group);
+                shared.subscribeToGroup(sessionId, "sub-other", 999L);
+                if (shortLived) {
+                    shared.onDisconnect(new SessionDisconnectEvent(this,
+                            MessageBuilder.withPayload(new byte[0]).build(), sessionId, CloseStatus.NORMAL));
+                }
+                return null;
+            });
+            if (id % 10 == 3) {
+                revoked.add(id);
+                tasks.add(() -> {
+                    database.get(id).remove(group);
+                    shared.revokeMembership(id, group);
+                    return null;
+                });
+            }
+        }
+        Collections.shuffle(tasks, new Random(42));
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            for (Future<Void> task : pool.invokeAll(tasks, 30, TimeUnit.SECONDS)) {
+                task.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(SESSIONS - disconnected, shared.getActiveSessionCount());
+        for (int userId : revoked) {
+            assertFalse(shared.canAccessGroup("c" + userId, (long) (userId % GROUPS)));
+            assertTrue(shared.canAccessGroup("c" + userId, 999L));
+        }
+        // Revoking again finds nothing left to cancel
+        unsubscribes.clear();
+        for (int userId : revoked) {
+            shared.revokeMembership(userId, (long) (userId % GROUPS));
+        }
+        assertEquals(List.of(), unsubscribes);
+    }
+
+    private static User user(int id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        return user;
+    }
+}
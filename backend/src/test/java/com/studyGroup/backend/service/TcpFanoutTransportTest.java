@@ -0,0 +1,86 @@
+package com.studyGroup.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Two nodes over real loopback sockets: frames cross in order with payload and coalesce key
+ * intact, and a node with the wrong secret is not heard.
+ */
+class TcpFanoutTransportTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<TcpFanoutTransport> started = new ArrayList<>();
+
+    @AfterEach
+    void stop() {
+        started.forEach(transport -> transport.unsubscribe(null));
+    }
+
+    @Test
+    void deliversFramesToThePeerInOrder() throws Exception {
+        int portA = freePort();
+        int portB = freePort();
+        BlockingQueue<FanoutTransport.Envelope> receivedByB = new LinkedBlockingQueue<>();
+        TcpFanoutTransport a = start("a", portA, portB, "secret", new LinkedBlockingQueue<>());
+        start("b", portB, portA, "secret", receivedByB);
+
+        a.publish(new FanoutTransport.Envelope("a", "/topic/group/7", Map.of("content", "hello"), null, 1));
+        a.publish(new FanoutTransport.Envelope("a", "/topic/group/7", Map.of("pollId", 3), "poll:3", 2));
+
+        FanoutTransport.Envelope first = receivedByB.poll(10, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertEquals("a", first.originNodeId());
+        assertEquals("/topic/group/7", first.destination());
+        assertEquals("hello", ((JsonNode) first.payload()).get("content").asText());
+        assertNull(first.coalesceKey());
+        FanoutTransport.Envelope second = receivedByB.poll(10, TimeUnit.SECONDS);
+        assertNotNull(second);
+        assertEquals("poll:3", second.coalesceKey());
+        assertEquals(3, ((JsonNode) second.payload()).get("pollId").asInt());
+    }
+
+    @Test
+    void peerWithTheWrongSecretIsNotHeard() throws Exception {
+        int portA = freePort();
+        int portB = freePort();
+        BlockingQueue<FanoutTransport.Envelope> receivedByB = new LinkedBlockingQueue<>();
+        TcpFanoutTransport a = start("a", portA, portB, "not-the-secret", new LinkedBlockingQueue<>());
+        start("b", portB, portA, "secret", receivedByB);
+
+        a.publish(new FanoutTransport.Envelope("a", "/topic/group/7", Map.of("content", "forged"), null, 1));
+
+        assertNull(receivedByB.poll(2, TimeUnit.SECONDS));
+    }
+
+    private TcpFanoutTransport start(String nodeId, int port, int peerPort, String secret,
+                                     BlockingQueue<FanoutTransport.Envelope> received) {
+        TcpFanoutTransport transport = new TcpFanoutTransport("127.0.0.1", port, List.of("127.0.0.1:" + peerPort),
+                secret, 100, objectMapper, new SimpleMeterRegistry());
+        transport.subscribe(nodeId, received::add);
+        started.add(transport);
+        return transport;
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -18,7 +18,7 @@ import QuickNavButton from "./components/QuickActionButton.jsx";
 import FloatingChatWindow from "./components/FloatingChatWindow";
 import GroupChat from "./components/groups/GroupChat";
 import NotificationsPage from "./components/NotificationsPage.jsx";
-import { getAllNotifications } from "./services/NotificationService.js"; // Import service
+import { getInboxPage, getUnreadCount } from "./services/NotificationService.js"; // Import service
 import AIChat from "./components/AIChat.jsx";
 
 // 🗓️ Calendar Import
@@ -69,12 +69,16 @@ const App = () => {
     try {
       const user = JSON.parse(userJson);
       if (user.id) {
-        const notifData = await getAllNotifications(user.id);
-        const sortedNotifs = notifData.sort(
+        // Newest page is enough for the bell dropdown; the badge uses the counter
+        const [inbox, unread] = await Promise.all([
+          getInboxPage(user.id),
+          getUnreadCount(user.id),
+        ]);
+        const sortedNotifs = inbox.notifications.sort(
           (a, b) => new Date(b.createdAt) - new Date(a.createdAt)
         );
         setNotifications(sortedNotifs);
-        setUnreadCount(sortedNotifs.filter((n) => !n.read).length);
+        setUnreadCount(unread);
       }
     } catch (error) {
       console.error("Failed to fetch notifications:", error);
@@ -94,7 +94,7 @@ export default function Dashboard() {
             to="/find-peers"
             icon="🤝"
             title="Suggested Peers"
-            value={dashboard?.suggestedPeers?.length ?? 0}
+            value={dashboard?.suggestedPeersTotal ?? dashboard?.suggestedPeers?.length ?? 0}
             color="green"
           />
         </div>
@@ -165,7 +165,9 @@ const NotificationBell = ({
     .filter((n) => !n.isRead)
     .sort(sortNotifications);
 
-  const computedUnread = unreadList.length;
+  // Badge comes from the server-side counter; fall back to the loaded list
+  const computedUnread =
+    typeof unreadCount === "number" ? unreadCount : unreadList.length;
   const badgeText = computedUnread > 9 ? "9+" : computedUnread;
 
   return (
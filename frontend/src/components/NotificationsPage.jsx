@@ -6,7 +6,7 @@ import { Stomp } from "@stomp/stompjs";
 import {
   markNotificationRead,
   markAllNotificationsRead,
-  getAllNotifications,
+  getInboxPage,
   deleteSelectedNotifications,
   deleteAllRead,
 } from "../services/NotificationService";
@@ -19,6 +19,7 @@ export default function NotificationsPage({
 }) {
   const [selectedTab, setSelectedTab] = useState("All");
   const [notifications, setNotifications] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const stompRef = useRef(null);
   const userJson = sessionStorage.getItem("user");
   const currentUser = userJson ? JSON.parse(userJson) : null;
@@ -39,11 +40,12 @@ export default function NotificationsPage({
       if (!currentUser?.id) return;
       if (initialNotifications && initialNotifications.length > 0) return;
       try {
-        const list = await getAllNotifications(currentUser.id);
-        const mapped = (list || [])
+        const page = await getInboxPage(currentUser.id);
+        const mapped = (page.notifications || [])
           .map(mapNotificationToUI)
           .sort(sortNotifications);
         setNotifications(mapped);
+        setNextCursor(page.hasMore ? page.nextCursor : null);
       } catch (e) {
         console.error("Failed to fetch notifications:", e);
       }
@@ -92,6 +94,23 @@ export default function NotificationsPage({
 
   // --- Handlers ---
 
+  const handleLoadOlder = async () => {
+    if (!currentUser?.id || !nextCursor) return;
+    try {
+      const page = await getInboxPage(currentUser.id, nextCursor);
+      const older = (page.notifications || []).map(mapNotificationToUI);
+      setNotifications((prev) => {
+        const seen = new Set(prev.map((n) => n.id));
+        return [...prev, ...older.filter((n) => !seen.has(n.id))].sort(
+          sortNotifications
+        );
+      });
+      setNextCursor(page.hasMore ? page.nextCursor : null);
+    } catch (err) {
+      console.error("Failed to load older notifications:", err);
+    }
+  };
+
   const handleMarkAsRead = async (id) => {
     try {
       await markNotificationRead(id);
@@ -347,6 +366,17 @@ export default function NotificationsPage({
             )}
           </AnimatePresence>
         </div>
+
+        {nextCursor && !selectMode && (
+          <div className="flex justify-center mt-6">
+            <button
+              onClick={handleLoadOlder}
+              className="text-sm font-medium text-purple-600 hover:text-purple-800 transition"
+            >
+              Load older notifications
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
@@ -220,6 +220,7 @@ const GroupChat = ({
   const [messages, setMessages] = useState([]);
   const [input, setInput] = useState("");
   const [search, setSearch] = useState("");
+  const [searchResults, setSearchResults] = useState(null);
   const [replyTo, setReplyTo] = useState(null);
   const [showEmoji, setShowEmoji] = useState(false);
   const [showPollForm, setShowPollForm] = useState(false);
@@ -374,6 +375,28 @@ const GroupChat = ({
     }
   };
 
+  // Server-side search covers the whole history, not just the messages loaded here
+  useEffect(() => {
+    const q = search.trim();
+    if (q.length < 2) {
+      setSearchResults(null);
+      return;
+    }
+    const timer = setTimeout(async () => {
+      try {
+        const token = sessionStorage.getItem("token");
+        const res = await fetch(
+          `http://localhost:8145/api/groups/${groupId}/messages/search?q=${encodeURIComponent(q)}&sort=recent`,
+          { headers: { Authorization: `Bearer ${token}` } }
+        );
+        setSearchResults(res.ok ? await res.json() : null);
+      } catch (e) {
+        setSearchResults(null);
+      }
+    }, 250);
+    return () => clearTimeout(timer);
+  }, [search, groupId]);
+
   const scrollToMessage = (id) => {
     const el = document.getElementById(`msg-${id}`);
     if (el) {
@@ -450,6 +473,26 @@ const GroupChat = ({
                 <line x1="21" x2="16.65" y1="21" y2="16.65" />
               </svg>
             </span>
+            {searchResults && (
+              <div className="absolute right-0 mt-2 w-96 max-h-80 overflow-y-auto bg-white border border-purple-100 rounded-xl shadow-lg z-30">
+                <div className="px-3 py-2 text-xs text-gray-500 border-b border-purple-50">
+                  {searchResults.totalHits} match(es) in chat history
+                </div>
+                {searchResults.hits.map((hit) => (
+                  <div
+                    key={hit.messageId}
+                    className="px-3 py-2 text-sm cursor-pointer hover:bg-purple-50"
+                    onClick={() => scrollToMessage(hit.messageId)}
+                  >
+                    <div className="text-xs font-semibold text-purple-600">
+                      {hit.senderName} · {new Date(hit.timestamp).toLocaleDateString()}
+                    </div>
+                    {/* Snippets are HTML-escaped by the server apart from the <mark> tags */}
+                    <div className="text-gray-700" dangerouslySetInnerHTML={{ __html: hit.snippet }} />
+                  </div>
+                ))}
+              </div>
+            )}
           </div>
         </div>
       </div>
@@ -734,17 +777,16 @@ const GroupChat = ({
                 const file = e.target.files[0];
                 if (file) {
                   try {
-                    const formData = new FormData();
-                    formData.append("file", file);
-                    formData.append("groupId", groupId);
-                    formData.append("senderId", currentUser.id);
                     const token = sessionStorage.getItem("token");
                     const res = await fetch(
-                      `http://localhost:8145/api/documents/upload`,
+                      `http://localhost:8145/api/documents/upload/stream?groupId=${groupId}&filename=${encodeURIComponent(file.name)}`,
                       {
                         method: "POST",
-                        headers: { Authorization: `Bearer ${token}` },
-                        body: formData,
+                        headers: {
+                          Authorization: `Bearer ${token}`,
+                          "Content-Type": file.type || "application/octet-stream",
+                        },
+                        body: file,
                       }
                     );
                     if (res.ok) {
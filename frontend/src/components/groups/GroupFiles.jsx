@@ -1,5 +1,37 @@
 import React, { useState, useEffect } from "react";
 
+// Previews need the Authorization header, so they are fetched and shown from a blob URL;
+// the server marks them immutable, so the browser cache answers repeat views
+const DocumentThumbnail = ({ previewUrl, token }) => {
+  const [src, setSrc] = useState(null);
+
+  useEffect(() => {
+    if (!previewUrl) return;
+    let objectUrl = null;
+    let cancelled = false;
+    fetch(`http://localhost:8145${previewUrl}`, {
+      headers: { Authorization: `Bearer ${token}` },
+    })
+      .then((res) => (res.ok ? res.blob() : null))
+      .then((blob) => {
+        if (blob && !cancelled) {
+          objectUrl = URL.createObjectURL(blob);
+          setSrc(objectUrl);
+        }
+      })
+      .catch(() => {});
+    return () => {
+      cancelled = true;
+      if (objectUrl) URL.revokeObjectURL(objectUrl);
+    };
+  }, [previewUrl, token]);
+
+  if (!src) {
+    return <div className="w-16 h-16 mr-3 flex-shrink-0 rounded bg-gray-200" />;
+  }
+  return <img src={src} alt="" className="w-16 h-16 mr-3 flex-shrink-0 rounded object-cover bg-white" />;
+};
+
 const GroupFiles = ({ groupId, userRole, onDocumentCountChange }) => {
   const [files, setFiles] = useState([]);
   const [filteredFiles, setFilteredFiles] = useState([]);
@@ -47,17 +79,32 @@ const GroupFiles = ({ groupId, userRole, onDocumentCountChange }) => {
     fetchDocuments();
   }, [groupId, token]);
 
-  // Filter files based on search
+  // Filter by file name right away, then replace with the server's search of the documents' text
   useEffect(() => {
-    if (!search.trim()) {
+    const q = search.trim();
+    if (!q) {
       setFilteredFiles(files);
-    } else {
-      const filtered = files.filter(file =>
-        file.originalFilename.toLowerCase().includes(search.toLowerCase())
-      );
-      setFilteredFiles(filtered);
+      return;
     }
-  }, [search, files]);
+    setFilteredFiles(files.filter(file =>
+      file.originalFilename.toLowerCase().includes(q.toLowerCase())
+    ));
+    const timer = setTimeout(async () => {
+      try {
+        const res = await fetch(
+          `http://localhost:8145/api/documents/group/${groupId}/search?q=${encodeURIComponent(q)}`,
+          { headers: { Authorization: `Bearer ${token}` } }
+        );
+        if (res.ok) {
+          const data = await res.json();
+          setFilteredFiles(data.documents);
+        }
+      } catch (e) {
+        // Keep the file name matches
+      }
+    }, 250);
+    return () => clearTimeout(timer);
+  }, [search, files, groupId, token]);
 
   // Handle download
   const handleDownload = async (fileId) => {
@@ -145,11 +192,16 @@ const GroupFiles = ({ groupId, userRole, onDocumentCountChange }) => {
                 className="p-3 bg-gray-50 rounded-lg hover:bg-gray-100 transition"
               >
                 <div className="flex justify-between items-start">
+                  <DocumentThumbnail previewUrl={file.previewUrl} token={token} />
                   <div className="flex-1">
                     <div className="font-semibold text-gray-700 mb-1">{file.originalFilename}</div>
                     <div className="text-sm text-gray-500">
                       {formatFileSize(file.fileSize)} • Uploaded by {file.senderName} on {formatDate(file.uploadTime)}
                     </div>
+                    {file.snippet && (
+                      // Snippets are HTML-escaped by the server apart from the <mark> tags
+                      <div className="text-sm text-gray-600 mt-1" dangerouslySetInnerHTML={{ __html: file.snippet }} />
+                    )}
                   </div>
                   <button
                     onClick={() => handleDownload(file.id)}
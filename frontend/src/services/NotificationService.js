@@ -35,6 +35,25 @@ export async function getAllNotifications(userId) {
   return res.json();
 }
 
+// One page of the inbox, newest first: { notifications, nextCursor, hasMore }
+export async function getInboxPage(userId, cursor = null, size = 50) {
+  const params = new URLSearchParams({ size: String(size) });
+  if (cursor) params.set("cursor", cursor);
+  const res = await fetch(`${API_BASE}/user/${userId}/inbox?${params}`, {
+    headers: authHeaders(),
+  });
+  if (!res.ok) throw new Error("Failed to load notifications");
+  return res.json();
+}
+
+export async function getUnreadCount(userId) {
+  const res = await fetch(`${API_BASE}/user/${userId}/unread-count`, {
+    headers: authHeaders(),
+  });
+  if (!res.ok) throw new Error("Failed to load unread count");
+  return res.json();
+}
+
 export async function markNotificationRead(id) {
   const res = await fetch(`${API_BASE}/${id}/read`, {
     method: "PUT",